@@ -26,11 +26,11 @@ public abstract class DBObjectImpl<P extends Number> implements DBObject<P> {
 	 * setzt die Primary ID
 	 *
 	 * @param primary die neue Primary ID
-	 * @throws IllegalStateException wenn bereits eine Primary ID vorhanden ist und etwas anderes außer {@code null} versucht wird zu setzten
+	 * @throws IllegalStateException wenn bereits eine Primary ID vorhanden ist und etwas anderes außer {@code null} oder derselben ID versucht wird zu setzten
 	 */
 	@Override
 	public void setPrimary(final @Nullable P primary) {
-		if (primary != null && getPrimary() != null)
+		if (primary != null && getPrimary() != null && !primary.equals(getPrimary()))
 			throw new IllegalStateException("Die Primary ID darf nicht verändert werden!");
 		this.primary = primary;
 	}
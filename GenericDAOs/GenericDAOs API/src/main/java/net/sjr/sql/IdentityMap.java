@@ -0,0 +1,126 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identity Map für eine Arbeitseinheit. Solange sie für den aktuellen Thread geöffnet ist, teilen sich alle DAOs die geladenen Objekte,
+ * sodass jede Zeile höchstens einmal geladen und immer die selbe Instanz zurück gegeben wird.<br>
+ * Die Objekte werden an Hand der Klasse der DAO und ihrer Primary ID gefunden.
+ * <pre>
+ * try (IdentityMap map = IdentityMap.open()) {
+ *     ...
+ * }
+ * </pre>
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class IdentityMap implements AutoCloseable {
+	private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+	private final Map<Class<?>, Map<Number, DBObject<?>>> objects = new HashMap<>();
+	private final IdentityMap previous;
+	private boolean closed = false;
+	
+	private IdentityMap(final @Nullable IdentityMap previous) {
+		this.previous = previous;
+	}
+	
+	/**
+	 * Öffnet eine neue {@link IdentityMap} für den aktuellen Thread. Eine bereits offene {@link IdentityMap} wird beim {@link #close()} wieder hergestellt
+	 *
+	 * @return die neue {@link IdentityMap}
+	 */
+	public static @NotNull IdentityMap open() {
+		IdentityMap result = new IdentityMap(CURRENT.get());
+		CURRENT.set(result);
+		return result;
+	}
+	
+	/**
+	 * Gibt die {@link IdentityMap} des aktuellen Threads zurück
+	 *
+	 * @return die {@link IdentityMap} oder {@code null}, wenn keine geöffnet ist
+	 */
+	public static @Nullable IdentityMap current() {
+		return CURRENT.get();
+	}
+	
+	/**
+	 * Gibt das Objekt mit der Primary ID zurück
+	 *
+	 * @param objectClass die Klasse der Objekte der DAO
+	 * @param primary     die Primary ID
+	 * @param <T>         der Typ der Objekte
+	 * @return das Objekt oder {@code null}, wenn es noch nicht geladen wurde
+	 */
+	@SuppressWarnings("unchecked")
+	public @Nullable <T extends DBObject<?>> T get(final @NotNull Class<T> objectClass, final @NotNull Number primary) {
+		Map<Number, DBObject<?>> map = objects.get(objectClass);
+		if (map == null) return null;
+		return (T) map.get(primary);
+	}
+	
+	/**
+	 * Legt ein Objekt in die {@link IdentityMap}. Objekte ohne Primary ID werden ignoriert
+	 *
+	 * @param objectClass die Klasse der Objekte der DAO
+	 * @param value       das Objekt
+	 * @param <T>         der Typ der Objekte
+	 */
+	public <T extends DBObject<?>> void put(final @NotNull Class<T> objectClass, final @NotNull T value) {
+		Number primary = value.getPrimary();
+		if (primary == null) return;
+		Map<Number, DBObject<?>> map = objects.get(objectClass);
+		if (map == null) {
+			map = new HashMap<>();
+			objects.put(objectClass, map);
+		}
+		map.put(primary, value);
+	}
+	
+	/**
+	 * Entfernt ein Objekt aus der {@link IdentityMap}
+	 *
+	 * @param objectClass die Klasse der Objekte der DAO
+	 * @param primary     die Primary ID
+	 */
+	public void remove(final @NotNull Class<?> objectClass, final @Nullable Number primary) {
+		if (primary == null) return;
+		Map<Number, DBObject<?>> map = objects.get(objectClass);
+		if (map != null) map.remove(primary);
+	}
+	
+	/**
+	 * Entfernt alle Objekte aus der {@link IdentityMap}
+	 */
+	public void clear() {
+		objects.clear();
+	}
+	
+	/**
+	 * @return die Anzahl aller Objekte in der {@link IdentityMap}
+	 */
+	public int size() {
+		int result = 0;
+		for (final Map<Number, DBObject<?>> map : objects.values()) {
+			result += map.size();
+		}
+		return result;
+	}
+	
+	/**
+	 * Schließt die {@link IdentityMap} und stellt die vorher geöffnete wieder her
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		objects.clear();
+		if (CURRENT.get() == this) {
+			if (previous == null) CURRENT.remove();
+			else CURRENT.set(previous);
+		}
+	}
+}
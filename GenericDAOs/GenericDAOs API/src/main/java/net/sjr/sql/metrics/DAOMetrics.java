@@ -0,0 +1,84 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SPI für die Instrumentierung der DAOs und ihrer Connection Pools. Die Implementierung wird mit {@link Instrumentation#setMetrics(DAOMetrics)} gesetzt.<br>
+ * Alle Methoden werden im Hot Path aufgerufen und müssen daher schnell und Thread sicher sein
+ */
+public interface DAOMetrics {
+	/**
+	 * Gibt an, ob überhaupt etwas aufgezeichnet wird. Bei {@code false} wird die Zeitmessung übersprungen
+	 *
+	 * @return {@code true}, wenn aufgezeichnet wird
+	 */
+	boolean isEnabled();
+	
+	/**
+	 * Zeichnet eine ausgeführte Abfrage auf
+	 *
+	 * @param dao      der Name der DAO
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param nanos    die Dauer der Ausführung in Nanosekunden
+	 */
+	void recordQuery(@NotNull String dao, @Nullable String cacheKey, long nanos);
+	
+	/**
+	 * Zeichnet die Anzahl der aus einer Abfrage gelesenen Zeilen auf
+	 *
+	 * @param dao      der Name der DAO
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param rows     die Anzahl der Zeilen
+	 */
+	void recordRows(@NotNull String dao, @Nullable String cacheKey, int rows);
+	
+	/**
+	 * Zeichnet ein ausgeführtes Update oder einen Batch auf
+	 *
+	 * @param dao      der Name der DAO
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param nanos    die Dauer der Ausführung in Nanosekunden
+	 * @param rows     die Anzahl der geänderten Zeilen
+	 */
+	void recordUpdate(@NotNull String dao, @Nullable String cacheKey, long nanos, int rows);
+	
+	/**
+	 * Zeichnet das Ausleihen einer Verbindung aus einem Pool auf
+	 *
+	 * @param pool      der Name des Pools
+	 * @param waitNanos die Wartezeit in Nanosekunden
+	 */
+	void recordBorrow(@NotNull String pool, long waitNanos);
+	
+	/**
+	 * Zeichnet den aktuellen Zustand eines Pools auf
+	 *
+	 * @param pool   der Name des Pools
+	 * @param active die Anzahl der ausgeliehenen Verbindungen
+	 * @param idle   die Anzahl der freien Verbindungen
+	 */
+	void recordPoolState(@NotNull String pool, int active, int idle);
+	
+	/**
+	 * Zeichnet einen Zugriff auf den Statement Cache auf
+	 *
+	 * @param dao der Name der DAO
+	 * @param hit {@code true}, wenn das Statement im Cache lag
+	 */
+	void recordStatementCache(@NotNull String dao, boolean hit);
+	
+	/**
+	 * Zeichnet auf, dass ein {@link java.sql.PreparedStatement} wegen der Größenbegrenzung aus dem Statement Cache verdrängt und geschlossen wurde
+	 *
+	 * @param dao der Name der DAO
+	 */
+	void recordStatementCacheEviction(@NotNull String dao);
+	
+	/**
+	 * Zeichnet eine Abfrage auf, die beim Auflösen eines Fremdschlüssels einzeln an die Datenbank gestellt wurde
+	 *
+	 * @param dao der Name der DAO, über die geladen wurde
+	 */
+	void recordForeignKeyQuery(@NotNull String dao);
+}
@@ -0,0 +1,16 @@
+package net.sjr.sql.metrics;
+
+/**
+ * JMX Schnittstelle der {@link InProcessDAOMetrics}
+ */
+public interface DAOMetricsMXBean {
+	/**
+	 * @return eine Momentaufnahme aller aufgezeichneten Werte
+	 */
+	DAOMetricsSnapshot getSnapshot();
+	
+	/**
+	 * Setzt alle aufgezeichneten Werte zurück
+	 */
+	void reset();
+}
@@ -0,0 +1,62 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Unveränderliche Momentaufnahme aller von den {@link InProcessDAOMetrics} aufgezeichneten Werte
+ */
+@SuppressWarnings("WeakerAccess")
+public final class DAOMetricsSnapshot {
+	private final long timestamp;
+	private final Map<String, StatementStats> statements;
+	private final Map<String, PoolStats> pools;
+	private final Map<String, StatementCacheStats> statementCaches;
+	private final Map<String, Long> foreignKeyQueries;
+	
+	DAOMetricsSnapshot(final long timestamp, final @NotNull Map<String, StatementStats> statements, final @NotNull Map<String, PoolStats> pools,
+					   final @NotNull Map<String, StatementCacheStats> statementCaches, final @NotNull Map<String, Long> foreignKeyQueries) {
+		this.timestamp = timestamp;
+		this.statements = Collections.unmodifiableMap(statements);
+		this.pools = Collections.unmodifiableMap(pools);
+		this.statementCaches = Collections.unmodifiableMap(statementCaches);
+		this.foreignKeyQueries = Collections.unmodifiableMap(foreignKeyQueries);
+	}
+	
+	/**
+	 * @return der Zeitpunkt der Aufnahme in Millisekunden seit 1970
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
+	/**
+	 * @return die Statistik pro Statement mit dem Key {@code <DAO>#<cacheKey>}
+	 */
+	public @NotNull Map<String, StatementStats> getStatements() {
+		return statements;
+	}
+	
+	/**
+	 * @return die Statistik pro Connection Pool
+	 */
+	public @NotNull Map<String, PoolStats> getPools() {
+		return pools;
+	}
+	
+	/**
+	 * @return die Treffer im Statement Cache pro DAO
+	 */
+	public @NotNull Map<String, StatementCacheStats> getStatementCaches() {
+		return statementCaches;
+	}
+	
+	/**
+	 * @return die Anzahl der einzeln geladenen Fremdschlüssel pro DAO
+	 */
+	public @NotNull Map<String, Long> getForeignKeyQueries() {
+		return foreignKeyQueries;
+	}
+}
@@ -0,0 +1,200 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DAOMetrics}, welche alle Werte im Speicher zählt. Mit {@link #snapshot()} oder per JMX über {@link #registerMBean()} können sie abgefragt werden
+ */
+@SuppressWarnings("WeakerAccess")
+public class InProcessDAOMetrics implements DAOMetrics, DAOMetricsMXBean {
+	/**
+	 * Der Standardname, unter dem {@link #registerMBean()} registriert
+	 */
+	public static final String OBJECT_NAME = "net.sjr.sql:type=DAOMetrics";
+	private static final String NO_KEY = "-";
+	
+	private final ConcurrentMap<String, Statement> statements = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Pool> pools = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, AtomicLong[]> statementCaches = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, AtomicLong> foreignKeyQueries = new ConcurrentHashMap<>();
+	
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+	
+	@Override
+	public void recordQuery(final @NotNull String dao, final @Nullable String cacheKey, final long nanos) {
+		statement(dao, cacheKey).latency.record(nanos);
+	}
+	
+	@Override
+	public void recordRows(final @NotNull String dao, final @Nullable String cacheKey, final int rows) {
+		statement(dao, cacheKey).rows.addAndGet(rows);
+	}
+	
+	@Override
+	public void recordUpdate(final @NotNull String dao, final @Nullable String cacheKey, final long nanos, final int rows) {
+		Statement statement = statement(dao, cacheKey);
+		statement.latency.record(nanos);
+		statement.rows.addAndGet(rows);
+	}
+	
+	@Override
+	public void recordBorrow(final @NotNull String pool, final long waitNanos) {
+		pool(pool).wait.record(waitNanos);
+	}
+	
+	@Override
+	public void recordPoolState(final @NotNull String pool, final int active, final int idle) {
+		Pool p = pool(pool);
+		p.active = active;
+		p.idle = idle;
+	}
+	
+	@Override
+	public void recordStatementCache(final @NotNull String dao, final boolean hit) {
+		statementCacheCounters(dao)[hit ? 0 : 1].incrementAndGet();
+	}
+	
+	@Override
+	public void recordStatementCacheEviction(final @NotNull String dao) {
+		statementCacheCounters(dao)[2].incrementAndGet();
+	}
+	
+	@Override
+	public void recordForeignKeyQuery(final @NotNull String dao) {
+		AtomicLong counter = foreignKeyQueries.get(dao);
+		if (counter == null) {
+			AtomicLong created = new AtomicLong();
+			counter = foreignKeyQueries.putIfAbsent(dao, created);
+			if (counter == null) counter = created;
+		}
+		counter.incrementAndGet();
+	}
+	
+	/**
+	 * Erstellt eine Momentaufnahme aller aufgezeichneten Werte
+	 *
+	 * @return die {@link DAOMetricsSnapshot}
+	 */
+	public @NotNull DAOMetricsSnapshot snapshot() {
+		Map<String, StatementStats> statementStats = new TreeMap<>();
+		for (final Map.Entry<String, Statement> e : statements.entrySet()) {
+			Statement s = e.getValue();
+			statementStats.put(e.getKey(), new StatementStats(s.dao, s.cacheKey, s.rows.get(), s.latency));
+		}
+		Map<String, PoolStats> poolStats = new TreeMap<>();
+		for (final Map.Entry<String, Pool> e : pools.entrySet()) {
+			Pool p = e.getValue();
+			poolStats.put(e.getKey(), new PoolStats(e.getKey(), p.wait, p.active, p.idle));
+		}
+		Map<String, StatementCacheStats> cacheStats = new TreeMap<>();
+		for (final Map.Entry<String, AtomicLong[]> e : statementCaches.entrySet()) {
+			cacheStats.put(e.getKey(), new StatementCacheStats(e.getKey(), e.getValue()[0].get(), e.getValue()[1].get(), e.getValue()[2].get()));
+		}
+		Map<String, Long> fkQueries = new TreeMap<>();
+		for (final Map.Entry<String, AtomicLong> e : foreignKeyQueries.entrySet()) {
+			fkQueries.put(e.getKey(), e.getValue().get());
+		}
+		return new DAOMetricsSnapshot(System.currentTimeMillis(), statementStats, poolStats, cacheStats, fkQueries);
+	}
+	
+	@Override
+	public @NotNull DAOMetricsSnapshot getSnapshot() {
+		return snapshot();
+	}
+	
+	@Override
+	public void reset() {
+		statements.clear();
+		pools.clear();
+		statementCaches.clear();
+		foreignKeyQueries.clear();
+	}
+	
+	/**
+	 * Registriert sich unter {@link #OBJECT_NAME} beim Platform {@link MBeanServer}
+	 *
+	 * @return der {@link ObjectName}, unter dem registriert wurde
+	 * @throws IllegalStateException wenn die Registrierung fehlgeschlagen ist
+	 */
+	public @NotNull ObjectName registerMBean() {
+		try {
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(name)) server.unregisterMBean(name);
+			server.registerMBean(this, name);
+			return name;
+		}
+		catch (final JMException e) {
+			throw new IllegalStateException("Die DAOMetrics konnten nicht als MBean registriert werden", e);
+		}
+	}
+	
+	private @NotNull Statement statement(final @NotNull String dao, final @Nullable String cacheKey) {
+		String key = dao + '#' + (cacheKey == null ? NO_KEY : cacheKey);
+		Statement result = statements.get(key);
+		if (result == null) {
+			Statement created = new Statement(dao, cacheKey);
+			result = statements.putIfAbsent(key, created);
+			if (result == null) result = created;
+		}
+		return result;
+	}
+	
+	private @NotNull Pool pool(final @NotNull String pool) {
+		Pool result = pools.get(pool);
+		if (result == null) {
+			Pool created = new Pool();
+			result = pools.putIfAbsent(pool, created);
+			if (result == null) result = created;
+		}
+		return result;
+	}
+	
+	private @NotNull AtomicLong[] statementCacheCounters(final @NotNull String dao) {
+		AtomicLong[] result = statementCaches.get(dao);
+		if (result == null) {
+			AtomicLong[] created = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+			result = statementCaches.putIfAbsent(dao, created);
+			if (result == null) result = created;
+		}
+		return result;
+	}
+	
+	/**
+	 * Zähler eines Statements
+	 */
+	private static final class Statement {
+		private final String dao;
+		private final String cacheKey;
+		private final AtomicLong rows = new AtomicLong();
+		private final LatencyHistogram latency = new LatencyHistogram();
+		
+		private Statement(final @NotNull String dao, final @Nullable String cacheKey) {
+			this.dao = dao;
+			this.cacheKey = cacheKey;
+		}
+	}
+	
+	/**
+	 * Zähler eines Connection Pools
+	 */
+	private static final class Pool {
+		private final LatencyHistogram wait = new LatencyHistogram();
+		private volatile int active;
+		private volatile int idle;
+	}
+}
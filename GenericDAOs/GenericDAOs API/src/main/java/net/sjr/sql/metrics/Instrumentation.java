@@ -0,0 +1,36 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hält die global genutzten {@link DAOMetrics}. Ohne Konfiguration werden die {@link NoOpDAOMetrics} genutzt.
+ * <pre>
+ * InProcessDAOMetrics metrics = new InProcessDAOMetrics();
+ * Instrumentation.setMetrics(metrics);
+ * metrics.registerMBean();
+ * </pre>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Instrumentation {
+	private static volatile DAOMetrics metrics = NoOpDAOMetrics.INSTANCE;
+	
+	/**
+	 * @return die aktuell genutzten {@link DAOMetrics}
+	 */
+	public static @NotNull DAOMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Setzt die zu nutzenden {@link DAOMetrics}
+	 *
+	 * @param metrics die {@link DAOMetrics} oder {@code null}, um wieder die {@link NoOpDAOMetrics} zu nutzen
+	 */
+	public static void setMetrics(final @Nullable DAOMetrics metrics) {
+		Instrumentation.metrics = metrics == null ? NoOpDAOMetrics.INSTANCE : metrics;
+	}
+	
+	private Instrumentation() {
+	}
+}
@@ -0,0 +1,70 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread sicheres Histogramm mit festen, logarithmischen Grenzen von 100µs bis 10s
+ */
+@SuppressWarnings("WeakerAccess")
+public final class LatencyHistogram {
+	/**
+	 * Die oberen Grenzen der Buckets in Mikrosekunden. Der letzte Bucket enthält alles darüber
+	 */
+	public static final long[] BOUNDS_MICROS = {100L, 1000L, 10 * 1000L, 100 * 1000L, 1000 * 1000L, 10 * 1000 * 1000L};
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	
+	/**
+	 * Zeichnet einen Wert auf
+	 *
+	 * @param nanos der Wert in Nanosekunden
+	 */
+	public void record(final long nanos) {
+		long micros = nanos / 1000;
+		int i = 0;
+		while (i < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[i]) i++;
+		buckets.incrementAndGet(i);
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) max = maxNanos.get();
+	}
+	
+	/**
+	 * @return die Anzahl der aufgezeichneten Werte
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	
+	/**
+	 * @return die Summe aller Werte in Nanosekunden
+	 */
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+	
+	/**
+	 * @return der größte Wert in Nanosekunden
+	 */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+	
+	/**
+	 * @return die Anzahl der Werte pro Bucket. Die Grenzen stehen in {@link #BOUNDS_MICROS}
+	 */
+	public @NotNull long[] getBuckets() {
+		long[] result = new long[buckets.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = buckets.get(i);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,51 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link DAOMetrics}, welche nichts aufzeichnen. Wird genutzt, solange keine andere Implementierung gesetzt ist
+ */
+public final class NoOpDAOMetrics implements DAOMetrics {
+	public static final NoOpDAOMetrics INSTANCE = new NoOpDAOMetrics();
+	
+	private NoOpDAOMetrics() {
+	}
+	
+	@Override
+	public boolean isEnabled() {
+		return false;
+	}
+	
+	@Override
+	public void recordQuery(final @NotNull String dao, final @Nullable String cacheKey, final long nanos) {
+	}
+	
+	@Override
+	public void recordRows(final @NotNull String dao, final @Nullable String cacheKey, final int rows) {
+	}
+	
+	@Override
+	public void recordUpdate(final @NotNull String dao, final @Nullable String cacheKey, final long nanos, final int rows) {
+	}
+	
+	@Override
+	public void recordBorrow(final @NotNull String pool, final long waitNanos) {
+	}
+	
+	@Override
+	public void recordPoolState(final @NotNull String pool, final int active, final int idle) {
+	}
+	
+	@Override
+	public void recordStatementCache(final @NotNull String dao, final boolean hit) {
+	}
+	
+	@Override
+	public void recordStatementCacheEviction(final @NotNull String dao) {
+	}
+	
+	@Override
+	public void recordForeignKeyQuery(final @NotNull String dao) {
+	}
+}
@@ -0,0 +1,81 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Unveränderliche Momentaufnahme der Statistik eines Connection Pools
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PoolStats {
+	private final String pool;
+	private final long borrows;
+	private final long totalWaitNanos;
+	private final long maxWaitNanos;
+	private final long[] waitBuckets;
+	private final int active;
+	private final int idle;
+	
+	PoolStats(final @NotNull String pool, final @NotNull LatencyHistogram wait, final int active, final int idle) {
+		this.pool = pool;
+		this.borrows = wait.getCount();
+		this.totalWaitNanos = wait.getTotalNanos();
+		this.maxWaitNanos = wait.getMaxNanos();
+		this.waitBuckets = wait.getBuckets();
+		this.active = active;
+		this.idle = idle;
+	}
+	
+	/**
+	 * @return der Name des Pools
+	 */
+	public @NotNull String getPool() {
+		return pool;
+	}
+	
+	/**
+	 * @return die Anzahl der ausgeliehenen Verbindungen
+	 */
+	public long getBorrows() {
+		return borrows;
+	}
+	
+	/**
+	 * @return die gesamte Wartezeit beim Ausleihen in Nanosekunden
+	 */
+	public long getTotalWaitNanos() {
+		return totalWaitNanos;
+	}
+	
+	/**
+	 * @return die längste Wartezeit beim Ausleihen in Nanosekunden
+	 */
+	public long getMaxWaitNanos() {
+		return maxWaitNanos;
+	}
+	
+	/**
+	 * @return die Anzahl der Ausleihen pro Bucket der Wartezeit. Die Grenzen stehen in {@link LatencyHistogram#BOUNDS_MICROS}
+	 */
+	public @NotNull long[] getWaitBuckets() {
+		return waitBuckets.clone();
+	}
+	
+	/**
+	 * @return die Anzahl der zuletzt ausgeliehenen Verbindungen
+	 */
+	public int getActive() {
+		return active;
+	}
+	
+	/**
+	 * @return die Anzahl der zuletzt freien Verbindungen
+	 */
+	public int getIdle() {
+		return idle;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return pool + " borrows=" + borrows + " active=" + active + " idle=" + idle;
+	}
+}
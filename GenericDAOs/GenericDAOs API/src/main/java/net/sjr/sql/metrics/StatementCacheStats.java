@@ -0,0 +1,62 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Unveränderliche Momentaufnahme der Treffer im Statement Cache einer DAO
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StatementCacheStats {
+	private final String dao;
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	
+	StatementCacheStats(final @NotNull String dao, final long hits, final long misses, final long evictions) {
+		this.dao = dao;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+	
+	/**
+	 * @return der Name der DAO
+	 */
+	public @NotNull String getDao() {
+		return dao;
+	}
+	
+	/**
+	 * @return die Anzahl der Treffer
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return die Anzahl der neu erstellten Statements
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * @return die Anzahl der wegen der Größenbegrenzung geschlossenen Statements
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * @return der Anteil der Treffer zwischen 0 und 1
+	 */
+	public double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return dao + " hits=" + hits + " misses=" + misses + " evictions=" + evictions;
+	}
+}
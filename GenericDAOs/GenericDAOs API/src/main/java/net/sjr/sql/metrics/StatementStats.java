@@ -0,0 +1,89 @@
+package net.sjr.sql.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Unveränderliche Momentaufnahme der Statistik eines Statements einer DAO
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StatementStats {
+	private final String dao;
+	private final String cacheKey;
+	private final long executions;
+	private final long rows;
+	private final long totalNanos;
+	private final long maxNanos;
+	private final long[] latencyBuckets;
+	
+	StatementStats(final @NotNull String dao, final @Nullable String cacheKey, final long rows, final @NotNull LatencyHistogram latency) {
+		this.dao = dao;
+		this.cacheKey = cacheKey;
+		this.rows = rows;
+		this.executions = latency.getCount();
+		this.totalNanos = latency.getTotalNanos();
+		this.maxNanos = latency.getMaxNanos();
+		this.latencyBuckets = latency.getBuckets();
+	}
+	
+	/**
+	 * @return der Name der DAO
+	 */
+	public @NotNull String getDao() {
+		return dao;
+	}
+	
+	/**
+	 * @return der Key für den pstCache oder {@code null}
+	 */
+	public @Nullable String getCacheKey() {
+		return cacheKey;
+	}
+	
+	/**
+	 * @return die Anzahl der Ausführungen
+	 */
+	public long getExecutions() {
+		return executions;
+	}
+	
+	/**
+	 * @return die Anzahl der gelesenen bzw. geänderten Zeilen
+	 */
+	public long getRows() {
+		return rows;
+	}
+	
+	/**
+	 * @return die gesamte Dauer aller Ausführungen in Nanosekunden
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+	
+	/**
+	 * @return die längste Dauer einer Ausführung in Nanosekunden
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+	
+	/**
+	 * @return die durchschnittliche Dauer einer Ausführung in Millisekunden
+	 */
+	public double getMeanMillis() {
+		return executions == 0 ? 0 : totalNanos / 1000000d / executions;
+	}
+	
+	/**
+	 * @return die Anzahl der Ausführungen pro Bucket. Die Grenzen stehen in {@link LatencyHistogram#BOUNDS_MICROS}
+	 */
+	public @NotNull long[] getLatencyBuckets() {
+		return latencyBuckets.clone();
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return dao + '#' + cacheKey + " executions=" + executions + " rows=" + rows + " meanMillis=" + getMeanMillis();
+	}
+}
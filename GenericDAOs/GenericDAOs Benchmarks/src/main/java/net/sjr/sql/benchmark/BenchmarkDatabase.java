@@ -0,0 +1,107 @@
+package net.sjr.sql.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Erstellt die eingebettete H2 In-Memory Datenbank, gegen welche die Benchmarks laufen
+ */
+@SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
+final class BenchmarkDatabase {
+	private static final String[] DDL = {
+			"CREATE TABLE Category (categoryID BIGINT AUTO_INCREMENT PRIMARY KEY NOT NULL, name VARCHAR(100))",
+			"CREATE TABLE Item (itemID INTEGER AUTO_INCREMENT PRIMARY KEY NOT NULL, name VARCHAR(100), amount INTEGER, created TIMESTAMP, category BIGINT, " +
+					"CONSTRAINT Item_Category_fk FOREIGN KEY (category) REFERENCES Category (categoryID))",
+			"CREATE TABLE ItemCategory (itemCategoryID INTEGER AUTO_INCREMENT PRIMARY KEY NOT NULL, item INTEGER NOT NULL, category BIGINT NOT NULL, " +
+					"CONSTRAINT ItemCategory_Item_fk FOREIGN KEY (item) REFERENCES Item (itemID), " +
+					"CONSTRAINT ItemCategory_Category_fk FOREIGN KEY (category) REFERENCES Category (categoryID))",
+			"CREATE UNIQUE INDEX ItemCategory_uindex ON ItemCategory (item, category)"
+	};
+	private static final int BATCH = 1000;
+	
+	/**
+	 * Öffnet eine neue, leere Datenbank mit den Tabellen {@code Category}, {@code Item} und {@code ItemCategory}
+	 *
+	 * @param name der Name der Datenbank. Muss pro gleichzeitig offener Datenbank eindeutig sein
+	 * @return die Verbindung zur Datenbank. Die Datenbank lebt, bis die Verbindung geschlossen wird
+	 * @throws SQLException wenn die Datenbank nicht erstellt werden konnte
+	 */
+	static @NotNull Connection open(final @NotNull String name) throws SQLException {
+		Connection con = DriverManager.getConnection("jdbc:h2:mem:" + name);
+		try (Statement st = con.createStatement()) {
+			for (final String ddl : DDL) {
+				st.execute(ddl);
+			}
+		}
+		return con;
+	}
+	
+	/**
+	 * Fügt Kategorien mit den IDs {@code 1..categories} ein
+	 *
+	 * @param con        die Verbindung zur Datenbank
+	 * @param categories die Anzahl an Kategorien
+	 * @throws SQLException wenn ein SQL Fehler auftrat
+	 */
+	static void insertCategories(final @NotNull Connection con, final int categories) throws SQLException {
+		try (PreparedStatement pst = con.prepareStatement("INSERT INTO Category (name) VALUES (?)")) {
+			for (int i = 1; i <= categories; i++) {
+				pst.setString(1, "Kategorie " + i);
+				pst.addBatch();
+				if (i % BATCH == 0) pst.executeBatch();
+			}
+			pst.executeBatch();
+		}
+	}
+	
+	/**
+	 * Fügt Items mit den IDs {@code 1..items} ein, welche reihum auf die Kategorien {@code 1..categories} verweisen
+	 *
+	 * @param con        die Verbindung zur Datenbank
+	 * @param items      die Anzahl an Items
+	 * @param categories die Anzahl an bereits vorhandenen Kategorien
+	 * @throws SQLException wenn ein SQL Fehler auftrat
+	 */
+	static void insertItems(final @NotNull Connection con, final int items, final int categories) throws SQLException {
+		Timestamp created = new Timestamp(System.currentTimeMillis());
+		try (PreparedStatement pst = con.prepareStatement("INSERT INTO Item (name, amount, created, category) VALUES (?, ?, ?, ?)")) {
+			for (int i = 1; i <= items; i++) {
+				pst.setString(1, "Item " + i);
+				pst.setInt(2, i);
+				pst.setTimestamp(3, created);
+				pst.setLong(4, i % categories + 1);
+				pst.addBatch();
+				if (i % BATCH == 0) pst.executeBatch();
+			}
+			pst.executeBatch();
+		}
+	}
+	
+	/**
+	 * Verknüpft das Item über die Kreuztabelle mit den Kategorien {@code 1..categories}
+	 *
+	 * @param con        die Verbindung zur Datenbank
+	 * @param item       die ID des Items
+	 * @param categories die Anzahl an zu verknüpfenden Kategorien
+	 * @throws SQLException wenn ein SQL Fehler auftrat
+	 */
+	static void linkCategories(final @NotNull Connection con, final int item, final int categories) throws SQLException {
+		try (PreparedStatement pst = con.prepareStatement("INSERT INTO ItemCategory (item, category) VALUES (?, ?)")) {
+			for (int i = 1; i <= categories; i++) {
+				pst.setInt(1, item);
+				pst.setLong(2, i);
+				pst.addBatch();
+			}
+			pst.executeBatch();
+		}
+	}
+	
+	private BenchmarkDatabase() {
+	}
+}
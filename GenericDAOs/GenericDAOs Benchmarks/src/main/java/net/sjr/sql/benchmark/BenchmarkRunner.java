@@ -0,0 +1,33 @@
+package net.sjr.sql.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet die Benchmarks mit den normalen JMH Kommandozeilenoptionen.<br>
+ * Wird kein Profiler mit {@code -prof} angegeben, wird der {@link GCProfiler} genutzt, damit neben der Zeit auch die Allokationsrate
+ * ({@code gc.alloc.rate.norm} in Bytes pro Operation) gemessen wird.
+ * <pre>
+ * mvn package -pl "GenericDAOs/GenericDAOs Benchmarks" -am
+ * java -jar "GenericDAOs/GenericDAOs Benchmarks/target/benchmarks.jar" [Regex der Benchmarks] [JMH Optionen]
+ * </pre>
+ */
+public final class BenchmarkRunner {
+	public static void main(final String[] args) throws Exception {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams() || options.shouldListProfilers() || options.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (options.getProfilers().isEmpty()) builder.addProfiler(GCProfiler.class);
+		new Runner(builder.build()).run();
+	}
+	
+	private BenchmarkRunner() {
+	}
+}
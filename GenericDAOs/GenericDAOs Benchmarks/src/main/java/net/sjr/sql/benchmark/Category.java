@@ -0,0 +1,19 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DBObjectImpl;
+
+/**
+ * Kategorie, auf welche die {@link Item}s per Fremdschlüssel und über die Kreuztabelle verweisen
+ */
+public class Category extends DBObjectImpl<Long> {
+	private static final long serialVersionUID = 2315496172315845118L;
+	private String name = null;
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+}
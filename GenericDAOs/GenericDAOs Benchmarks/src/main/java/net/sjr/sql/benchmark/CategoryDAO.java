@@ -0,0 +1,60 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DAO;
+import net.sjr.sql.DBObject;
+import net.sjr.sql.ParameterList;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link DAO} für die {@link Category} Tabelle
+ */
+public class CategoryDAO extends DAO<Category, Long> {
+	private static final String FELDER = "name";
+	private static final String PRIMARY = "categoryID";
+	private static final String TABLE = "Category";
+	
+	public CategoryDAO(Connection con) {
+		super(con);
+	}
+	
+	public CategoryDAO(DAO<? extends DBObject, ? extends Number> dao) {
+		super(dao);
+	}
+	
+	@Override
+	protected @NotNull String getFelder() {
+		return FELDER;
+	}
+	
+	@Override
+	protected @NotNull String getTable() {
+		return TABLE;
+	}
+	
+	@Override
+	protected @NotNull String getPrimaryCol() {
+		return PRIMARY;
+	}
+	
+	@Override
+	protected @NotNull ParameterList getPList(@NotNull Category v) {
+		return new ParameterList(v.getName());
+	}
+	
+	@Override
+	protected @NotNull Category getFromRS(ResultSet rs, DBObject... loadedObjects) throws SQLException {
+		Category result = new Category();
+		fillObject(rs, result, loadedObjects);
+		return result;
+	}
+	
+	@Override
+	protected void fillObject(@NotNull ResultSet rs, @NotNull Category result, DBObject... loadedObjects) throws SQLException {
+		result.setPrimary(rs.getLong(1));
+		result.setName(rs.getString(2));
+	}
+}
@@ -0,0 +1,65 @@
+package net.sjr.sql.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst {@link ItemDAO#loadFromID} und {@link ItemDAO#loadAll} bei 1k und 100k Zeilen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DAOBenchmark {
+	private static final int CATEGORIES = 100;
+	
+	@Param({"1000", "100000"})
+	private int rows;
+	
+	private Connection con;
+	private ItemDAO dao;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("dao");
+		BenchmarkDatabase.insertCategories(con, CATEGORIES);
+		BenchmarkDatabase.insertItems(con, rows, CATEGORIES);
+		dao = new ItemDAO(con);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		dao.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public Item loadFromID() {
+		return dao.loadFromID(ThreadLocalRandom.current().nextInt(rows) + 1);
+	}
+	
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<Item> loadAll() {
+		return dao.loadAll();
+	}
+}
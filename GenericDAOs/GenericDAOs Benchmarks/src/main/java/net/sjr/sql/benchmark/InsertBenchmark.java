@@ -0,0 +1,95 @@
+package net.sjr.sql.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Durchsatz von {@link ItemDAO#insertIntoDB} einzeln und gebündelt über {@link ItemDAO#insertAll}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+	private static final int CATEGORIES = 10;
+	private static final int BATCH = 100;
+	
+	private Connection con;
+	private ItemDAO dao;
+	private Category category;
+	private Date created;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("insert");
+		BenchmarkDatabase.insertCategories(con, CATEGORIES);
+		dao = new ItemDAO(con);
+		category = dao.getCategoryDAO().loadFromID(1L);
+		created = new Date();
+	}
+	
+	/**
+	 * Leert die Item Tabelle, damit jede Iteration mit der gleichen Tabellengröße startet
+	 */
+	@Setup(Level.Iteration)
+	@SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
+	public void truncate() throws SQLException {
+		try (Statement st = con.createStatement()) {
+			st.execute("DELETE FROM Item");
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		dao.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public Item insertIntoDB() {
+		Item item = newItem(1);
+		dao.insertIntoDB(item);
+		return item;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public List<Item> insertAll() {
+		List<Item> items = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			items.add(newItem(i));
+		}
+		dao.insertAll(items);
+		return items;
+	}
+	
+	private Item newItem(final int amount) {
+		Item result = new Item();
+		result.setName("Item");
+		result.setAmount(amount);
+		result.setCreated(created);
+		result.setCategory(category);
+		return result;
+	}
+}
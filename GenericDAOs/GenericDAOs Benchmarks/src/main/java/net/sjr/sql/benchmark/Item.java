@@ -0,0 +1,48 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DBObjectImpl;
+
+import java.util.Date;
+
+/**
+ * Zeile der Item Tabelle mit einigen einfachen Spalten und einem Fremdschlüssel auf {@link Category}
+ */
+public class Item extends DBObjectImpl<Integer> {
+	private static final long serialVersionUID = -4629311876354090315L;
+	private String name = null;
+	private int amount = 0;
+	private Date created = null;
+	private Category category = null;
+	
+	public String getName() {
+		return name;
+	}
+	
+	public void setName(String name) {
+		this.name = name;
+	}
+	
+	public int getAmount() {
+		return amount;
+	}
+	
+	public void setAmount(int amount) {
+		this.amount = amount;
+	}
+	
+	public Date getCreated() {
+		return created;
+	}
+	
+	public void setCreated(Date created) {
+		this.created = created;
+	}
+	
+	public Category getCategory() {
+		return category;
+	}
+	
+	public void setCategory(Category category) {
+		this.category = category;
+	}
+}
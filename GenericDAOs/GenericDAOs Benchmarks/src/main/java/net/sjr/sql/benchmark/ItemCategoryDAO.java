@@ -0,0 +1,53 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DAO;
+import net.sjr.sql.Kreuz2DAO;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+
+/**
+ * {@link Kreuz2DAO} für die n:m Beziehung zwischen {@link Item} und {@link Category}
+ */
+public class ItemCategoryDAO extends Kreuz2DAO<Item, Integer, Category, Long> {
+	private static final String KREUZ = "ItemCategory";
+	private static final String COLA = "item";
+	private static final String COLB = "category";
+	private final ItemDAO itemDAO;
+	
+	public ItemCategoryDAO(Connection con) {
+		super(con);
+		itemDAO = new ItemDAO(con);
+	}
+	
+	@Override
+	protected @NotNull DAO<Item, Integer> getaDAO() {
+		return itemDAO;
+	}
+	
+	@Override
+	protected @NotNull DAO<Category, Long> getbDAO() {
+		return itemDAO.getCategoryDAO();
+	}
+	
+	@Override
+	protected @NotNull String getTable() {
+		return KREUZ;
+	}
+	
+	@Override
+	protected @NotNull String getKreuzColA() {
+		return COLA;
+	}
+	
+	@Override
+	protected @NotNull String getKreuzColB() {
+		return COLB;
+	}
+	
+	@Override
+	public void close() {
+		super.close();
+		itemDAO.close();
+	}
+}
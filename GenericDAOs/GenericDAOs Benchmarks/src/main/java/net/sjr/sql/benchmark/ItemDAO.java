@@ -0,0 +1,83 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DAO;
+import net.sjr.sql.DBObject;
+import net.sjr.sql.Parameter;
+import net.sjr.sql.ParameterBuffer;
+import net.sjr.sql.ParameterList;
+import net.sjr.sql.rsloader.RsLoader;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+/**
+ * {@link DAO} für die {@link Item} Tabelle, welche die Objekte über einen {@link RsLoader} füllt
+ */
+public class ItemDAO extends DAO<Item, Integer> {
+	private static final String FELDER = "name, amount, created, category";
+	private static final String PRIMARY = "itemID";
+	private static final String TABLE = "Item";
+	private final CategoryDAO categoryDAO;
+	
+	public ItemDAO(Connection con) {
+		super(con);
+		categoryDAO = new CategoryDAO(this);
+	}
+	
+	/**
+	 * @return die {@link CategoryDAO}, mit der die Fremdschlüssel geladen werden
+	 */
+	public @NotNull CategoryDAO getCategoryDAO() {
+		return categoryDAO;
+	}
+	
+	@Override
+	protected @NotNull String getFelder() {
+		return FELDER;
+	}
+	
+	@Override
+	protected @NotNull String getTable() {
+		return TABLE;
+	}
+	
+	@Override
+	protected @NotNull String getPrimaryCol() {
+		return PRIMARY;
+	}
+	
+	@Override
+	protected @NotNull ParameterList getPList(@NotNull Item v) {
+		return new ParameterList(new Parameter(v.getName(), Types.VARCHAR), v.getAmount(), new Parameter(v.getCreated(), Types.TIMESTAMP), new Parameter(v.getCategory(), Types.BIGINT));
+	}
+	
+	@Override
+	protected void fillParameters(@NotNull Item v, @NotNull ParameterBuffer buffer) {
+		buffer.add(v.getName(), Types.VARCHAR).addInt(v.getAmount()).add(v.getCreated(), Types.TIMESTAMP).add(v.getCategory(), Types.BIGINT);
+	}
+	
+	@Override
+	protected @NotNull Item getFromRS(ResultSet rs, DBObject... loadedObjects) {
+		Item result = new Item();
+		fillObject(rs, result, loadedObjects);
+		return result;
+	}
+	
+	@Override
+	protected void fillObject(@NotNull ResultSet rs, @NotNull Item result, DBObject... loadedObjects) {
+		RsLoader loader = new RsLoader(rs, loadedObjects);
+		result.setPrimary(loader.nextInt());
+		result.setName(loader.nextString());
+		result.setAmount(loader.nextInt());
+		result.setCreated(loader.nextUtilDate());
+		result.setCategory(loader.nextDBObject(categoryDAO));
+	}
+	
+	@Override
+	public void close() {
+		categoryDAO.close();
+		super.close();
+	}
+}
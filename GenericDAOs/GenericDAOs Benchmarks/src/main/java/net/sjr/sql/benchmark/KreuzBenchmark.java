@@ -0,0 +1,61 @@
+package net.sjr.sql.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst {@link ItemCategoryDAO#loadBfromA} für ein Item mit 10 und 100 verknüpften Kategorien
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KreuzBenchmark {
+	@Param({"10", "100"})
+	private int links;
+	
+	private Connection con;
+	private ItemCategoryDAO dao;
+	private Item item;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("kreuz");
+		BenchmarkDatabase.insertCategories(con, links);
+		BenchmarkDatabase.insertItems(con, 1, links);
+		BenchmarkDatabase.linkCategories(con, 1, links);
+		dao = new ItemCategoryDAO(con);
+		try (ItemDAO itemDAO = new ItemDAO(con)) {
+			item = itemDAO.loadFromID(1);
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		dao.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public List<Category> loadBfromA() {
+		return dao.loadBfromA(item);
+	}
+}
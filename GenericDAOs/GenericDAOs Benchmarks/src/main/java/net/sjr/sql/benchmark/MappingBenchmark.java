@@ -0,0 +1,128 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.DBObject;
+import net.sjr.sql.rsloader.Java8RsLoader;
+import net.sjr.sql.rsloader.RowMapper;
+import net.sjr.sql.rsloader.RsLoader;
+import net.sjr.sql.rsloader.RsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Kosten pro Zeile beim Füllen eines Objektes aus dem {@link ResultSet} über direktes JDBC, den {@link RsLoader}, den {@link Java8RsLoader}
+ * und den {@link RowMapper}.<br>
+ * Die Kategorien werden als bereits geladene Objekte übergeben, damit nur das Mapping und nicht das Nachladen der Fremdschlüssel gemessen wird
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(MappingBenchmark.ROWS)
+@SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
+public class MappingBenchmark {
+	static final int ROWS = 1000;
+	private static final int CATEGORIES = 10;
+	
+	private Connection con;
+	private ItemDAO dao;
+	private PreparedStatement pst;
+	private RowMapper<Item> mapper;
+	private DBObject[] categories;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("mapping");
+		BenchmarkDatabase.insertCategories(con, CATEGORIES);
+		BenchmarkDatabase.insertItems(con, ROWS, CATEGORIES);
+		dao = new ItemDAO(con);
+		List<Category> loaded = dao.getCategoryDAO().loadAll();
+		categories = loaded.toArray(new DBObject[loaded.size()]);
+		mapper = RowMapper.builder(Item.class).primary(dao).column("setName").column("setAmount").column("setCreated").dbObject("setCategory", dao.getCategoryDAO()).build();
+		pst = con.prepareStatement("SELECT itemID, name, amount, created, category FROM Item");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		pst.close();
+		dao.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public void jdbc(final Blackhole bh) throws SQLException {
+		try (ResultSet rs = pst.executeQuery()) {
+			while (rs.next()) {
+				Item item = new Item();
+				item.setPrimary(rs.getInt(1));
+				item.setName(rs.getString(2));
+				item.setAmount(rs.getInt(3));
+				item.setCreated(new Date(rs.getTimestamp(4).getTime()));
+				item.setCategory(RsUtils.loadedObjectsOrNull(5, rs, dao.getCategoryDAO(), categories));
+				bh.consume(item);
+			}
+		}
+	}
+	
+	@Benchmark
+	public void rsLoader(final Blackhole bh) throws SQLException {
+		try (ResultSet rs = pst.executeQuery()) {
+			while (rs.next()) {
+				Item item = new Item();
+				RsLoader loader = new RsLoader(rs, categories);
+				item.setPrimary(loader.nextInt());
+				item.setName(loader.nextString());
+				item.setAmount(loader.nextInt());
+				item.setCreated(loader.nextUtilDate());
+				item.setCategory(loader.nextDBObject(dao.getCategoryDAO()));
+				bh.consume(item);
+			}
+		}
+	}
+	
+	@Benchmark
+	public void java8RsLoader(final Blackhole bh) throws SQLException {
+		try (ResultSet rs = pst.executeQuery()) {
+			while (rs.next()) {
+				Item item = new Item();
+				new Java8RsLoader(rs, categories)
+						.nextInt(item::setPrimary)
+						.nextString(item::setName)
+						.nextInt(item::setAmount)
+						.nextUtilDate(item::setCreated)
+						.nextDBObject(dao.getCategoryDAO(), item::setCategory);
+				bh.consume(item);
+			}
+		}
+	}
+	
+	@Benchmark
+	public void rowMapper(final Blackhole bh) throws SQLException {
+		try (ResultSet rs = pst.executeQuery()) {
+			while (rs.next()) {
+				bh.consume(mapper.map(rs, categories));
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.Parameter;
+import net.sjr.sql.ParameterBuffer;
+import net.sjr.sql.ParameterList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst das Setzen von Werten in ein {@link PreparedStatement} über {@link Parameter#setParameter}, also die Auswahl des passenden
+ * {@link net.sjr.sql.parametertype.ParameterType}s, sowie über {@link ParameterList} und {@link ParameterBuffer}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
+public class ParameterBenchmark {
+	private Connection con;
+	private PreparedStatement pst;
+	private Parameter integer;
+	private Parameter string;
+	private Parameter date;
+	private Parameter localDate;
+	private Parameter nullValue;
+	private ParameterList list;
+	private ParameterBuffer buffer;
+	private Date now;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("parameter");
+		pst = con.prepareStatement("SELECT ?, ?, ?, ?");
+		now = new Date();
+		integer = new Parameter(42);
+		string = new Parameter("Item", Types.VARCHAR);
+		date = new Parameter(now, Types.TIMESTAMP);
+		localDate = new Parameter(LocalDate.now(), Types.DATE);
+		nullValue = new Parameter(null, Types.BIGINT);
+		list = new ParameterList(integer, string, date, nullValue);
+		buffer = new ParameterBuffer(4);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		pst.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public int setInteger() throws SQLException {
+		return integer.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int setString() throws SQLException {
+		return string.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int setDate() throws SQLException {
+		return date.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int setLocalDate() throws SQLException {
+		return localDate.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int setNull() throws SQLException {
+		return nullValue.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int parameterList() throws SQLException {
+		return list.setParameter(pst, 1);
+	}
+	
+	@Benchmark
+	public int parameterBuffer() throws SQLException {
+		return buffer.reset().addInt(42).add("Item", Types.VARCHAR).add(now, Types.TIMESTAMP).addNull(Types.BIGINT).setParameter(pst, 1);
+	}
+}
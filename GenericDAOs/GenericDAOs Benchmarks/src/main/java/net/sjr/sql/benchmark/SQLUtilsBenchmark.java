@@ -0,0 +1,72 @@
+package net.sjr.sql.benchmark;
+
+import net.sjr.sql.Parameter;
+import net.sjr.sql.ParameterList;
+import net.sjr.sql.SQLUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst {@link SQLUtils#nullableWhere} mit und ohne {@code null} Parameter sowie {@link SQLUtils#pstToSQL}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
+public class SQLUtilsBenchmark {
+	private static final String WHERE = "name=? AND amount=? AND category=?";
+	
+	private Connection con;
+	private PreparedStatement pst;
+	private ParameterList withoutNull;
+	private ParameterList withNull;
+	
+	@Setup(Level.Trial)
+	public void setup() throws SQLException {
+		con = BenchmarkDatabase.open("sqlutils");
+		pst = con.prepareStatement("SELECT itemID, name, amount, created, category FROM Item WHERE " + WHERE);
+		withoutNull = new ParameterList("Item", 1, 1L);
+		withNull = new ParameterList("Item", 1, new Parameter(null, Types.BIGINT));
+		withoutNull.setParameter(pst, 1);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		pst.close();
+		con.close();
+	}
+	
+	@Benchmark
+	public String nullableWhereWithoutNull() {
+		return SQLUtils.nullableWhere(WHERE, withoutNull);
+	}
+	
+	@Benchmark
+	public String nullableWhereWithNull() {
+		return SQLUtils.nullableWhere(WHERE, withNull);
+	}
+	
+	@Benchmark
+	public String pstToSQL() {
+		return SQLUtils.pstToSQL(pst);
+	}
+}
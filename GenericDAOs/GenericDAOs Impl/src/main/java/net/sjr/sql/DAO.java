@@ -3,6 +3,8 @@ package net.sjr.sql;
 import net.sjr.sql.exceptions.EntryNotFoundException;
 import net.sjr.sql.exceptions.UncheckedSQLException;
 import net.sjr.sql.exceptions.UnsupportedPrimaryException;
+import net.sjr.sql.rsloader.RsUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -13,8 +15,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * DAO Oberklasse um Datenbankzugriffe zu vereinfachen
@@ -24,6 +35,10 @@ import java.util.List;
  */
 @SuppressWarnings({"WeakerAccess", "JavaDoc", "SqlDialectInspection", "SqlNoDataSourceInspection", "unchecked", "unused", "SameParameterValue", "SqlResolve", "UnusedReturnValue", "SameReturnValue", "SynchronizationOnLocalVariableOrMethodParameter"})
 public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBase<DAOConnectionPool, DAOConnection> implements DAOBaseInterface<T, P> {
+	/**
+	 * Die möglichen Größen der IN Listen bei {@link #loadFromIDs(Collection)}
+	 */
+	protected static final int[] IN_BUCKETS = {1, 8, 32, 128, 512};
 	private Class<P> primaryClass = null;
 	
 	/**
@@ -62,7 +77,12 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 	 * @return Alle Datenbankfelder inklusive ID mit Komma getrennt
 	 */
 	protected @NotNull String getFelderID() {
-		return SQLUtils.fullQualifyTableName(getPrimaryCol() + ", " + getFelder(), getTable());
+		return getSQLTemplates().getSelect();
+	}
+	
+	@Override
+	protected @NotNull SQLTemplates createSQLTemplates() {
+		return SQLTemplates.forDAO(this);
 	}
 	
 	/**
@@ -81,6 +101,17 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 	 */
 	protected abstract @NotNull ParameterList getPList(@NotNull T v);
 	
+	/**
+	 * Fügt alle {@link Parameter} Spalten des Objektes in den {@link ParameterBuffer} ein. Wird bei {@link #insertAll} und {@link #updateAll} pro Objekt
+	 * mit dem selben Puffer aufgerufen. Standardmäßig wird {@link #getPList} genutzt; wer beim Batch keine Objekte pro Zeile erzeugen will, überschreibt diese Methode
+	 *
+	 * @param v      das Objekt
+	 * @param buffer der leere {@link ParameterBuffer}
+	 */
+	protected void fillParameters(final @NotNull T v, final @NotNull ParameterBuffer buffer) {
+		buffer.add(getPList(v));
+	}
+	
 	/**
 	 * Wird aufgerufen vor einem Insert um die Möglichkeit zu bieten abhängige Objekte auch einzufügen
 	 *
@@ -164,7 +195,274 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 	 */
 	@Override
 	public @NotNull T loadFromID(final @NotNull P primary) {
-		return loadOneFromCol(null, getPrimaryCol(), primary, "loadFromID");
+		T cached = getCached(primary);
+		if (cached != null) return cached;
+		return loadUncached(primary);
+	}
+	
+	/**
+	 * Lädt ein Objekt von T aus der Datenbank und legt es außerhalb einer {@link TransactionScope} in den {@link ObjectCache}, wenn es währenddessen nicht invalidiert wurde.
+	 * Wurde das Laden von {@link RsUtils#loadedObjectsOrNull} beim Auflösen eines Fremdschlüssels angestoßen, wird die Abfrage in {@link #getMetrics()} aufgezeichnet
+	 *
+	 * @param primary die PrimaryID des Objektes
+	 * @return das Objekt, niemals {@code null}
+	 */
+	private @NotNull T loadUncached(final @NotNull P primary) {
+		if (RsUtils.consumeForeignKeyLoad()) getMetrics().recordForeignKeyQuery(getClass().getName());
+		ObjectCache<P, T> cache = getLoadCache();
+		long generation = cache == null ? 0 : cache.getGeneration();
+		T result = loadOneFromCol(null, getPrimaryCol(), primary, "loadFromID");
+		if (cache != null) cache.put(result, generation);
+		return result;
+	}
+	
+	/**
+	 * Gibt den {@link ObjectCache} zurück, in dem bereits geladene Objekte gehalten werden. {@link #loadFromID}, {@link #loadFromIDs} und das gebündelte Laden von Fremdschlüsseln fragen zuerst den Cache.
+	 * Bei Insert, Update und Delete werden die Objekte automatisch aus dem Cache entfernt.<br>
+	 * Da für jede {@link DAO} Instanz diese Methode aufgerufen wird, kann hier auch ein statischer Cache zurückgegeben werden, welcher von allen Instanzen geteilt wird.
+	 * Alle Aufrufer bekommen dann dieselben Instanzen, welche nicht verändert werden dürfen, siehe {@link ObjectCache}
+	 *
+	 * @return der {@link ObjectCache} oder {@code null}, wenn nicht gecached werden soll (default)
+	 */
+	protected @Nullable ObjectCache<P, T> getObjectCache() {
+		return null;
+	}
+	
+	/**
+	 * Gibt das Objekt aus der offenen {@link IdentityMap} oder dem {@link ObjectCache} zurück, ohne die Datenbank zu fragen.
+	 * Ein Objekt aus dem {@link ObjectCache} wird dabei in die {@link IdentityMap} übernommen
+	 *
+	 * @param primary die PrimaryID des Objektes
+	 * @return das Objekt oder {@code null}, wenn das Objekt weder in der {@link IdentityMap} noch im Cache ist
+	 */
+	protected @Nullable T getCached(final @NotNull P primary) {
+		IdentityMap identityMap = IdentityMap.current();
+		if (identityMap != null) {
+			T result = identityMap.get(getObjectClass(), primary);
+			if (result != null) return result;
+		}
+		ObjectCache<P, T> cache = getObjectCache();
+		T result = cache == null ? null : cache.get(primary);
+		if (result != null && identityMap != null) identityMap.put(getObjectClass(), result);
+		return result;
+	}
+	
+	/**
+	 * Legt das Objekt in die offene {@link IdentityMap}, wenn vorhanden
+	 *
+	 * @param v das Objekt
+	 */
+	protected void putIdentity(final @NotNull T v) {
+		IdentityMap identityMap = IdentityMap.current();
+		if (identityMap != null) identityMap.put(getObjectClass(), v);
+	}
+	
+	/**
+	 * Entfernt das Objekt aus der offenen {@link IdentityMap}, wenn vorhanden
+	 *
+	 * @param primary die PrimaryID des Objektes
+	 */
+	protected void removeIdentity(final @Nullable P primary) {
+		IdentityMap identityMap = IdentityMap.current();
+		if (identityMap != null) identityMap.remove(getObjectClass(), primary);
+	}
+	
+	/**
+	 * Entfernt das Objekt aus dem {@link ObjectCache}, wenn vorhanden. Ist eine {@link TransactionScope} offen, wird es bei deren Ende erneut entfernt,
+	 * da andere Threads bis dahin den alten Stand wieder in den Cache legen können
+	 *
+	 * @param primary die PrimaryID des Objektes
+	 */
+	protected void invalidateCached(final @Nullable P primary) {
+		ObjectCache<P, T> cache = getObjectCache();
+		if (cache == null || primary == null) return;
+		cache.invalidate(primary);
+		TransactionScope scope = TransactionScope.current();
+		if (scope != null) scope.invalidateOnEnd(cache, primary);
+	}
+	
+	/**
+	 * Gibt den {@link ObjectCache} zurück, in den geladene Objekte gelegt werden dürfen. Innerhalb einer {@link TransactionScope} können die gelesenen Zeilen
+	 * noch nicht bestätigt sein und werden daher nicht in den von anderen Threads geteilten Cache gelegt
+	 *
+	 * @return der {@link ObjectCache} oder {@code null}, wenn nicht gecached werden soll
+	 */
+	private @Nullable ObjectCache<P, T> getLoadCache() {
+		return TransactionScope.current() == null ? getObjectCache() : null;
+	}
+	
+	/**
+	 * Lädt mehrere Objekte von T an Hand ihrer PrimaryIDs mit möglichst wenigen Datenbankabfragen
+	 *
+	 * @param primaries die PrimaryIDs der Objekte
+	 * @return die Objekte in der Reihenfolge der PrimaryIDs, niemals {@code null}
+	 * @throws EntryNotFoundException wenn es zu mindestens einer ID kein Objekt gibt
+	 */
+	public @NotNull List<T> loadFromIDs(final @NotNull Collection<P> primaries) {
+		Map<P, T> loaded = loadMapFromIDs(primaries);
+		List<T> result = new ArrayList<>(primaries.size());
+		List<P> missing = new ArrayList<>();
+		for (final P primary : primaries) {
+			T v = loaded.get(primary);
+			if (v == null) missing.add(primary);
+			else result.add(v);
+		}
+		if (!missing.isEmpty()) throw new EntryNotFoundException(getPrimaryCol(), missing);
+		return result;
+	}
+	
+	/**
+	 * Lädt mehrere Objekte von T an Hand ihrer PrimaryIDs mit möglichst wenigen Datenbankabfragen.
+	 * Die IDs werden in IN Listen mit den Größen aus {@link #IN_BUCKETS} aufgeteilt, damit pro Größe nur ein {@link PreparedStatement} gecached wird
+	 *
+	 * @param primaries     die PrimaryIDs der Objekte
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return die gefundenen Objekte in der Reihenfolge der PrimaryIDs. Nicht gefundene IDs sind nicht enthalten
+	 */
+	public @NotNull Map<P, T> loadMapFromIDs(final @NotNull Collection<P> primaries, final DBObject... loadedObjects) {
+		return loadMapFromIDs(primaries, null, loadedObjects);
+	}
+	
+	/**
+	 * Lädt mehrere Objekte von T an Hand ihrer PrimaryIDs wie {@link #loadMapFromIDs(Collection, DBObject[])} und zählt dabei die ausgeführten Abfragen
+	 *
+	 * @param primaries     die PrimaryIDs der Objekte
+	 * @param queries       wird pro ausgeführter Abfrage um eins erhöht oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return die gefundenen Objekte in der Reihenfolge der PrimaryIDs. Nicht gefundene IDs sind nicht enthalten
+	 */
+	@NotNull Map<P, T> loadMapFromIDs(final @NotNull Collection<P> primaries, final @Nullable AtomicLong queries, final DBObject... loadedObjects) {
+		List<P> keys = new ArrayList<>(new LinkedHashSet<>(primaries));
+		keys.remove(null);
+		Map<P, T> found = new HashMap<>();
+		ObjectCache<P, T> cache = getObjectCache();
+		ObjectCache<P, T> loadCache = getLoadCache();
+		List<P> toLoad = keys;
+		if (cache != null || IdentityMap.current() != null) {
+			toLoad = new ArrayList<>(keys.size());
+			for (final P key : keys) {
+				T cached = getCached(key);
+				if (cached == null) toLoad.add(key);
+				else found.put(key, cached);
+			}
+		}
+		
+		int start = 0;
+		while (start < toLoad.size()) {
+			int remaining = toLoad.size() - start;
+			int bucket = getInBucket(remaining);
+			int size = Math.min(bucket, remaining);
+			
+			ParameterList params = getInParams(toLoad, start, size, bucket);
+			long generation = loadCache == null ? 0 : loadCache.getGeneration();
+			if (queries != null) queries.incrementAndGet();
+			for (final T v : loadAllFromWhere(null, getPrimaryCol() + " IN (" + SQLUtils.getFragezeichenIn(bucket) + ')', params, null, null, "loadFromIDs" + bucket, loadedObjects)) {
+				found.put(v.getPrimary(), v);
+				if (loadCache != null) loadCache.put(v, generation);
+			}
+			start += size;
+		}
+		
+		Map<P, T> result = new LinkedHashMap<>();
+		for (final P key : keys) {
+			T v = found.get(key);
+			if (v != null) result.put(key, v);
+		}
+		return result;
+	}
+	
+	/**
+	 * Füllt die Platzhalter mit den Werten aus der Datenbank an Hand ihrer PrimaryIDs. Wird für das gebündelte Laden von Fremdschlüsseln genutzt.
+	 * Die PrimaryID wird vor {@link #fillObject(ResultSet, DBObject, DBObject[])} gesetzt, die gefüllten IDs werden unabhängig davon gezählt
+	 *
+	 * @param placeholders die zu füllenden Objekte mit ihrer PrimaryID
+	 * @throws EntryNotFoundException wenn es zu mindestens einer ID kein Objekt gibt
+	 */
+	protected void fillFromIDs(final @NotNull Map<P, T> placeholders) {
+		List<P> keys = new ArrayList<>(placeholders.keySet());
+		Set<P> filled = new HashSet<>();
+		ObjectCache<P, T> cache = getLoadCache();
+		int start = 0;
+		while (start < keys.size()) {
+			int remaining = keys.size() - start;
+			int bucket = getInBucket(remaining);
+			int size = Math.min(bucket, remaining);
+			
+			ParameterList params = getInParams(keys, start, size, bucket);
+			long generation = cache == null ? 0 : cache.getGeneration();
+			DAOConnection con = null;
+			PreparedStatement pst = null;
+			try {
+				con = connectionPool.borrowObject();
+				pst = con.getPst(getFelderID(), null, getPrimaryCol() + " IN (" + SQLUtils.getFragezeichenIn(bucket) + ')', null, null, "loadFromIDs" + bucket, params);
+				setParameter(params, pst);
+				
+				try (ResultSet rs = getResultSet(pst, "loadFromIDs" + bucket, params)) {
+					int rows = 0;
+					while (rs.next()) {
+						rows++;
+						P primary = getPrimary(rs);
+						T target = placeholders.get(primary);
+						if (target != null && filled.add(primary)) {
+							target.setPrimary(primary);
+							fillObject(rs, target);
+							if (cache != null) cache.put(target, generation);
+							putIdentity(target);
+						}
+					}
+					recordRows("loadFromIDs" + bucket, rows);
+				}
+			}
+			catch (final RuntimeException e) {
+				throw e;
+			}
+			catch (final SQLException e) {
+				throw new UncheckedSQLException(e);
+			}
+			catch (final Exception e) {
+				throw new RuntimeException(e);
+			}
+			finally {
+				doCloseAlways(con, pst);
+			}
+			start += size;
+		}
+		
+		List<P> missing = new ArrayList<>();
+		for (final P key : keys) {
+			if (!filled.contains(key)) missing.add(key);
+		}
+		if (!missing.isEmpty()) throw new EntryNotFoundException(getPrimaryCol(), missing);
+	}
+	
+	/**
+	 * Erstellt die {@link ParameterList} für eine IN Liste. Ist die Liste größer als die Anzahl der IDs, wird die letzte ID wiederholt
+	 *
+	 * @param keys   alle IDs
+	 * @param start  die Position der ersten ID
+	 * @param size   die Anzahl der IDs
+	 * @param bucket die Größe der IN Liste
+	 * @return die {@link ParameterList}
+	 */
+	private static @NotNull ParameterList getInParams(final @NotNull List<?> keys, final int start, final int size, final int bucket) {
+		ParameterList params = new ParameterList();
+		for (int i = 0; i < bucket; i++) {
+			params.addParameter(keys.get(start + Math.min(i, size - 1)));
+		}
+		return params;
+	}
+	
+	/**
+	 * Gibt die Größe der IN Liste zurück, mit der die verbleibenden IDs geladen werden
+	 *
+	 * @param remaining die Anzahl der noch zu ladenden IDs
+	 * @return die kleinste passende Größe aus {@link #IN_BUCKETS} oder die größte, wenn keine passt
+	 */
+	private static int getInBucket(final int remaining) {
+		for (final int bucket : IN_BUCKETS) {
+			if (bucket >= remaining) return bucket;
+		}
+		return IN_BUCKETS[IN_BUCKETS.length - 1];
 	}
 	
 	/**
@@ -215,8 +513,7 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 				ParameterList pList = getPList(v);
 				
 				pList.setParameter(pst, pos);
-				logPst(pst);
-				pst.executeUpdate();
+				executeUpdate(pst, "insert", pList);
 				
 				try (ResultSet rs = pst.getGeneratedKeys()) {
 					if (rs.next()) {
@@ -224,6 +521,8 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 					}
 					else throw new RuntimeException("rs.next returned false for generated keys");
 				}
+				invalidateCached(v.getPrimary());
+				putIdentity(v);
 			}
 			catch (final RuntimeException e) {
 				throw e;
@@ -259,6 +558,29 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 		return primaryClass;
 	}
 	
+	/**
+	 * Findet die Klasse von T heraus
+	 *
+	 * @return die Klasse von T
+	 */
+	protected @NotNull Class<T> getObjectClass() {
+		return RsUtils.getObjectClass(this);
+	}
+	
+	/**
+	 * Erstellt ein neues, leeres Objekt von T. Wird als Platzhalter beim gebündelten Laden von Fremdschlüsseln genutzt
+	 *
+	 * @return das neue Objekt oder {@code null}, wenn T keinen parameterlosen Konstruktor hat
+	 */
+	protected @Nullable T newInstance() {
+		try {
+			return getObjectClass().newInstance();
+		}
+		catch (final InstantiationException | IllegalAccessException | RuntimeException ignored) {
+			return null;
+		}
+	}
+	
 	/**
 	 * Holt den Primary Key aus der Datenbank
 	 *
@@ -330,9 +652,8 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 				}
 				
 				pList.setParameter(pst, pos);
-				logPst(pst);
-				pst.executeUpdate();
-				
+				executeUpdate(pst, "update", pList);
+				invalidateCached(v.getPrimary());
 			}
 			catch (final RuntimeException e) {
 				throw e;
@@ -385,9 +706,10 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 				if (getDtype() != null) {
 					new Parameter(getDtype()).setParameter(pst, 2);
 				}
-				logPst(pst);
-				pst.executeUpdate();
+				executeUpdate(pst, "delete", null);
 				
+				invalidateCached(v.getPrimary());
+				removeIdentity(v.getPrimary());
 				v.setPrimary(null);
 			}
 			catch (final RuntimeException e) {
@@ -432,6 +754,312 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 		}
 	}
 	
+	/**
+	 * Gibt an, wie viele Objekte bei {@link #insertAll(Collection)}, {@link #updateAll(Collection)} und {@link #deleteAll(Collection)} in einem JDBC Batch an die Datenbank geschickt werden
+	 *
+	 * @return die Größe eines Batches
+	 */
+	protected int getBatchSize() {
+		return 500;
+	}
+	
+	/**
+	 * Fügt alle Objekte von T via JDBC Batch in die Datenbank ein. Die Primary IDs werden danach in die Objekte gesetzt<br>
+	 * <b>Die Objekte dürfen noch keine PrimaryID haben!</b>
+	 *
+	 * @param values die einzufügenden Objekte
+	 * @throws IllegalStateException wenn ein Objekt eine PrimaryID hat
+	 */
+	public void insertAll(final @NotNull Collection<T> values) {
+		insertAll(values, new Object[0]);
+	}
+	
+	/**
+	 * Fügt alle Objekte von T via JDBC Batch in die Datenbank ein. Die Primary IDs werden danach in die Objekte gesetzt.
+	 * Liefert der Treiber nicht für jede Zeile eines Batches einen generierten Key, werden dieser und alle weiteren Batches des Aufrufs einzeln eingefügt.
+	 * Der nächste Aufruf versucht es wieder mit JDBC Batches<br>
+	 * Alle before cascade Methoden werden vor dem ersten Batch, die after cascade Methoden nach jedem Batch in der Reihenfolge der Objekte aufgerufen<br>
+	 * <b>Die Objekte dürfen noch keine PrimaryID haben!</b>
+	 *
+	 * @param values       die einzufügenden Objekte
+	 * @param cascadeInfos optionale zusätzliche Parameter, die an die cascade Methoden weiter gegeben werden
+	 * @throws IllegalStateException wenn ein Objekt eine PrimaryID hat
+	 */
+	protected void insertAll(final @NotNull Collection<T> values, final Object... cascadeInfos) {
+		for (final T v : values) {
+			if (v.getPrimary() != null) throw new IllegalStateException("Der Eintrag wurde bereits in die Datenbank eingefügt!");
+		}
+		if (values.isEmpty()) return;
+		for (final T v : values) {
+			beforeInsert(v, cascadeInfos);
+		}
+		
+		DAOConnection con = null;
+		PreparedStatement pst = null;
+		try {
+			con = connectionPool.borrowObject();
+			pst = con.insertPst();
+			ParameterBuffer buffer = new ParameterBuffer();
+			boolean batchGeneratedKeys = true;
+			for (final List<T> batch : splitBatches(values)) {
+				if (batchGeneratedKeys) batchGeneratedKeys = insertBatch(con.getPooledConnection().getConnection(), pst, buffer, batch);
+				if (!batchGeneratedKeys) {
+					for (final T v : batch) {
+						insertSingle(pst, buffer, v);
+					}
+				}
+				for (final T v : batch) {
+					invalidateCached(v.getPrimary());
+					putIdentity(v);
+				}
+				for (final T v : batch) {
+					afterInsert(v, cascadeInfos);
+				}
+			}
+		}
+		catch (final RuntimeException e) {
+			throw e;
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			doCloseAlways(con, pst);
+		}
+	}
+	
+	/**
+	 * Fügt einen Batch ein und setzt die generierten Primary IDs. Liefert der Treiber weniger generierte Keys als Zeilen, wird der Batch über einen {@link Savepoint}
+	 * bzw. eine eigene Transaktion zurück gerollt, damit er einzeln eingefügt werden kann
+	 *
+	 * @param connection die Datenbankverbindung
+	 * @param pst        das {@link PreparedStatement} zum Einfügen
+	 * @param buffer     der {@link ParameterBuffer}
+	 * @param batch      die einzufügenden Objekte
+	 * @return {@code true}, wenn für alle Zeilen Keys geliefert und gesetzt wurden, {@code false}, wenn der Batch zurück gerollt wurde
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	private boolean insertBatch(final @NotNull Connection connection, final @NotNull PreparedStatement pst, final @NotNull ParameterBuffer buffer, final @NotNull List<T> batch) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		Savepoint savepoint = null;
+		if (autoCommit) connection.setAutoCommit(false);
+		else savepoint = connection.setSavepoint();
+		boolean done = false;
+		try {
+			for (final T v : batch) {
+				buffer.reset();
+				if (getDtype() != null) buffer.add(getDtype());
+				fillParameters(v, buffer);
+				buffer.setParameter(pst, 1);
+				pst.addBatch();
+			}
+			executeBatch(pst, "insert");
+			
+			List<P> keys = new ArrayList<>(batch.size());
+			try (ResultSet rs = pst.getGeneratedKeys()) {
+				while (rs.next()) {
+					keys.add(getPrimary(rs));
+				}
+			}
+			if (keys.size() == batch.size()) {
+				for (int i = 0; i < batch.size(); i++) {
+					batch.get(i).setPrimary(keys.get(i));
+				}
+				if (autoCommit) connection.commit();
+				done = true;
+			}
+			return done;
+		}
+		finally {
+			if (!done) {
+				pst.clearBatch();
+				if (savepoint != null) connection.rollback(savepoint);
+				else connection.rollback();
+			}
+			if (savepoint != null) connection.releaseSavepoint(savepoint);
+			if (autoCommit) connection.setAutoCommit(true);
+		}
+	}
+	
+	/**
+	 * Fügt ein einzelnes Objekt ohne cascade Methoden ein und setzt die generierte Primary ID
+	 *
+	 * @param pst    das {@link PreparedStatement} zum Einfügen
+	 * @param buffer der {@link ParameterBuffer}
+	 * @param v      das einzufügende Objekt
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	private void insertSingle(final @NotNull PreparedStatement pst, final @NotNull ParameterBuffer buffer, final @NotNull T v) throws SQLException {
+		buffer.reset();
+		if (getDtype() != null) buffer.add(getDtype());
+		fillParameters(v, buffer);
+		buffer.setParameter(pst, 1);
+		executeUpdate(pst, "insert", null);
+		
+		try (ResultSet rs = pst.getGeneratedKeys()) {
+			if (rs.next()) {
+				v.setPrimary(getPrimary(rs));
+			}
+			else throw new RuntimeException("rs.next returned false for generated keys");
+		}
+	}
+	
+	/**
+	 * Aktualisiert alle Objekte von T via JDBC Batch in der Datenbank<br>
+	 * <b>Die Objekte müssen eine PrimaryID haben um sie in der Datenbank zu identifizieren!</b>
+	 *
+	 * @param values die zu aktualisierenden Objekte
+	 * @throws IllegalStateException wenn ein Objekt keine PrimaryID hat
+	 */
+	public void updateAll(final @NotNull Collection<T> values) {
+		updateAll(values, new Object[0]);
+	}
+	
+	/**
+	 * Aktualisiert alle Objekte von T via JDBC Batch in der Datenbank<br>
+	 * Alle before cascade Methoden werden vor dem ersten Batch, die after cascade Methoden nach jedem Batch in der Reihenfolge der Objekte aufgerufen<br>
+	 * <b>Die Objekte müssen eine PrimaryID haben um sie in der Datenbank zu identifizieren!</b>
+	 *
+	 * @param values       die zu aktualisierenden Objekte
+	 * @param cascadeInfos optionale zusätzliche Parameter, die an die cascade Methoden weiter gegeben werden
+	 * @throws IllegalStateException wenn ein Objekt keine PrimaryID hat
+	 */
+	protected void updateAll(final @NotNull Collection<T> values, final Object... cascadeInfos) {
+		for (final T v : values) {
+			if (v.getPrimary() == null) throw new IllegalStateException("Der Eintrag wurde noch nicht in die Datenbank eingefügt!");
+		}
+		if (values.isEmpty()) return;
+		for (final T v : values) {
+			beforeUpdate(v, cascadeInfos);
+		}
+		
+		DAOConnection con = null;
+		PreparedStatement pst = null;
+		try {
+			con = connectionPool.borrowObject();
+			pst = con.updatePst();
+			ParameterBuffer buffer = new ParameterBuffer();
+			for (final List<T> batch : splitBatches(values)) {
+				for (final T v : batch) {
+					buffer.reset();
+					if (getDtype() != null) buffer.add(getDtype());
+					fillParameters(v, buffer);
+					buffer.add(v.getPrimary());
+					buffer.setParameter(pst, 1);
+					pst.addBatch();
+				}
+				executeBatch(pst, "update");
+				
+				for (final T v : batch) {
+					invalidateCached(v.getPrimary());
+					afterUpdate(v, cascadeInfos);
+				}
+			}
+		}
+		catch (final RuntimeException e) {
+			throw e;
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			doCloseAlways(con, pst);
+		}
+	}
+	
+	/**
+	 * Löscht alle Objekte von T via JDBC Batch aus der Datenbank<br>
+	 * <b>Die Objekte müssen eine PrimaryID haben um sie in der Datenbank zu identifizieren!</b>
+	 *
+	 * @param values die zu löschenden Objekte
+	 * @throws IllegalStateException wenn ein Objekt keine PrimaryID hat
+	 */
+	public void deleteAll(final @NotNull Collection<T> values) {
+		deleteAll(values, new Object[0]);
+	}
+	
+	/**
+	 * Löscht alle Objekte von T via JDBC Batch aus der Datenbank<br>
+	 * Alle before cascade Methoden werden vor dem ersten Batch, die after cascade Methoden nach jedem Batch in der Reihenfolge der Objekte aufgerufen<br>
+	 * <b>Die Objekte müssen eine PrimaryID haben um sie in der Datenbank zu identifizieren!</b>
+	 *
+	 * @param values       die zu löschenden Objekte
+	 * @param cascadeInfos optionale zusätzliche Parameter, die an die cascade Methoden weiter gegeben werden
+	 * @throws IllegalStateException wenn ein Objekt keine PrimaryID hat
+	 */
+	protected void deleteAll(final @NotNull Collection<T> values, final Object... cascadeInfos) {
+		for (final T v : values) {
+			if (v.getPrimary() == null) throw new IllegalStateException("Der Eintrag wurde noch nicht in die Datenbank eingefügt!");
+		}
+		if (values.isEmpty()) return;
+		for (final T v : values) {
+			beforeDelete(v, cascadeInfos);
+		}
+		
+		DAOConnection con = null;
+		PreparedStatement pst = null;
+		try {
+			con = connectionPool.borrowObject();
+			pst = con.deletePst();
+			for (final List<T> batch : splitBatches(values)) {
+				for (final T v : batch) {
+					Parameter.setParameter(pst, 1, v.getPrimary(), null);
+					if (getDtype() != null) {
+						Parameter.setParameter(pst, 2, getDtype(), null);
+					}
+					pst.addBatch();
+				}
+				executeBatch(pst, "delete");
+				
+				for (final T v : batch) {
+					invalidateCached(v.getPrimary());
+					removeIdentity(v.getPrimary());
+					v.setPrimary(null);
+					afterDelete(v, cascadeInfos);
+				}
+			}
+		}
+		catch (final RuntimeException e) {
+			throw e;
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			doCloseAlways(con, pst);
+		}
+	}
+	
+	/**
+	 * Teilt die Objekte in Listen mit maximal {@link #getBatchSize()} Einträgen auf
+	 *
+	 * @param values die aufzuteilenden Objekte
+	 * @return die Liste der Batches
+	 */
+	private @NotNull List<List<T>> splitBatches(final @NotNull Collection<T> values) {
+		int batchSize = Math.max(1, getBatchSize());
+		List<List<T>> result = new ArrayList<>();
+		List<T> batch = new ArrayList<>(Math.min(batchSize, values.size()));
+		for (final T v : values) {
+			batch.add(v);
+			if (batch.size() >= batchSize) {
+				result.add(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) result.add(batch);
+		return result;
+	}
+	
 	/**
 	 * Lädt einen Eintrag aus der Datenbank mit benutzerspezifizierten Bedingungen
 	 *
@@ -563,6 +1191,59 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 	 * @return eine Liste aller gefundenen Objekte. Niemals {@code null}
 	 */
 	protected @NotNull List<T> loadAllFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String limit, final @Nullable String order, final @Nullable String cacheKey, final DBObject... loadedObjects) {
+		ForeignKeyResolver resolver = beginDeferForeignKeys();
+		try {
+			List<T> result = queryAllFromWhere(join, where, params, limit, order, cacheKey, loadedObjects);
+			if (resolver != null) resolver.resolve();
+			return result;
+		}
+		finally {
+			endDeferForeignKeys(resolver);
+		}
+	}
+	
+	/**
+	 * Lädt eine Seite per Keyset (Seek) Pagination. Die Abfrage hängt nur von der Form der Seite ab, sodass das {@link PreparedStatement} für alle Seiten
+	 * wiederverwendet wird und jede Seite unabhängig von ihrer Position nur ihre eigenen Zeilen liest
+	 *
+	 * @param keyset        die Sortierung, über welche die Seiten gesucht werden. Muss den Primary Key enthalten, siehe {@link Keyset#withTieBreaker(String)}
+	 * @param lastKey       die Werte der Sortierspalten der letzten Zeile der vorherigen Seite oder {@code null} für die erste Seite
+	 * @param pageSize      die Größe einer Seite
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return die Seite. Niemals {@code null}
+	 * @throws IllegalArgumentException wenn das {@link Keyset} den Primary Key nicht enthält
+	 */
+	protected @NotNull List<T> loadPageAfter(final @NotNull Keyset keyset, final @Nullable Object[] lastKey, final int pageSize, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject... loadedObjects) {
+		if (!keyset.contains(getPrimaryCol())) {
+			throw new IllegalArgumentException("Das Keyset " + keyset + " muss den Primary Key " + getPrimaryCol() + " enthalten, z.B. über Keyset.withTieBreaker()");
+		}
+		String fullWhere = where;
+		ParameterList fullParams = params;
+		if (lastKey != null) {
+			fullWhere = StringUtils.isBlank(where) ? keyset.getSeekPredicate() : '(' + where + ") AND " + keyset.getSeekPredicate();
+			fullParams = params == null ? new ParameterList() : new ParameterList(params);
+			keyset.addSeekParameters(fullParams, lastKey);
+		}
+		String cacheKey = "loadPageAfter#" + keyset + '#' + pageSize + '#' + join + '#' + where + '#' + (lastKey != null) + '#' + SQLUtils.nullMask(params);
+		return loadAllFromWhere(join, fullWhere, fullParams, String.valueOf(pageSize), keyset.getOrderBy(), cacheKey, loadedObjects);
+	}
+	
+	/**
+	 * Führt die Abfrage für {@link #loadAllFromWhere} aus
+	 *
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param limit         das Limit für die Anzahl der Ergebnisse oder {@code null}
+	 * @param order         Die ORDER Klausel oder {@code null}
+	 * @param cacheKey      der Key für den pstCache
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return eine Liste aller gefundenen Objekte. Niemals {@code null}
+	 */
+	private @NotNull List<T> queryAllFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String limit, final @Nullable String order, final @Nullable String cacheKey, final DBObject... loadedObjects) {
 		DAOConnection con = null;
 		PreparedStatement pst = null;
 		try {
@@ -570,12 +1251,22 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 			pst = con.getPst(getFelderID(), join, where, limit, order, cacheKey, params);
 			setParameter(params, pst);
 			
-			try (ResultSet rs = getResultSet(pst)) {
+			try (ResultSet rs = getResultSet(pst, cacheKey, params)) {
+				IdentityMap identityMap = IdentityMap.current();
 				List<T> result = new ArrayList<>();
 				while (rs.next()) {
-					T b = getFromRS(rs, loadedObjects);
+					T b = null;
+					if (identityMap != null) {
+						P primary = getPrimary(rs);
+						if (primary != null) b = identityMap.get(getObjectClass(), primary);
+					}
+					if (b == null) {
+						b = getFromRS(rs, loadedObjects);
+						if (identityMap != null) identityMap.put(getObjectClass(), b);
+					}
 					result.add(b);
 				}
+				recordRows(cacheKey, result.size());
 				return result;
 			}
 		}
@@ -593,6 +1284,61 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 		}
 	}
 	
+	/**
+	 * Gibt an, wie viele Zeilen beim Iterieren über große Ergebnisse auf einmal von der Datenbank geholt werden
+	 *
+	 * @return die fetchSize
+	 * @see java.sql.Statement#setFetchSize(int)
+	 */
+	protected int getFetchSize() {
+		return 1000;
+	}
+	
+	/**
+	 * Iteriert über alle Objekte von T, ohne alle gleichzeitig in den Speicher zu laden.<br>
+	 * <b>Der {@link DAOIterator} muss geschlossen werden, wenn er nicht bis zum Ende durchlaufen wird!</b>
+	 *
+	 * @return der {@link DAOIterator}
+	 */
+	public @NotNull DAOIterator<T, P> iterateAll() {
+		return iterateFromWhere(null, null, null, null);
+	}
+	
+	/**
+	 * Iteriert über alle möglichen Einträge aus der Datenbank mit benutzerspezifizierten Bedingungen, ohne alle gleichzeitig in den Speicher zu laden.<br>
+	 * Fremdschlüssel werden dabei nie gebündelt geladen, siehe {@link #shouldDeferForeignKeys()}.<br>
+	 * <b>Der {@link DAOIterator} muss geschlossen werden, wenn er nicht bis zum Ende durchlaufen wird!</b>
+	 *
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param order         Die ORDER Klausel oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return der {@link DAOIterator}
+	 */
+	public @NotNull DAOIterator<T, P> iterateFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String order, final DBObject... loadedObjects) {
+		DAOConnection con = null;
+		PreparedStatement pst = null;
+		try {
+			con = connectionPool.borrowObject();
+			pst = con.getStreamPst(getFelderID(), join, where, order, getFetchSize(), params);
+			setParameter(params, pst);
+			return new DAOIterator<>(this, con, pst, getResultSet(pst, null, params), loadedObjects);
+		}
+		catch (final RuntimeException e) {
+			doCloseAlways(con, pst);
+			throw e;
+		}
+		catch (final SQLException e) {
+			doCloseAlways(con, pst);
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Exception e) {
+			doCloseAlways(con, pst);
+			throw new RuntimeException(e);
+		}
+	}
+	
 	/**
 	 * Lädt die Anzahl aller möglichen Einträge aus der Datenbank mit benutzerspezifizierten Bedingungen
 	 *
@@ -647,7 +1393,7 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 			pst = con.getPst("count(*)", join, where, null, null, cacheKey, params);
 			setParameter(params, pst);
 			
-			try (ResultSet rs = getResultSet(pst)) {
+			try (ResultSet rs = getResultSet(pst, cacheKey, params)) {
 				if (rs.next()) {
 					return rs.getLong(1);
 				}
@@ -668,6 +1414,47 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 		}
 	}
 	
+	/**
+	 * Lädt den kleinsten und größten Primary Key aller möglichen Einträge mit benutzerspezifizierten Bedingungen, z.B. um eine Tabelle in Partitionen aufzuteilen.
+	 * Geht nur mit ganzzahligen Primary Keys, da die Grenzen als {@code long} geladen werden
+	 *
+	 * @param join   Die JOIN Klausel oder {@code null}
+	 * @param where  Die WHERE Klausel oder {@code null}
+	 * @param params Die {@link Parameter} oder {@code null}
+	 * @return der {@link PrimaryKeyRange} oder {@code null}, wenn es keine Einträge gibt
+	 * @throws UnsupportedPrimaryException wenn der Primary Key keine Ganzzahl ist
+	 */
+	public @Nullable PrimaryKeyRange loadPrimaryKeyRange(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params) {
+		Class<P> genericClass = getPrimaryClass();
+		if (genericClass.equals(Double.class) || genericClass.equals(Float.class)) throw new UnsupportedPrimaryException(genericClass.getName());
+		DAOConnection con = null;
+		PreparedStatement pst = null;
+		try {
+			con = connectionPool.borrowObject();
+			pst = con.getPst("MIN(" + getPrimaryCol() + "), MAX(" + getPrimaryCol() + ')', join, where, null, null, null, params);
+			setParameter(params, pst);
+			
+			try (ResultSet rs = getResultSet(pst, null, params)) {
+				if (!rs.next()) return null;
+				long min = rs.getLong(1);
+				if (rs.wasNull()) return null;
+				return new PrimaryKeyRange(min, rs.getLong(2));
+			}
+		}
+		catch (final RuntimeException e) {
+			throw e;
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			doCloseAlways(con, pst);
+		}
+	}
+	
 	/**
 	 * Lädt einen Liste mit einem einzigen Wert als String
 	 *
@@ -703,11 +1490,12 @@ public abstract class DAO<T extends DBObject<P>, P extends Number> extends DAOBa
 			pst = con.getPst("DISTINCT " + feld, join, where, limit, order, cacheKey, params);
 			setParameter(params, pst);
 			
-			try (ResultSet rs = getResultSet(pst)) {
+			try (ResultSet rs = getResultSet(pst, cacheKey, params)) {
 				List<String> result = new ArrayList<>();
 				while (rs.next()) {
 					result.add(rs.getString(1));
 				}
+				recordRows(cacheKey, result.size());
 				return result;
 			}
 		}
@@ -1,6 +1,9 @@
 package net.sjr.sql;
 
 import net.sjr.sql.exceptions.UncheckedSQLException;
+import net.sjr.sql.metrics.DAOMetrics;
+import net.sjr.sql.metrics.Instrumentation;
+import net.sjr.sql.rsloader.RsUtils;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -19,8 +22,11 @@ import java.util.List;
 public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAOConnectionBase<? extends DAOBase>> implements AutoCloseable {
 	protected final DataSource dataSource;
 	protected final Connection staticConnection;
+	private static final Logger SLOW_QUERY_LOG = LoggerFactory.getLogger("net.sjr.sql.SlowQuery");
 	private final Logger log = LoggerFactory.getLogger(getClass());
-	protected CP connectionPool;
+	protected final CP connectionPool;
+	private volatile DatabaseType databaseType;
+	private volatile SQLTemplates sqlTemplates;
 	
 	/**
 	 * Erstellt die {@link DAOBase} mit einer {@link DataSource}
@@ -52,6 +58,7 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 	public DAOBase(final @NotNull DAOBase<?, ?> dao) {
 		dataSource = dao.dataSource;
 		staticConnection = dao.staticConnection;
+		databaseType = dao.databaseType;
 		connectionPool = createConnectionPool();
 	}
 	
@@ -71,6 +78,27 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 		return null;
 	}
 	
+	/**
+	 * Erstellt die {@link SQLTemplates} dieser DAO. Wird nur einmal beim ersten Zugriff aufgerufen
+	 *
+	 * @return die {@link SQLTemplates}
+	 */
+	protected abstract @NotNull SQLTemplates createSQLTemplates();
+	
+	/**
+	 * Gibt die vorkompilierten {@link SQLTemplates} dieser DAO zurück
+	 *
+	 * @return die {@link SQLTemplates}
+	 */
+	public @NotNull SQLTemplates getSQLTemplates() {
+		SQLTemplates result = sqlTemplates;
+		if (result == null) {
+			result = createSQLTemplates();
+			sqlTemplates = result;
+		}
+		return result;
+	}
+	
 	/**
 	 * Erstellt einen {@link DAOConnectionPool}
 	 *
@@ -79,7 +107,11 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 	protected abstract CP createConnectionPool();
 	
 	/**
-	 * Optionale Konfiguration für den {@link DAOConnectionPoolBase}
+	 * Optionale Konfiguration für den {@link SharedConnectionPool}. Die Anzahl der Verbindungen ist wie bei {@link GenericObjectPoolConfig} auf
+	 * {@link GenericObjectPoolConfig#DEFAULT_MAX_TOTAL} begrenzt. Da sich alle DAOs auf derselben {@link DataSource} den Pool teilen und beim Laden von Fremdschlüsseln
+	 * pro Ebene eine weitere Verbindung ausgeliehen wird, sollte das Limit bei vielen gleichzeitigen Threads erhöht werden. Entweder durch Überschreiben dieser Methode mit
+	 * {@code conf.setMaxTotal(n)} oder zur Laufzeit mit {@code dao.reconfigurePool(dao.getPoolPolicy().withMaxTotal(n))}.<br>
+	 * Wird nur einmal beim Erstellen des Pools zu einer {@link PoolPolicy} aufgelöst. Zur Laufzeit kann die Konfiguration über {@link #reconfigurePool(PoolPolicy)} geändert werden
 	 *
 	 * @return das Konfigurationsobjekt
 	 */
@@ -87,10 +119,89 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 		GenericObjectPoolConfig conf = new GenericObjectPoolConfig();
 		conf.setTestOnBorrow(true);
 		conf.setTestOnCreate(true);
-		conf.setTestOnReturn(true);
+		if (shouldCloseAlways()) {
+			conf.setTestOnReturn(true);
+		}
+		else {
+			conf.setTestWhileIdle(true);
+			conf.setTimeBetweenEvictionRunsMillis(getEvictionRunMillis());
+			conf.setMinEvictableIdleTimeMillis(getMaxIdleMillis());
+		}
 		return conf;
 	}
 	
+	/**
+	 * Gibt an, wie viele {@link PreparedStatement}s dieser DAO Klasse pro Datenbankverbindung gecached werden. Ist das Limit erreicht, wird das am längsten
+	 * nicht benutzte {@link PreparedStatement} geschlossen. Wird nur genutzt, wenn {@link #shouldCloseAlways()} {@code false} zurück gibt. {@code 0} schaltet den Cache ab
+	 *
+	 * @return die maximale Anzahl an {@link PreparedStatement}s
+	 */
+	protected int getStatementCacheSize() {
+		return 32;
+	}
+	
+	/**
+	 * Gibt an, wie lange eine {@link DAOConnectionBase} ungenutzt im Pool liegen darf, bevor sie geschlossen wird. Wird nur genutzt, wenn {@link #shouldCloseAlways()} {@code false} zurück gibt
+	 *
+	 * @return die maximale Zeit in Millisekunden
+	 */
+	protected long getMaxIdleMillis() {
+		return 10 * 60 * 1000L;
+	}
+	
+	/**
+	 * Gibt an, in welchem Abstand der Pool nach zu lange ungenutzten und ungültigen {@link DAOConnectionBase}s sucht. Wird nur genutzt, wenn {@link #shouldCloseAlways()} {@code false} zurück gibt
+	 *
+	 * @return der Abstand in Millisekunden
+	 */
+	protected long getEvictionRunMillis() {
+		return 60 * 1000L;
+	}
+	
+	/**
+	 * Gibt an, wie lange eine {@link DAOConnectionBase} nach der letzten Benutzung ohne Anfrage an die Datenbank als gültig angesehen wird. Danach wird sie vor der nächsten Benutzung mit {@link Connection#isValid(int)} geprüft
+	 *
+	 * @return die Zeit in Millisekunden
+	 */
+	protected long getValidationIntervalMillis() {
+		return 500L;
+	}
+	
+	/**
+	 * Gibt den Timeout für {@link Connection#isValid(int)} bei der Prüfung einer {@link DAOConnectionBase} zurück
+	 *
+	 * @return der Timeout in Sekunden
+	 */
+	protected int getValidationTimeout() {
+		return 5;
+	}
+	
+	/**
+	 * Gibt den Typ der Datenbank zurück. Dieser wird nur einmal pro {@link DataSource} bzw. Datenbankverbindung aus den {@link java.sql.DatabaseMetaData} ermittelt
+	 * und danach wiederverwendet. Kann überschrieben werden, wenn der Typ bereits bekannt ist
+	 *
+	 * @param connection eine Datenbankverbindung, die für die Erkennung genutzt wird
+	 * @return der Datenbanktyp
+	 */
+	protected @NotNull DatabaseType getDatabaseType(final @NotNull Connection connection) {
+		DatabaseType result = databaseType;
+		if (result == null) {
+			result = DatabaseType.detect(dataSource != null ? dataSource : staticConnection != null ? staticConnection : connection, connection);
+			databaseType = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * Gibt den {@link SQLDialect} für den Datenbanktyp zurück. Kann überschrieben werden, z.B. um bei Oracle ab 12c {@link StandardSQLDialect#FETCH_FIRST} zu benutzen
+	 *
+	 * @param databaseType der Datenbanktyp
+	 * @return der {@link SQLDialect}
+	 */
+	protected @NotNull SQLDialect getSQLDialect(final @NotNull DatabaseType databaseType) {
+		return databaseType.getDialect();
+	}
+	
 	/**
 	 * Holt aus der {@link DataSource} die {@link Connection}. Nützlich, wenn eine andere Methode als {@link DataSource#getConnection()} genutzt werden soll
 	 *
@@ -115,37 +226,55 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 	 * Öffnet die Datenbankverbindung. Wenn shouldCloseAlways true zurück gibt, wird diese direkt wieder geschlossen. Sonst nicht
 	 */
 	public void fillPool() {
-		if (getPoolConfig() != null) {
-			GenericObjectPoolConfig conf = getPoolConfig();
-			int maxTotal = conf.getMaxTotal();
-			if (maxTotal > -1) {
-				List<C> connections = new LinkedList<>();
-				try {
-					int curActive = connectionPool.getNumActive();
-					for (int i = 0; i < maxTotal - curActive; i++) {
-						connections.add(connectionPool.borrowObject());
-					}
-				}
-				catch (final RuntimeException e) {
-					throw e;
-				}
-				catch (final SQLException e) {
-					throw new UncheckedSQLException(e);
+		int maxTotal = connectionPool.getPolicy().getMaxTotal();
+		if (maxTotal > -1) {
+			List<C> connections = new LinkedList<>();
+			try {
+				int curActive = connectionPool.getNumActive();
+				for (int i = 0; i < maxTotal - curActive; i++) {
+					connections.add(connectionPool.borrowObject());
 				}
-				catch (final Exception e) {
-					throw new RuntimeException(e);
-				}
-				finally {
-					for (C con : connections) {
-						doCloseAlways(con, null);
-					}
+			}
+			catch (final RuntimeException e) {
+				throw e;
+			}
+			catch (final SQLException e) {
+				throw new UncheckedSQLException(e);
+			}
+			catch (final Exception e) {
+				throw new RuntimeException(e);
+			}
+			finally {
+				for (C con : connections) {
+					doCloseAlways(con, null);
 				}
 			}
 		}
 	}
 	
 	/**
-	 * An Hand der Rückgabe wird entschieden, ob nach jeder Funktion die Datenbankverbindung inkl. {@link PreparedStatement}s geschlossen werden soll.
+	 * Gibt die aktuelle Konfiguration des {@link SharedConnectionPool}s zurück
+	 *
+	 * @return die {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy getPoolPolicy() {
+		return connectionPool.getPolicy();
+	}
+	
+	/**
+	 * Ändert die Konfiguration des {@link SharedConnectionPool}s zur Laufzeit, z.B. {@code dao.reconfigurePool(dao.getPoolPolicy().withMaxTotal(20))}.
+	 * Betrifft alle DAOs, die sich den Pool teilen
+	 *
+	 * @param policy die neue {@link PoolPolicy}
+	 */
+	public void reconfigurePool(final @NotNull PoolPolicy policy) {
+		connectionPool.reconfigure(policy);
+	}
+	
+	/**
+	 * An Hand der Rückgabe wird entschieden, ob nach jeder Funktion die Datenbankverbindung inkl. {@link PreparedStatement}s geschlossen werden soll.<br>
+	 * Bei {@code false} bleiben die {@link DAOConnectionBase}s inkl. ihrer gecachten {@link PreparedStatement}s im Pool und werden bei den nächsten Aufrufen wiederverwendet.
+	 * Ungenutzte Verbindungen werden nach {@link #getMaxIdleMillis()} geschlossen
 	 *
 	 * @return {@code true} wenn immer geschlossen werden soll (default) oder {@code false} wenn nicht
 	 */
@@ -153,6 +282,37 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 		return true;
 	}
 	
+	/**
+	 * An Hand der Rückgabe wird entschieden, ob Fremdschlüssel beim Laden mehrerer Objekte gesammelt und danach mit einer Abfrage pro {@link DAO} geladen werden, statt für jede Zeile einzeln.<br>
+	 * Die referenzierten Objekte sind während {@code getFromRS} bzw. {@code fillObject} nur leere Platzhalter und werden erst vor der Rückgabe gefüllt
+	 *
+	 * @return {@code true} wenn Fremdschlüssel gebündelt geladen werden sollen oder {@code false} wenn nicht (default)
+	 */
+	protected boolean shouldDeferForeignKeys() {
+		return false;
+	}
+	
+	/**
+	 * Startet das Sammeln der Fremdschlüssel, wenn gewünscht und nicht bereits durch eine äußere Abfrage gestartet
+	 *
+	 * @return der {@link ForeignKeyResolver} oder {@code null}, wenn nicht gesammelt wird
+	 */
+	protected @Nullable ForeignKeyResolver beginDeferForeignKeys() {
+		if (!shouldDeferForeignKeys() || RsUtils.getForeignKeyCollector() != null) return null;
+		ForeignKeyResolver resolver = new ForeignKeyResolver();
+		RsUtils.setForeignKeyCollector(resolver);
+		return resolver;
+	}
+	
+	/**
+	 * Beendet das mit {@link #beginDeferForeignKeys()} gestartete Sammeln der Fremdschlüssel
+	 *
+	 * @param resolver der {@link ForeignKeyResolver} oder {@code null}
+	 */
+	protected void endDeferForeignKeys(final @Nullable ForeignKeyResolver resolver) {
+		if (resolver != null) RsUtils.setForeignKeyCollector(null);
+	}
+	
 	/**
 	 * Logt das {@link PreparedStatement}, führt es aus und gibt das {@link ResultSet} zurück
 	 *
@@ -161,21 +321,152 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull ResultSet getResultSet(final @NotNull PreparedStatement pst) throws SQLException {
+		return getResultSet(pst, null, null);
+	}
+	
+	/**
+	 * Logt das {@link PreparedStatement}, führt es aus und gibt das {@link ResultSet} zurück. Dauert die Ausführung länger als {@link #getSlowQueryMillis()}, wird sie im Slow Query Log protokolliert.
+	 * Die Dauer wird in den {@link #getMetrics() DAOMetrics} aufgezeichnet
+	 *
+	 * @param pst      das {@link PreparedStatement}
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param params   die gesetzten Parameter oder {@code null}
+	 * @return das {@link ResultSet}
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	protected @NotNull ResultSet getResultSet(final @NotNull PreparedStatement pst, final @Nullable String cacheKey, final @Nullable List<?> params) throws SQLException {
 		logPst(pst);
-		return pst.executeQuery();
+		long slowQueryMillis = getSlowQueryMillis();
+		DAOMetrics metrics = getMetrics();
+		if (slowQueryMillis < 0 && !metrics.isEnabled()) return pst.executeQuery();
+		long start = System.nanoTime();
+		ResultSet result = pst.executeQuery();
+		long nanos = checkSlowQuery(pst, cacheKey, params, start, slowQueryMillis);
+		if (metrics.isEnabled()) metrics.recordQuery(getClass().getName(), cacheKey, nanos);
+		return result;
 	}
 	
 	/**
-	 * Logt ein {@link PreparedStatement}
+	 * Logt das {@link PreparedStatement} und führt es als Update aus. Dauert die Ausführung länger als {@link #getSlowQueryMillis()}, wird sie im Slow Query Log protokolliert.
+	 * Dauer und geänderte Zeilen werden in den {@link #getMetrics() DAOMetrics} aufgezeichnet
+	 *
+	 * @param pst      das {@link PreparedStatement}
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param params   die gesetzten Parameter oder {@code null}
+	 * @return die Anzahl der geänderten Zeilen
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	protected int executeUpdate(final @NotNull PreparedStatement pst, final @Nullable String cacheKey, final @Nullable List<?> params) throws SQLException {
+		logPst(pst);
+		long slowQueryMillis = getSlowQueryMillis();
+		DAOMetrics metrics = getMetrics();
+		if (slowQueryMillis < 0 && !metrics.isEnabled()) return pst.executeUpdate();
+		long start = System.nanoTime();
+		int result = pst.executeUpdate();
+		long nanos = checkSlowQuery(pst, cacheKey, params, start, slowQueryMillis);
+		if (metrics.isEnabled()) metrics.recordUpdate(getClass().getName(), cacheKey, nanos, result);
+		return result;
+	}
+	
+	/**
+	 * Logt das {@link PreparedStatement} und führt den Batch aus. Dauert die Ausführung länger als {@link #getSlowQueryMillis()}, wird sie im Slow Query Log protokolliert.
+	 * Dauer und geänderte Zeilen werden in den {@link #getMetrics() DAOMetrics} aufgezeichnet
+	 *
+	 * @param pst      das {@link PreparedStatement}
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @return die Anzahl der geänderten Zeilen pro Eintrag im Batch
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	protected @NotNull int[] executeBatch(final @NotNull PreparedStatement pst, final @Nullable String cacheKey) throws SQLException {
+		logPst(pst);
+		long slowQueryMillis = getSlowQueryMillis();
+		DAOMetrics metrics = getMetrics();
+		if (slowQueryMillis < 0 && !metrics.isEnabled()) return pst.executeBatch();
+		long start = System.nanoTime();
+		int[] result = pst.executeBatch();
+		long nanos = checkSlowQuery(pst, cacheKey, null, start, slowQueryMillis);
+		if (metrics.isEnabled()) {
+			int rows = 0;
+			for (final int r : result) {
+				if (r > 0) rows += r;
+			}
+			metrics.recordUpdate(getClass().getName(), cacheKey, nanos, rows);
+		}
+		return result;
+	}
+	
+	/**
+	 * Logt ein {@link PreparedStatement} auf DEBUG Level. Das SQL wird nur erzeugt, wenn DEBUG aktiv ist
 	 *
 	 * @param pst das {@link PreparedStatement}
 	 */
 	protected void logPst(final @NotNull PreparedStatement pst) {
-		log.debug(SQLUtils.pstToSQL(pst));
+		if (log.isDebugEnabled()) log.debug(SQLUtils.pstToSQL(pst));
 	}
 	
 	/**
-	 * Schließt das {@link PreparedStatement} und die Datenbankverbindung, wenn gewünscht
+	 * Gibt die Dauer in Millisekunden zurück, ab der eine Abfrage im Slow Query Log ({@code net.sjr.sql.SlowQuery}) auf WARN Level protokolliert wird
+	 *
+	 * @return die Dauer in Millisekunden oder -1, wenn nicht gemessen werden soll (default)
+	 */
+	protected long getSlowQueryMillis() {
+		return -1;
+	}
+	
+	/**
+	 * Misst die Dauer der Abfrage und gibt sie an {@link #logSlowQuery} weiter, wenn sie länger als erlaubt gedauert hat
+	 *
+	 * @param pst             das ausgeführte {@link PreparedStatement}
+	 * @param cacheKey        der Key für den pstCache oder {@code null}
+	 * @param params          die gesetzten Parameter oder {@code null}
+	 * @param start           der Startzeitpunkt aus {@link System#nanoTime()}
+	 * @param slowQueryMillis die erlaubte Dauer in Millisekunden oder -1, wenn nicht protokolliert werden soll
+	 * @return die Dauer in Nanosekunden
+	 */
+	private long checkSlowQuery(final @NotNull PreparedStatement pst, final @Nullable String cacheKey, final @Nullable List<?> params, final long start, final long slowQueryMillis) {
+		long nanos = System.nanoTime() - start;
+		long millis = nanos / 1000000;
+		if (slowQueryMillis >= 0 && millis >= slowQueryMillis) logSlowQuery(pst, cacheKey, params, millis);
+		return nanos;
+	}
+	
+	/**
+	 * Gibt die {@link DAOMetrics} zurück, in welche Abfragen, Updates, der Connection Pool und der Statement Cache dieser DAO aufgezeichnet werden
+	 *
+	 * @return die {@link DAOMetrics}. Default sind die global in {@link Instrumentation} gesetzten
+	 */
+	protected @NotNull DAOMetrics getMetrics() {
+		return Instrumentation.getMetrics();
+	}
+	
+	/**
+	 * Zeichnet die Anzahl der aus einer Abfrage gelesenen Zeilen in den {@link DAOMetrics} auf
+	 *
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param rows     die Anzahl der Zeilen
+	 */
+	protected void recordRows(final @Nullable String cacheKey, final int rows) {
+		DAOMetrics metrics = getMetrics();
+		if (metrics.isEnabled()) metrics.recordRows(getClass().getName(), cacheKey, rows);
+	}
+	
+	/**
+	 * Protokolliert eine langsame Abfrage im Slow Query Log
+	 *
+	 * @param pst      das ausgeführte {@link PreparedStatement}
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param params   die gesetzten Parameter oder {@code null}
+	 * @param millis   die Dauer der Ausführung in Millisekunden
+	 */
+	protected void logSlowQuery(final @NotNull PreparedStatement pst, final @Nullable String cacheKey, final @Nullable List<?> params, final long millis) {
+		if (SLOW_QUERY_LOG.isWarnEnabled()) {
+			SLOW_QUERY_LOG.warn("{} ms dao={} cacheKey={} params={} sql={}", millis, getClass().getName(), cacheKey, params, SQLUtils.pstToSQL(pst));
+		}
+	}
+	
+	/**
+	 * Schließt das {@link PreparedStatement} und die Datenbankverbindung, wenn gewünscht.
+	 * Sonst wird die Datenbankverbindung zurück in den Pool gegeben und das {@link PreparedStatement} nur geschlossen, wenn es nicht gecached ist
 	 *
 	 * @param con die zu schließende {@link DAOConnectionBase}
 	 * @param pst das {@link PreparedStatement}
@@ -195,16 +486,19 @@ public abstract class DAOBase<CP extends DAOConnectionPoolBase<C>, C extends DAO
 			}
 			closeSqlAutocloseable(pst);
 		}
-		else if (con != null) connectionPool.returnObject(con);
+		else if (con != null) {
+			if (pst != null && !con.isCached(pst)) closeSqlAutocloseable(pst);
+			connectionPool.returnObject(con);
+		}
 	}
 	
 	/**
-	 * Schließt alle Datenbankverbindungen im {@link DAOConnectionPool}
+	 * Gibt den {@link SharedConnectionPool} frei. Wird er von keiner anderen DAO mehr benutzt, werden alle seine Datenbankverbindungen geschlossen.
+	 * Die DAO kann danach weiter benutzt werden
 	 */
 	@Override
 	public void close() {
 		connectionPool.close();
-		connectionPool = createConnectionPool();
 	}
 	
 	/**
@@ -2,7 +2,6 @@ package net.sjr.sql;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -12,10 +11,10 @@ public class DAOConnection extends DAOConnectionBase<DAO<?, ?>> {
 	/**
 	 * Erstellt eine neue {@link DAOConnection}
 	 *
-	 * @param connection die zu benutzende {@link Connection}
+	 * @param connection die zu benutzende {@link PooledConnection}
 	 * @param dao        die zu benutzende {@link DAO}
 	 */
-	public DAOConnection(Connection connection, DAO<?, ?> dao) {
+	public DAOConnection(PooledConnection connection, DAO<?, ?> dao) {
 		super(connection, dao);
 	}
 	
@@ -26,16 +25,16 @@ public class DAOConnection extends DAOConnectionBase<DAO<?, ?>> {
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull PreparedStatement insertPst() throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() ? null : pstCache.get("insert");
+		PreparedStatement result = getCachedPst("insert");
 		if (result == null) {
-			String felder = (dao.getDtype() == null ? "" : "DType, ") + dao.getFelder();
+			String sql = dao.getSQLTemplates().getInsert();
 			if (getDatabaseType() == DatabaseType.ORACLE) {
-				result = prepareStatement("INSERT INTO " + dao.getTable() + " (" + felder + ") VALUES (" + SQLUtils.getFragezeichenInsert(felder) + ')', new String[] {dao.getPrimaryCol()});
+				result = prepareStatement(sql, new String[] {dao.getPrimaryCol()});
 			}
 			else {
-				result = prepareStatement("INSERT INTO " + dao.getTable() + " (" + felder + ") VALUES (" + SQLUtils.getFragezeichenInsert(felder) + ')', Statement.RETURN_GENERATED_KEYS);
+				result = prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
 			}
-			if (!dao.shouldCloseAlways()) pstCache.put("insert", result);
+			cachePst("insert", result);
 		}
 		return result;
 	}
@@ -47,11 +46,10 @@ public class DAOConnection extends DAOConnectionBase<DAO<?, ?>> {
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull PreparedStatement updatePst() throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() ? null : pstCache.get("update");
+		PreparedStatement result = getCachedPst("update");
 		if (result == null) {
-			String felder = (dao.getDtype() == null ? "" : "DType, ") + dao.getFelder();
-			result = prepareStatement("UPDATE " + dao.getTable() + " SET " + SQLUtils.getFragezeichenUpdate(felder) + " WHERE " + dao.getPrimaryCol() + "=?");
-			if (!dao.shouldCloseAlways()) pstCache.put("update", result);
+			result = prepareStatement(dao.getSQLTemplates().getUpdate());
+			cachePst("update", result);
 		}
 		return result;
 	}
@@ -63,10 +61,10 @@ public class DAOConnection extends DAOConnectionBase<DAO<?, ?>> {
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull PreparedStatement deletePst() throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() ? null : pstCache.get("delete");
+		PreparedStatement result = getCachedPst("delete");
 		if (result == null) {
-			result = prepareStatement("DELETE FROM " + dao.getTable() + " WHERE " + dao.getPrimaryCol() + "=?" + (dao.getDtype() != null ? " AND DType=?" : ""));
-			if (!dao.shouldCloseAlways()) pstCache.put("delete", result);
+			result = prepareStatement(dao.getSQLTemplates().getDelete());
+			cachePst("delete", result);
 		}
 		return result;
 	}
@@ -1,6 +1,6 @@
 package net.sjr.sql;
 
-import net.sjr.sql.exceptions.UncheckedSQLException;
+import net.sjr.sql.metrics.DAOMetrics;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -8,59 +8,97 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
-import java.util.HashMap;
-import java.util.Map;
 
 public class DAOConnectionBase<D extends DAOBase<?, ?>> implements AutoCloseable {
+	protected final PooledConnection pooledConnection;
 	protected final Connection connection;
 	protected final D dao;
-	protected final Map<String, PreparedStatement> pstCache = new HashMap<>();
+	protected final boolean cacheStatements;
 	protected final Logger log = LoggerFactory.getLogger(getClass());
 	
 	/**
 	 * Erstellt eine neue {@link DAOConnectionBase}
 	 *
-	 * @param connection die zu benutzende {@link Connection}
+	 * @param connection die aus dem {@link SharedConnectionPool} ausgeliehene {@link PooledConnection}
 	 * @param dao        die zu benutzende {@link DAOBase}
 	 */
-	public DAOConnectionBase(Connection connection, D dao) {
+	public DAOConnectionBase(PooledConnection connection, D dao) {
 		if (connection == null) throw new IllegalArgumentException("Keine Connection angegeben");
-		log.debug("Creating new Connection...");
-		this.connection = connection;
+		this.pooledConnection = connection;
+		this.connection = connection.getConnection();
 		this.dao = dao;
+		this.cacheStatements = !connection.isShared();
 	}
 	
+	/**
+	 * Schließt die {@link PooledConnection} inkl. aller gecachten {@link PreparedStatement}s
+	 */
 	@Override
 	public void close() {
-		if (log != null) log.debug("Closing DAOConnection...");
-		for (final PreparedStatement pst : pstCache.values()) {
-			SQLUtils.closeSqlAutocloseable(log, pst);
-		}
-		pstCache.clear();
-		if (dao.dataSource != null) {
-			try {
-				dao.closeConnectionFromDataSource(connection);
-			}
-			catch (SQLException e) {
-				if (log != null) log.error("Fehler beim Schließen der Datenbankverbindung", e);
-			}
-		}
+		pooledConnection.close();
+	}
+	
+	/**
+	 * @return die aus dem {@link SharedConnectionPool} ausgeliehene {@link PooledConnection}
+	 */
+	public @NotNull PooledConnection getPooledConnection() {
+		return pooledConnection;
+	}
+	
+	/**
+	 * Prüft, ob das {@link PreparedStatement} im pstCache liegt und somit nicht geschlossen werden darf
+	 *
+	 * @param pst das {@link PreparedStatement}
+	 * @return {@code true}, wenn es gecached ist
+	 */
+	public boolean isCached(final @NotNull PreparedStatement pst) {
+		return pooledConnection.isCached(pst);
+	}
+	
+	/**
+	 * Setzt alle gecachten {@link PreparedStatement}s zurück, damit sie bei der nächsten Benutzung keine alten Parameter oder Batches mehr enthalten
+	 */
+	public void resetStatements() {
+		pooledConnection.resetStatements();
 	}
 	
 	/**
-	 * Findet den Typ der Datenbank heraus
+	 * Prüft, ob die Datenbankverbindung noch benutzt werden kann
+	 *
+	 * @param timeout der Timeout in Sekunden für {@link Connection#isValid(int)}
+	 * @return {@code true}, wenn die Verbindung gültig ist
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public boolean isValid(final int timeout) throws SQLException {
+		return pooledConnection.isValid(timeout);
+	}
+	
+	/**
+	 * Prüft, ob die Datenbankverbindung geschlossen ist
+	 *
+	 * @return {@code true}, wenn die Verbindung geschlossen ist
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public boolean isClosed() throws SQLException {
+		return connection.isClosed();
+	}
+	
+	/**
+	 * Findet den Typ der Datenbank heraus. Dieser wird nur beim ersten Mal aus den {@link DatabaseMetaData} gelesen und danach von der {@link DAOBase} gecached
 	 *
 	 * @return der Datenbanktyp
 	 */
 	public @NotNull DatabaseType getDatabaseType() {
-		try {
-			DatabaseMetaData metaData = connection.getMetaData();
-			String productName = metaData.getDatabaseProductName();
-			return DatabaseType.getFromIdentifier(productName);
-		}
-		catch (final SQLException e) {
-			throw new UncheckedSQLException(e);
-		}
+		return dao.getDatabaseType(connection);
+	}
+	
+	/**
+	 * Gibt den {@link SQLDialect} der Datenbank zurück
+	 *
+	 * @return der {@link SQLDialect}
+	 */
+	public @NotNull SQLDialect getSQLDialect() {
+		return dao.getSQLDialect(getDatabaseType());
 	}
 	
 	/**
@@ -69,7 +107,7 @@ public class DAOConnectionBase<D extends DAOBase<?, ?>> implements AutoCloseable
 	 * @param select   die Felder für die SELECT Klausel
 	 * @param join     Die JOIN Klausel oder {@code null}
 	 * @param where    Die WHERE Klausel oder {@code null}
-	 * @param limit    das Limit für die Anzahl der Ergebnisse oder {@code null}
+	 * @param limit    das Limit für die Anzahl der Ergebnisse oder {@code null}, siehe {@link SQLLimit}
 	 * @param order    Die ORDER Klausel oder {@code null}
 	 * @param cacheKey der Key für den pstCache
 	 * @param params   die Parameter, die in das {@link PreparedStatement} eingefügt werden
@@ -77,30 +115,100 @@ public class DAOConnectionBase<D extends DAOBase<?, ?>> implements AutoCloseable
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	public @NotNull PreparedStatement getPst(final @NotNull String select, final @Nullable String join, final @Nullable String where, final @Nullable String limit, final @Nullable String order, final @Nullable String cacheKey, final @Nullable ParameterList params) throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() || cacheKey == null ? null : pstCache.get(cacheKey);
-		if (result == null || result.isClosed()) {
-			String query = "SELECT " + select;
-			query += " FROM " + dao.getTable();
-			if (!StringUtils.isBlank(join)) query += (join.contains("JOIN") ? " " : " JOIN ") + join;
-			if (!StringUtils.isBlank(where) || dao.getDtype() != null) {
-				query += " WHERE ";
-				if (StringUtils.isBlank(where)) {
-					query += "DType=?";
-				}
-				else {
-					query += SQLUtils.nullableWhere(where, params);
-					if (dao.getDtype() != null) query += " AND DType=?";
-				}
-			}
-			if (!StringUtils.isBlank(order)) query += " ORDER BY " + order;
-			if (!StringUtils.isBlank(limit) && getDatabaseType() != DatabaseType.ORACLE) query += " LIMIT " + limit;
-			
-			result = prepareStatement(query);
-			if (cacheKey != null && !dao.shouldCloseAlways()) pstCache.put(cacheKey, result);
+		PreparedStatement result = getCachedPst(cacheKey);
+		if (result == null) {
+			result = prepareStatement(buildSelect(select, join, where, limit, order, params));
+			cachePst(cacheKey, result);
 		}
 		return result;
 	}
 	
+	/**
+	 * Holt ein {@link PreparedStatement} aus dem pstCache der {@link PooledConnection} und zeichnet Treffer und Fehlschläge in den {@link DAOMetrics} auf.
+	 * Der pstCache wird von allen Instanzen derselben DAO Klasse geteilt, welche die Verbindung ausleihen. Ist die Verbindung in einem {@link TransactionScope} mehrfach ausgeliehen,
+	 * wird der pstCache nicht benutzt
+	 *
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @return das offene {@link PreparedStatement} oder {@code null}, wenn nicht gecached wird oder es neu erstellt werden muss
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	protected @Nullable PreparedStatement getCachedPst(final @Nullable String cacheKey) throws SQLException {
+		if (cacheKey == null || !cacheStatements || dao.shouldCloseAlways()) return null;
+		PreparedStatement result = pooledConnection.getStatement(new StatementKey(dao, cacheKey));
+		DAOMetrics metrics = dao.getMetrics();
+		if (metrics.isEnabled()) metrics.recordStatementCache(dao.getClass().getName(), result != null);
+		return result;
+	}
+	
+	/**
+	 * Legt ein neu erstelltes {@link PreparedStatement} in den pstCache der {@link PooledConnection}, wenn gecached wird
+	 *
+	 * @param cacheKey der Key für den pstCache oder {@code null}
+	 * @param pst      das {@link PreparedStatement}
+	 */
+	protected void cachePst(final @Nullable String cacheKey, final @NotNull PreparedStatement pst) {
+		if (cacheKey != null && cacheStatements && !dao.shouldCloseAlways()) pooledConnection.putStatement(new StatementKey(dao, cacheKey), pst, dao.getStatementCacheSize(), dao.getMetrics());
+	}
+	
+	/**
+	 * Baut aus diversen Parametern ein nicht gecachtes {@link PreparedStatement} für das Lesen großer Ergebnismengen zusammen.
+	 * Das {@link ResultSet} ist forward-only und read-only und wird mit der gegebenen fetchSize geladen
+	 *
+	 * @param select    die Felder für die SELECT Klausel
+	 * @param join      Die JOIN Klausel oder {@code null}
+	 * @param where     Die WHERE Klausel oder {@code null}
+	 * @param order     Die ORDER Klausel oder {@code null}
+	 * @param fetchSize die Anzahl der Zeilen, die auf einmal von der Datenbank geholt werden
+	 * @param params    die Parameter, die in das {@link PreparedStatement} eingefügt werden
+	 * @return das zusammengebaute {@link PreparedStatement}
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public @NotNull PreparedStatement getStreamPst(final @NotNull String select, final @Nullable String join, final @Nullable String where, final @Nullable String order, final int fetchSize, final @Nullable ParameterList params) throws SQLException {
+		PreparedStatement result = prepareStatement(buildSelect(select, join, where, null, order, params), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		result.setFetchSize(fetchSize);
+		return result;
+	}
+	
+	/**
+	 * Baut aus diversen Parametern die SELECT Abfrage zusammen
+	 *
+	 * @param select die Felder für die SELECT Klausel
+	 * @param join   Die JOIN Klausel oder {@code null}
+	 * @param where  Die WHERE Klausel oder {@code null}
+	 * @param limit  das Limit für die Anzahl der Ergebnisse oder {@code null}, siehe {@link SQLLimit}. Andere Schreibweisen, z.B. mit Platzhaltern, werden nur
+	 *               bei {@link StandardSQLDialect#LIMIT_OFFSET} unverändert hinter {@code LIMIT} gesetzt
+	 * @param order  Die ORDER Klausel oder {@code null}
+	 * @param params die Parameter, die in das {@link PreparedStatement} eingefügt werden
+	 * @return die SELECT Abfrage
+	 * @throws IllegalArgumentException Wenn das Limit nicht von {@link SQLLimit} verstanden wird und der {@link SQLDialect} nicht {@link StandardSQLDialect#LIMIT_OFFSET} ist
+	 */
+	protected @NotNull String buildSelect(final @NotNull String select, final @Nullable String join, final @Nullable String where, final @Nullable String limit, final @Nullable String order, final @Nullable ParameterList params) {
+		SQLTemplates templates = dao.getSQLTemplates();
+		StringBuilder query = new StringBuilder(128);
+		if (select.equals(templates.getSelect())) query.append(templates.getSelectFrom());
+		else query.append("SELECT ").append(select).append(" FROM ").append(templates.getTable());
+		if (!StringUtils.isBlank(join)) query.append(join.contains("JOIN") ? " " : " JOIN ").append(join);
+		if (!StringUtils.isBlank(where) || dao.getDtype() != null) {
+			query.append(" WHERE ");
+			if (StringUtils.isBlank(where)) {
+				query.append("DType=?");
+			}
+			else {
+				query.append(SQLUtils.nullableWhere(where, params));
+				if (dao.getDtype() != null) query.append(" AND DType=?");
+			}
+		}
+		if (!StringUtils.isBlank(order)) query.append(" ORDER BY ").append(order);
+		if (StringUtils.isBlank(limit)) return query.toString();
+		SQLLimit parsed = SQLLimit.parse(limit);
+		SQLDialect dialect = getSQLDialect();
+		if (parsed != null) return parsed.apply(dialect, query.toString());
+		if (dialect != StandardSQLDialect.LIMIT_OFFSET) {
+			throw new IllegalArgumentException("Das Limit '" + limit + "' kann nur mit " + StandardSQLDialect.LIMIT_OFFSET + " unverändert übernommen werden, der Dialekt " + dialect + " benötigt eine feste Zahl wie \"n\", \"m, n\" oder \"n OFFSET m\"");
+		}
+		return query.append(" LIMIT ").append(limit).toString();
+	}
+	
 	/**
 	 * Reicht die Abfrage weiter an {@link Connection#createStatement()}
 	 *
@@ -1,9 +1,21 @@
 package net.sjr.sql;
 
-import org.apache.commons.pool2.impl.GenericObjectPool;
+import net.sjr.sql.metrics.DAOMetrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.jetbrains.annotations.NotNull;
 
-public class DAOConnectionPoolBase<C extends DAOConnectionBase<?>> extends GenericObjectPool<C> {
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Zugang einer DAO zum {@link SharedConnectionPool} ihrer {@link javax.sql.DataSource} bzw. Datenbankverbindung.
+ * Das Erstellen ist günstig, der {@link SharedConnectionPool} wird erst bei der ersten Benutzung geholt.
+ * Nutzt einen {@link ReentrantLock} statt {@code synchronized}, damit wartende virtuelle Threads ihren Träger-Thread nicht blockieren
+ */
+public class DAOConnectionPoolBase<C extends DAOConnectionBase<?>> {
+	protected final DAOConnectionPoolFactoryBase<C, ?> factory;
 	protected final DAOBase<?, C> dao;
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile SharedConnectionPool.Lease lease;
 	
 	/**
 	 * Erstellt einen neuen {@link DAOConnectionPoolBase}
@@ -12,19 +24,268 @@ public class DAOConnectionPoolBase<C extends DAOConnectionBase<?>> extends Gener
 	 * @param dao     die zu benutzende {@link DAOBase}
 	 */
 	public DAOConnectionPoolBase(DAOConnectionPoolFactoryBase<C, ?> factory, final DAOBase<?, C> dao) {
-		super(factory);
+		this.factory = factory;
 		this.dao = dao;
 	}
 	
-	@Override
+	/**
+	 * Gibt den {@link SharedConnectionPool} zurück und holt ihn beim ersten Aufruf aus der Registry
+	 *
+	 * @return der {@link SharedConnectionPool}
+	 */
+	public @NotNull SharedConnectionPool getSharedPool() {
+		SharedConnectionPool.Lease result = lease;
+		if (result == null) {
+			lock.lock();
+			try {
+				result = lease;
+				if (result == null) {
+					result = SharedConnectionPool.acquire(dao);
+					lease = result;
+				}
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		return result.getPool();
+	}
+	
+	/**
+	 * Leiht eine Datenbankverbindung aus dem {@link SharedConnectionPool} aus
+	 *
+	 * @return die {@link DAOConnectionBase}
+	 * @throws Exception Wenn keine Verbindung ausgeliehen werden konnte
+	 */
+	public C borrowObject() throws Exception {
+		return borrowObject(getSharedPool().getMaxWaitMillis());
+	}
+	
+	/**
+	 * Leiht eine Datenbankverbindung aus dem {@link SharedConnectionPool} aus. Ist für den aktuellen Thread ein {@link TransactionScope} offen, wird immer dessen Verbindung zurück gegeben
+	 *
+	 * @param borrowMaxWaitMillis die maximale Wartezeit in Millisekunden
+	 * @return die {@link DAOConnectionBase}
+	 * @throws Exception Wenn keine Verbindung ausgeliehen werden konnte
+	 */
 	public C borrowObject(long borrowMaxWaitMillis) throws Exception {
-		if (dao.getPoolConfig() != null) setConfig(dao.getPoolConfig());
-		return super.borrowObject(borrowMaxWaitMillis);
+		SharedConnectionPool pool = getSharedPool();
+		TransactionScope scope = TransactionScope.current();
+		if (scope != null) {
+			PooledConnection pinned = scope.pin(pool, dao, borrowMaxWaitMillis);
+			try {
+				return factory.createConnection(pinned);
+			}
+			catch (RuntimeException e) {
+				pinned.releaseLease();
+				throw e;
+			}
+		}
+		DAOMetrics metrics = dao.getMetrics();
+		PooledConnection pooled;
+		if (metrics.isEnabled()) {
+			long start = System.nanoTime();
+			pooled = pool.borrowObject(dao, borrowMaxWaitMillis);
+			metrics.recordBorrow(pool.getName(), System.nanoTime() - start);
+			recordState(metrics, pool);
+		}
+		else {
+			pooled = pool.borrowObject(dao, borrowMaxWaitMillis);
+		}
+		try {
+			return factory.createConnection(pooled);
+		}
+		catch (RuntimeException e) {
+			pool.returnObject(pooled);
+			throw e;
+		}
 	}
 	
-	@Override
+	/**
+	 * Gibt eine Datenbankverbindung zurück in den {@link SharedConnectionPool}. An einen {@link TransactionScope} gebundene Verbindungen bleiben bis zu dessen Ende ausgeliehen
+	 *
+	 * @param obj die {@link DAOConnectionBase}
+	 */
 	public void returnObject(C obj) {
-		if (dao.getPoolConfig() != null) setConfig(dao.getPoolConfig());
-		super.returnObject(obj);
+		if (obj.getPooledConnection().isPinned()) {
+			obj.getPooledConnection().releaseLease();
+			return;
+		}
+		SharedConnectionPool pool = getSharedPool();
+		pool.returnObject(obj.getPooledConnection());
+		recordState(dao.getMetrics(), pool);
+	}
+	
+	/**
+	 * Schließt eine Datenbankverbindung und entfernt sie aus dem {@link SharedConnectionPool}. An einen {@link TransactionScope} gebundene Verbindungen bleiben bis zu dessen Ende ausgeliehen
+	 *
+	 * @param obj die {@link DAOConnectionBase}
+	 * @throws Exception Wenn ein Fehler beim Schließen aufgetreten ist
+	 */
+	public void invalidateObject(C obj) throws Exception {
+		if (obj.getPooledConnection().isPinned()) {
+			obj.getPooledConnection().releaseLease();
+			return;
+		}
+		SharedConnectionPool pool = getSharedPool();
+		pool.invalidateObject(obj.getPooledConnection());
+		recordState(dao.getMetrics(), pool);
+	}
+	
+	/**
+	 * Gibt den {@link SharedConnectionPool} frei. Benutzt ihn keine andere DAO mehr, werden seine Datenbankverbindungen geschlossen.
+	 * Bei der nächsten Benutzung wird er wieder neu geholt
+	 */
+	public void close() {
+		lock.lock();
+		try {
+			SharedConnectionPool.Lease current = lease;
+			if (current != null) {
+				lease = null;
+				SharedConnectionPool.release(current);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * @return die aktuelle {@link PoolPolicy} des {@link SharedConnectionPool}s
+	 */
+	public @NotNull PoolPolicy getPolicy() {
+		return getSharedPool().getPolicy();
+	}
+	
+	/**
+	 * Ändert die Konfiguration des {@link SharedConnectionPool}s zur Laufzeit. Betrifft alle DAOs, die sich den Pool teilen
+	 *
+	 * @param policy die neue {@link PoolPolicy}
+	 * @see SharedConnectionPool#reconfigure(PoolPolicy)
+	 */
+	public void reconfigure(final @NotNull PoolPolicy policy) {
+		getSharedPool().reconfigure(policy);
+	}
+	
+	/**
+	 * Übernimmt eine Konfiguration wie früher {@code GenericObjectPool#setConfig}. Die Validierungseinstellungen der aktuellen {@link PoolPolicy} bleiben erhalten
+	 *
+	 * @param config die neue Konfiguration
+	 * @deprecated seit 2.0.0, stattdessen {@link #reconfigure(PoolPolicy)} benutzen
+	 */
+	@Deprecated
+	public void setConfig(final @NotNull GenericObjectPoolConfig config) {
+		PoolPolicy current = getPolicy();
+		reconfigure(new PoolPolicy(config, current.getValidationIntervalMillis(), current.getValidationTimeout()));
+	}
+	
+	/**
+	 * @return die maximale Anzahl an Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #getPolicy()} benutzen
+	 */
+	@Deprecated
+	public int getMaxTotal() {
+		return getPolicy().getMaxTotal();
+	}
+	
+	/**
+	 * @param maxTotal die maximale Anzahl an Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #reconfigure(PoolPolicy)} mit {@link PoolPolicy#withMaxTotal(int)} benutzen
+	 */
+	@Deprecated
+	public void setMaxTotal(final int maxTotal) {
+		reconfigure(getPolicy().withMaxTotal(maxTotal));
+	}
+	
+	/**
+	 * @return die maximale Anzahl an freien Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #getPolicy()} benutzen
+	 */
+	@Deprecated
+	public int getMaxIdle() {
+		return getPolicy().getMaxIdle();
+	}
+	
+	/**
+	 * @param maxIdle die maximale Anzahl an freien Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #reconfigure(PoolPolicy)} mit {@link PoolPolicy#withMaxIdle(int)} benutzen
+	 */
+	@Deprecated
+	public void setMaxIdle(final int maxIdle) {
+		reconfigure(getPolicy().withMaxIdle(maxIdle));
+	}
+	
+	/**
+	 * @return die minimale Anzahl an freien Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #getPolicy()} benutzen
+	 */
+	@Deprecated
+	public int getMinIdle() {
+		return getPolicy().getMinIdle();
+	}
+	
+	/**
+	 * @param minIdle die minimale Anzahl an freien Verbindungen
+	 * @deprecated seit 2.0.0, stattdessen {@link #reconfigure(PoolPolicy)} mit {@link PoolPolicy#withMinIdle(int)} benutzen
+	 */
+	@Deprecated
+	public void setMinIdle(final int minIdle) {
+		reconfigure(getPolicy().withMinIdle(minIdle));
+	}
+	
+	/**
+	 * @return die maximale Wartezeit beim Ausleihen in Millisekunden
+	 * @deprecated seit 2.0.0, stattdessen {@link #getPolicy()} benutzen
+	 */
+	@Deprecated
+	public long getMaxWaitMillis() {
+		return getPolicy().getMaxWaitMillis();
+	}
+	
+	/**
+	 * @param maxWaitMillis die maximale Wartezeit beim Ausleihen in Millisekunden
+	 * @deprecated seit 2.0.0, stattdessen {@link #reconfigure(PoolPolicy)} mit {@link PoolPolicy#withMaxWaitMillis(long)} benutzen
+	 */
+	@Deprecated
+	public void setMaxWaitMillis(final long maxWaitMillis) {
+		reconfigure(getPolicy().withMaxWaitMillis(maxWaitMillis));
+	}
+	
+	/**
+	 * @return die Anzahl der ausgeliehenen Datenbankverbindungen im {@link SharedConnectionPool}
+	 */
+	public int getNumActive() {
+		return getSharedPool().getNumActive();
+	}
+	
+	/**
+	 * @return die Anzahl der freien Datenbankverbindungen im {@link SharedConnectionPool}
+	 */
+	public int getNumIdle() {
+		return getSharedPool().getNumIdle();
+	}
+	
+	/**
+	 * @return die Anzahl der im {@link SharedConnectionPool} erstellten Datenbankverbindungen
+	 */
+	public long getCreatedCount() {
+		return getSharedPool().getCreatedCount();
+	}
+	
+	/**
+	 * @return die Anzahl der im {@link SharedConnectionPool} geschlossenen Datenbankverbindungen
+	 */
+	public long getDestroyedCount() {
+		return getSharedPool().getDestroyedCount();
+	}
+	
+	/**
+	 * Zeichnet die Anzahl der ausgeliehenen und freien Verbindungen auf
+	 *
+	 * @param metrics die {@link DAOMetrics}
+	 * @param pool    der {@link SharedConnectionPool}
+	 */
+	private void recordState(final @NotNull DAOMetrics metrics, final @NotNull SharedConnectionPool pool) {
+		if (metrics.isEnabled()) metrics.recordPoolState(pool.getName(), pool.getNumActive(), pool.getNumIdle());
 	}
 }
@@ -1,7 +1,5 @@
 package net.sjr.sql;
 
-import java.sql.Connection;
-
 public class DAOConnectionPoolFactory extends DAOConnectionPoolFactoryBase<DAOConnection, DAO<?, ?>> {
 	
 	/**
@@ -16,12 +14,12 @@ public class DAOConnectionPoolFactory extends DAOConnectionPoolFactoryBase<DAOCo
 	/**
 	 * Erstellt eine neue {@link DAOConnection}
 	 *
-	 * @param connection die zu benutzende {@link Connection}
+	 * @param connection die zu benutzende {@link PooledConnection}
 	 * @param dao        die zu benutzende {@link DAO}
 	 * @return die erstellte {@link DAOConnection}
 	 */
 	@Override
-	protected DAOConnection doCreateConnection(Connection connection, DAO<?, ?> dao) {
+	protected DAOConnection doCreateConnection(PooledConnection connection, DAO<?, ?> dao) {
 		return new DAOConnection(connection, dao);
 	}
 }
@@ -0,0 +1,115 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.UncheckedSQLException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link Iterator} über das noch offene {@link ResultSet} einer {@link DAO} Abfrage. Die Objekte werden erst beim Iterieren erstellt, sodass nie das ganze Ergebnis im Speicher liegt.<br>
+ * Die ausgeliehene {@link DAOConnection} wird bis zum {@link #close()} bzw. bis zum Ende des {@link ResultSet}s gehalten
+ *
+ * @param <T> Typ des zu ladenden Java Objektes
+ * @param <P> Typ des Primary Keys
+ */
+@SuppressWarnings("WeakerAccess")
+public class DAOIterator<T extends DBObject<P>, P extends Number> implements Iterator<T>, AutoCloseable {
+	private final DAO<T, P> dao;
+	private final DBObject[] loadedObjects;
+	private DAOConnection con;
+	private PreparedStatement pst;
+	private ResultSet rs;
+	private T next = null;
+	private boolean closed = false;
+	
+	/**
+	 * Erstellt einen neuen {@link DAOIterator}
+	 *
+	 * @param dao           die {@link DAO}, welche die Objekte aus dem {@link ResultSet} erstellt
+	 * @param con           die ausgeliehene {@link DAOConnection}
+	 * @param pst           das ausgeführte {@link PreparedStatement}
+	 * @param rs            das offene {@link ResultSet}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 */
+	DAOIterator(final @NotNull DAO<T, P> dao, final @NotNull DAOConnection con, final @NotNull PreparedStatement pst, final @NotNull ResultSet rs, final DBObject... loadedObjects) {
+		this.dao = dao;
+		this.con = con;
+		this.pst = pst;
+		this.rs = rs;
+		this.loadedObjects = loadedObjects;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		if (next != null) return true;
+		if (closed) return false;
+		try {
+			if (rs.next()) {
+				next = dao.getFromRS(rs, loadedObjects);
+				return true;
+			}
+		}
+		catch (final SQLException e) {
+			close();
+			throw new UncheckedSQLException(e);
+		}
+		catch (final RuntimeException e) {
+			close();
+			throw e;
+		}
+		close();
+		return false;
+	}
+	
+	@Override
+	public @NotNull T next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		T result = next;
+		next = null;
+		return result;
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("remove wird nicht unterstützt");
+	}
+	
+	/**
+	 * Gibt an, ob das {@link ResultSet} bereits geschlossen und die {@link DAOConnection} zurück gegeben wurde
+	 *
+	 * @return {@code true}, wenn bereits geschlossen
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * Schließt das {@link ResultSet} und gibt die {@link DAOConnection} zurück. Kann mehrfach aufgerufen werden
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		dao.closeSqlAutocloseable(rs);
+		DAOConnection c = con;
+		PreparedStatement p = pst;
+		rs = null;
+		con = null;
+		pst = null;
+		dao.doCloseAlways(c, p);
+	}
+	
+	/**
+	 * Gibt das nächste Objekt zurück, ohne weiter zu gehen
+	 *
+	 * @return das nächste Objekt oder {@code null}, wenn es keines mehr gibt
+	 */
+	public @Nullable T peek() {
+		return hasNext() ? next : null;
+	}
+}
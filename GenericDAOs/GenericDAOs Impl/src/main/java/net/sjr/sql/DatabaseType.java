@@ -1,21 +1,34 @@
 package net.sjr.sql;
 
+import net.sjr.sql.exceptions.UncheckedSQLException;
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 /**
  * Klasse mit Typen von DBMS
  */
 public enum DatabaseType {
-	MICROSOFT("Microsoft SQL Server"), ORACLE("Oracle"), POSTGRES("PostgreSQL"), MYSQL("MySQL"), HSQLDB("HSQL Database Engine"), DB2("DB2"), H2("H2"), DERBY("Apache Derby"), UNKNOWN;
+	MICROSOFT("Microsoft SQL Server", StandardSQLDialect.TOP), ORACLE("Oracle", StandardSQLDialect.ROWNUM), POSTGRES("PostgreSQL", StandardSQLDialect.LIMIT_OFFSET),
+	MYSQL("MySQL", StandardSQLDialect.LIMIT_OFFSET), HSQLDB("HSQL Database Engine", StandardSQLDialect.LIMIT_OFFSET), DB2("DB2", StandardSQLDialect.FETCH_FIRST),
+	H2("H2", StandardSQLDialect.LIMIT_OFFSET), DERBY("Apache Derby", StandardSQLDialect.FETCH_FIRST), UNKNOWN;
+	private static final Map<Object, DatabaseType> DETECTED = Collections.synchronizedMap(new WeakHashMap<Object, DatabaseType>());
 	private final String identifier;
+	private final SQLDialect dialect;
 	
 	/**
 	 * Erstellt einen Datenbanktyp mit Identifier
 	 *
 	 * @param identifier der Identifier
+	 * @param dialect    der {@link SQLDialect} des DBMS
 	 */
-	DatabaseType(final @NotNull String identifier) {
+	DatabaseType(final @NotNull String identifier, final @NotNull SQLDialect dialect) {
 		this.identifier = identifier;
+		this.dialect = dialect;
 	}
 	
 	/**
@@ -23,6 +36,16 @@ public enum DatabaseType {
 	 */
 	DatabaseType() {
 		identifier = null;
+		dialect = StandardSQLDialect.LIMIT_OFFSET;
+	}
+	
+	/**
+	 * Gibt den {@link SQLDialect} des DBMS zurück. Für Oracle wird {@link StandardSQLDialect#ROWNUM} benutzt, da {@link StandardSQLDialect#FETCH_FIRST} erst ab 12c unterstützt wird
+	 *
+	 * @return der {@link SQLDialect}
+	 */
+	public @NotNull SQLDialect getDialect() {
+		return dialect;
 	}
 	
 	/**
@@ -38,4 +61,26 @@ public enum DatabaseType {
 
 		return UNKNOWN;
 	}
+	
+	/**
+	 * Findet den {@link DatabaseType} einer Datenbankverbindung heraus. Das Ergebnis wird pro Quelle gecached,
+	 * sodass die {@link java.sql.DatabaseMetaData} nur einmal pro {@link javax.sql.DataSource} bzw. {@link Connection} abgefragt werden
+	 *
+	 * @param source     die Quelle der Verbindungen, also die {@link javax.sql.DataSource} oder die {@link Connection} selbst
+	 * @param connection eine Verbindung aus der Quelle
+	 * @return der {@link DatabaseType}
+	 */
+	static @NotNull DatabaseType detect(final @NotNull Object source, final @NotNull Connection connection) {
+		DatabaseType result = DETECTED.get(source);
+		if (result == null) {
+			try {
+				result = getFromIdentifier(connection.getMetaData().getDatabaseProductName());
+			}
+			catch (final SQLException e) {
+				throw new UncheckedSQLException(e);
+			}
+			DETECTED.put(source, result);
+		}
+		return result;
+	}
 }
@@ -0,0 +1,76 @@
+package net.sjr.sql;
+
+import net.sjr.sql.rsloader.ForeignKeyCollector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link ForeignKeyCollector}, welcher beim Laden von Objekten alle Fremdschlüssel sammelt und diese danach mit einer Abfrage pro {@link DAO} Klasse lädt.
+ * Die Platzhalter werden dabei über {@link DAO#fillObject} gefüllt, sodass die bereits gesetzten Referenzen gültig bleiben
+ */
+@SuppressWarnings("unchecked")
+public class ForeignKeyResolver implements ForeignKeyCollector {
+	private final Map<Class<?>, Pending> pending = new LinkedHashMap<>();
+	private final Map<Class<?>, Map<Number, DBObject<?>>> resolved = new HashMap<>();
+	
+	@Override
+	public @Nullable <T extends DBObject<P>, P extends Number> T defer(final @NotNull DAOBaseInterface<T, P> dao, final @NotNull P primary) {
+		if (!(dao instanceof DAO)) return null;
+		
+		T cached = ((DAO<T, P>) dao).getCached(primary);
+		if (cached != null) return cached;
+		
+		Map<Number, DBObject<?>> done = resolved.get(dao.getClass());
+		if (done != null && done.containsKey(primary)) return (T) done.get(primary);
+		
+		Pending p = pending.get(dao.getClass());
+		if (p == null) {
+			p = new Pending((DAO<?, ?>) dao);
+			pending.put(dao.getClass(), p);
+		}
+		DBObject<?> placeholder = p.placeholders.get(primary);
+		if (placeholder == null) {
+			placeholder = ((DAO<T, P>) dao).newInstance();
+			if (placeholder == null) return null;
+			p.placeholders.put(primary, placeholder);
+		}
+		return (T) placeholder;
+	}
+	
+	/**
+	 * Lädt alle gesammelten Fremdschlüssel. Werden dabei neue Fremdschlüssel gefunden, werden diese ebenfalls geladen
+	 */
+	public void resolve() {
+		while (!pending.isEmpty()) {
+			Iterator<Map.Entry<Class<?>, Pending>> it = pending.entrySet().iterator();
+			Map.Entry<Class<?>, Pending> entry = it.next();
+			it.remove();
+			
+			Pending p = entry.getValue();
+			Map<Number, DBObject<?>> done = resolved.get(entry.getKey());
+			if (done == null) {
+				done = new HashMap<>();
+				resolved.put(entry.getKey(), done);
+			}
+			done.putAll(p.placeholders);
+			p.dao.fillFromIDs((Map) p.placeholders);
+		}
+	}
+	
+	/**
+	 * Die noch zu ladenden Platzhalter einer {@link DAO} Klasse
+	 */
+	private static class Pending {
+		private final DAO<?, ?> dao;
+		private final Map<Number, DBObject<?>> placeholders = new LinkedHashMap<>();
+		
+		private Pending(final @NotNull DAO<?, ?> dao) {
+			this.dao = dao;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Sortierung für die Keyset (Seek) Pagination über eine beliebige Kombination von Spalten. Statt mit OFFSET alle vorherigen Zeilen erneut zu lesen,
+ * wird die nächste Seite über die Werte der Sortierspalten der letzten Zeile gesucht, z.B. für {@code a, b DESC}:
+ * {@code (a > ? OR (a = ? AND b < ?))}.<br>
+ * Die Spalten müssen zusammen eindeutig und nicht {@code null} sein. Deshalb muss der Primary Key enthalten sein, am einfachsten über {@link #withTieBreaker(String)}
+ */
+@SuppressWarnings("WeakerAccess")
+public final class Keyset {
+	private final String[] columns;
+	private final boolean[] descending;
+	private final String orderBy;
+	private final String seekPredicate;
+	
+	/**
+	 * Erstellt ein neues {@link Keyset}
+	 *
+	 * @param columns    die Sortierspalten
+	 * @param descending ob die jeweilige Spalte absteigend sortiert wird
+	 */
+	private Keyset(final @NotNull String[] columns, final @NotNull boolean[] descending) {
+		this.columns = columns;
+		this.descending = descending;
+		
+		StringBuilder order = new StringBuilder();
+		StringBuilder seek = new StringBuilder("(");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				order.append(", ");
+				seek.append(" OR (");
+			}
+			order.append(columns[i]);
+			if (descending[i]) order.append(" DESC");
+			for (int j = 0; j < i; j++) {
+				seek.append(columns[j]).append(" = ? AND ");
+			}
+			seek.append(columns[i]).append(descending[i] ? " < ?" : " > ?");
+			if (i > 0) seek.append(')');
+		}
+		this.orderBy = order.toString();
+		this.seekPredicate = seek.append(')').toString();
+	}
+	
+	/**
+	 * Erstellt ein {@link Keyset} aus Sortierspalten. Jede Spalte kann mit {@code ASC} oder {@code DESC} enden
+	 *
+	 * @param columns die Sortierspalten, z.B. {@code "name", "testID DESC"}
+	 * @return das {@link Keyset}
+	 */
+	public static @NotNull Keyset of(final @NotNull String... columns) {
+		if (columns.length == 0) throw new IllegalArgumentException("Es muss mindestens eine Sortierspalte angegeben werden");
+		String[] names = new String[columns.length];
+		boolean[] descending = new boolean[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			String[] parts = columns[i].trim().split("\\s+");
+			if (parts.length > 2 || parts.length == 2 && !parts[1].equalsIgnoreCase("ASC") && !parts[1].equalsIgnoreCase("DESC")) {
+				throw new IllegalArgumentException("Ungültige Sortierspalte: " + columns[i]);
+			}
+			names[i] = parts[0];
+			descending[i] = parts.length == 2 && parts[1].equalsIgnoreCase("DESC");
+		}
+		return new Keyset(names, descending);
+	}
+	
+	/**
+	 * Prüft, ob die Spalte eine der Sortierspalten ist. Groß- und Kleinschreibung sowie ein vorangestellter Tabellenname werden ignoriert
+	 *
+	 * @param column die Spalte
+	 * @return {@code true}, wenn nach der Spalte sortiert wird
+	 */
+	public boolean contains(final @NotNull String column) {
+		for (final String c : columns) {
+			if (c.equalsIgnoreCase(column) || c.toLowerCase().endsWith('.' + column.toLowerCase())) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Hängt eine eindeutige Spalte, z.B. den Primary Key, als letzte aufsteigende Sortierspalte an, damit die Spalten zusammen eindeutig sind.
+	 * Wird bereits nach der Spalte sortiert, wird das {@link Keyset} unverändert zurück gegeben
+	 *
+	 * @param column die eindeutige Spalte
+	 * @return das {@link Keyset} mit der Spalte
+	 */
+	public @NotNull Keyset withTieBreaker(final @NotNull String column) {
+		if (contains(column)) return this;
+		String[] names = Arrays.copyOf(columns, columns.length + 1);
+		boolean[] desc = Arrays.copyOf(descending, descending.length + 1);
+		names[columns.length] = column;
+		return new Keyset(names, desc);
+	}
+	
+	/**
+	 * @return die Anzahl der Sortierspalten
+	 */
+	public int size() {
+		return columns.length;
+	}
+	
+	/**
+	 * @return die ORDER Klausel
+	 */
+	public @NotNull String getOrderBy() {
+		return orderBy;
+	}
+	
+	/**
+	 * @return die Bedingung, welche alle Zeilen nach dem letzten Key findet. Enthält für n Spalten n * (n + 1) / 2 Parameter
+	 */
+	public @NotNull String getSeekPredicate() {
+		return seekPredicate;
+	}
+	
+	/**
+	 * Fügt die Parameter für {@link #getSeekPredicate()} an
+	 *
+	 * @param params  die {@link ParameterList}, an die angefügt wird
+	 * @param lastKey die Werte der Sortierspalten der letzten Zeile in der Reihenfolge der Spalten
+	 * @return die {@link ParameterList}
+	 */
+	public @NotNull ParameterList addSeekParameters(final @NotNull ParameterList params, final @NotNull Object... lastKey) {
+		if (lastKey.length != columns.length) throw new IllegalArgumentException("Es werden " + columns.length + " Werte für den Key erwartet, nicht " + lastKey.length);
+		for (int i = 0; i < columns.length; i++) {
+			for (int j = 0; j <= i; j++) {
+				if (lastKey[j] == null) throw new IllegalArgumentException("Der Key darf keine null Werte enthalten: " + columns[j]);
+				params.addParameter(lastKey[j]);
+			}
+		}
+		return params;
+	}
+	
+	@Override
+	public boolean equals(final @Nullable Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Keyset)) return false;
+		Keyset that = (Keyset) o;
+		return Arrays.equals(columns, that.columns) && Arrays.equals(descending, that.descending);
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(columns) + Arrays.hashCode(descending);
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return orderBy;
+	}
+}
@@ -91,6 +91,11 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 	 */
 	protected abstract @NotNull String getAllKreuzCols();
 	
+	@Override
+	protected @NotNull SQLTemplates createSQLTemplates() {
+		return SQLTemplates.forKreuzDAO(this);
+	}
+	
 	/**
 	 * Erstellt aus einem {@link ResultSet} mindestens ein {@link Kreuz2Objekt} mit allen Verbundenen Objekten
 	 *
@@ -178,9 +183,9 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 			con = connectionPool.borrowObject();
 			pst = con.createKreuzPst();
 			
-			new ParameterList((Object[]) params).setParameter(pst, 1);
-			logPst(pst);
-			pst.executeUpdate();
+			ParameterList pList = new ParameterList((Object[]) params);
+			pList.setParameter(pst, 1);
+			executeUpdate(pst, "createKreuz", pList);
 		}
 		catch (final RuntimeException e) {
 			throw e;
@@ -207,10 +212,10 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 		try {
 			con = connectionPool.borrowObject();
 			pst = con.deleteKreuzPst();
-			new ParameterList((Object[]) params).setParameter(pst, 1);
+			ParameterList pList = new ParameterList((Object[]) params);
+			pList.setParameter(pst, 1);
 			
-			logPst(pst);
-			pst.executeUpdate();
+			executeUpdate(pst, "deleteKreuz", pList);
 		}
 		catch (final RuntimeException e) {
 			throw e;
@@ -298,6 +303,31 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 	 * @return eine Liste aller gefundenen Kreuzobjekten. Niemals {@code null}
 	 */
 	protected @NotNull List<KO> loadKreuzeFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String limit, final @Nullable String order, final @Nullable String cacheKey, final DBObject... loadedObjects) {
+		ForeignKeyResolver resolver = beginDeferForeignKeys();
+		try {
+			List<KO> result = queryKreuzeFromWhere(join, where, params, limit, order, cacheKey, loadedObjects);
+			if (resolver != null) resolver.resolve();
+			return result;
+		}
+		finally {
+			endDeferForeignKeys(resolver);
+		}
+	}
+	
+	/**
+	 * Führt die Abfrage für {@link #loadKreuzeFromWhere} aus
+	 *
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die Parameter oder {@code null}
+	 * @param limit         das Limit für die Anzahl der Ergebnisse oder {@code null}
+	 * @param order         Die ORDER Klausel oder {@code null}
+	 * @param cacheKey      der Key für den pstCache
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 *
+	 * @return eine Liste aller gefundenen Kreuzobjekten. Niemals {@code null}
+	 */
+	private @NotNull List<KO> queryKreuzeFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String limit, final @Nullable String order, final @Nullable String cacheKey, final DBObject... loadedObjects) {
 		KreuzDAOConnection con = null;
 		PreparedStatement pst = null;
 		try {
@@ -306,13 +336,13 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 			
 			if (params != null) params.setParameter(pst, 1);
 			
-			logPst(pst);
-			try (ResultSet rs = pst.executeQuery()) {
+			try (ResultSet rs = getResultSet(pst, cacheKey, params)) {
 				List<KO> result = new LinkedList<>();
 				while (rs.next()) {
 					KO ko = getKreuzObjekt(rs, loadedObjects);
 					result.add(ko);
 				}
+				recordRows(cacheKey, result.size());
 				return result;
 			}
 		}
@@ -420,8 +450,7 @@ public abstract class KreuzDAOBase<A extends DBObject<PA>, PA extends Number, B
 			
 			if (params != null) params.setParameter(pst, 1);
 			
-			logPst(pst);
-			try (ResultSet rs = pst.executeQuery()) {
+			try (ResultSet rs = getResultSet(pst, cacheKey, params)) {
 				if (rs.next()) {
 					return rs.getLong(1);
 				}
@@ -2,7 +2,6 @@ package net.sjr.sql;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
@@ -11,10 +10,10 @@ public class KreuzDAOConnection extends DAOConnectionBase<KreuzDAOBase<?, ?, ?,
 	/**
 	 * Erstellt eine neue {@link KreuzDAOConnection}
 	 *
-	 * @param connection die zu benutzende {@link Connection}
+	 * @param connection die zu benutzende {@link PooledConnection}
 	 * @param dao        die zu benutzende {@link KreuzDAOBase}
 	 */
-	public KreuzDAOConnection(Connection connection, KreuzDAOBase<?, ?, ?, ?, ?> dao) {
+	public KreuzDAOConnection(PooledConnection connection, KreuzDAOBase<?, ?, ?, ?, ?> dao) {
 		super(connection, dao);
 	}
 	
@@ -25,11 +24,10 @@ public class KreuzDAOConnection extends DAOConnectionBase<KreuzDAOBase<?, ?, ?,
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull PreparedStatement createKreuzPst() throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() ? null : pstCache.get("createKreuz");
+		PreparedStatement result = getCachedPst("createKreuz");
 		if (result == null) {
-			result = prepareStatement("INSERT INTO " + dao.getTable() + " (" + dao.getAllKreuzCols() + ") VALUES (" + SQLUtils.getFragezeichenInsert(dao
-					.getAllKreuzCols()) + ')');
-			if (!dao.shouldCloseAlways()) pstCache.put("createKreuz", result);
+			result = prepareStatement(dao.getSQLTemplates().getInsert());
+			cachePst("createKreuz", result);
 		}
 		return result;
 	}
@@ -41,10 +39,10 @@ public class KreuzDAOConnection extends DAOConnectionBase<KreuzDAOBase<?, ?, ?,
 	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
 	 */
 	protected @NotNull PreparedStatement deleteKreuzPst() throws SQLException {
-		PreparedStatement result = dao.shouldCloseAlways() ? null : pstCache.get("deleteKreuz");
+		PreparedStatement result = getCachedPst("deleteKreuz");
 		if (result == null) {
-			result = prepareStatement("DELETE FROM " + dao.getTable() + " WHERE " + SQLUtils.getFragezeichenSelect(dao.getAllKreuzCols(), " AND ", "="));
-			if (!dao.shouldCloseAlways()) pstCache.put("deleteKreuz", result);
+			result = prepareStatement(dao.getSQLTemplates().getDelete());
+			cachePst("deleteKreuz", result);
 		}
 		return result;
 	}
@@ -1,7 +1,5 @@
 package net.sjr.sql;
 
-import java.sql.Connection;
-
 public class KreuzDAOConnectionPoolFactory extends DAOConnectionPoolFactoryBase<KreuzDAOConnection, KreuzDAOBase<?, ?, ?, ?, ?>> {
 	
 	public KreuzDAOConnectionPoolFactory(KreuzDAOBase<?, ?, ?, ?, ?> dao) {
@@ -11,12 +9,12 @@ public class KreuzDAOConnectionPoolFactory extends DAOConnectionPoolFactoryBase<
 	/**
 	 * Erstellt eine neue {@link KreuzDAOConnection}
 	 *
-	 * @param connection die zu benutzende {@link Connection}
+	 * @param connection die zu benutzende {@link PooledConnection}
 	 * @param dao        die zu benutzende {@link KreuzDAOBase}
 	 * @return die erstellte {@link KreuzDAOConnection}
 	 */
 	@Override
-	protected KreuzDAOConnection doCreateConnection(Connection connection, KreuzDAOBase<?, ?, ?, ?, ?> dao) {
+	protected KreuzDAOConnection doCreateConnection(PooledConnection connection, KreuzDAOBase<?, ?, ?, ?, ?> dao) {
 		return new KreuzDAOConnection(connection, dao);
 	}
 }
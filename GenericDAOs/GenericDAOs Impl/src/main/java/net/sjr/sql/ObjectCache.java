@@ -0,0 +1,211 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache für bereits geladene Objekte einer {@link DAO} an Hand ihrer Primary ID. Die Größe ist begrenzt, wobei die am längsten nicht benutzten Objekte zuerst entfernt werden (LRU).
+ * Zusätzlich können Objekte nach einer bestimmten Zeit ungültig werden. Eine Zulassung nach Zugriffshäufigkeit wie bei W-TinyLFU gibt es nicht: jedes geladene Objekt
+ * wird aufgenommen, sodass ein einmaliger Durchlauf über viele IDs häufig benutzte Objekte verdrängen kann. Für solche Zugriffe sollte die DAO ohne Cache benutzt werden.<br>
+ * Damit ein Ladevorgang kein Objekt zurück in den Cache legt, das währenddessen invalidiert wurde, wird vor dem Laden {@link #getGeneration()} abgefragt
+ * und das Objekt mit {@link #put(DBObject, long)} abgelegt.<br>
+ * Die Objekte werden nicht kopiert. Alle Aufrufer, auch auf anderen Threads, bekommen somit die selbe Instanz. Gecachte Objekte müssen daher als unveränderlich behandelt werden:
+ * Änderungen wären ohne Synchronisierung für alle anderen Threads sichtbar, bevor sie gespeichert wurden. Soll ein Objekt geändert werden, muss es vorher kopiert
+ * oder über eine DAO ohne Cache geladen werden. Erst das Speichern über die DAO entfernt es aus dem Cache
+ *
+ * @param <P> Typ des Primary Keys
+ * @param <T> Typ des zu cachenden Java Objektes
+ * @see DAO#getObjectCache()
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ObjectCache<P extends Number, T extends DBObject<P>> {
+	private final int maxSize;
+	private final long ttlMillis;
+	private final Map<P, Entry<T>> entries;
+	private final Map<P, Long> invalidations;
+	private long generation = 0;
+	private long floor = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	
+	/**
+	 * Erstellt einen neuen {@link ObjectCache}
+	 *
+	 * @param maxSize   die maximale Anzahl an Objekten
+	 * @param ttlMillis die Zeit in Millisekunden, nach der ein Objekt ungültig wird oder {@code 0} für unbegrenzt
+	 */
+	public ObjectCache(final int maxSize, final long ttlMillis) {
+		if (maxSize < 1) throw new IllegalArgumentException("maxSize muss mindestens 1 sein");
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		entries = new LinkedHashMap<P, Entry<T>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 2961473591234560153L;
+			
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<P, Entry<T>> eldest) {
+				if (size() > ObjectCache.this.maxSize) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		invalidations = new LinkedHashMap<P, Long>() {
+			private static final long serialVersionUID = -4306398512761290836L;
+			
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<P, Long> eldest) {
+				if (size() > ObjectCache.this.maxSize) {
+					floor = Math.max(floor, eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Gibt das gecachte Objekt zurück
+	 *
+	 * @param primary die Primary ID des Objektes
+	 * @return das Objekt oder {@code null}, wenn es nicht (mehr) im Cache ist
+	 */
+	public synchronized @Nullable T get(final @NotNull P primary) {
+		Entry<T> entry = entries.get(primary);
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		if (ttlMillis > 0 && System.currentTimeMillis() > entry.expires) {
+			entries.remove(primary);
+			evictions++;
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+	
+	/**
+	 * Legt ein Objekt in den Cache. Objekte ohne Primary ID werden ignoriert
+	 *
+	 * @param value das Objekt
+	 */
+	public synchronized void put(final @NotNull T value) {
+		P primary = value.getPrimary();
+		if (primary == null) return;
+		entries.put(primary, new Entry<>(value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE));
+	}
+	
+	/**
+	 * Legt ein geladenes Objekt in den Cache, wenn es seit dem Abfragen der Generation nicht invalidiert wurde. Objekte ohne Primary ID werden ignoriert
+	 *
+	 * @param value      das Objekt
+	 * @param generation die vor dem Laden über {@link #getGeneration()} abgefragte Generation
+	 * @return {@code true}, wenn das Objekt in den Cache gelegt wurde
+	 */
+	public synchronized boolean put(final @NotNull T value, final long generation) {
+		P primary = value.getPrimary();
+		if (primary == null || generation < floor) return false;
+		Long invalidated = invalidations.get(primary);
+		if (invalidated != null && generation < invalidated) return false;
+		put(value);
+		return true;
+	}
+	
+	/**
+	 * Gibt die aktuelle Generation zurück, welche bei jeder Invalidierung erhöht wird. Muss vor dem Laden abgefragt werden, siehe {@link #put(DBObject, long)}
+	 *
+	 * @return die Generation
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * Entfernt ein Objekt aus dem Cache
+	 *
+	 * @param primary die Primary ID des Objektes
+	 */
+	public synchronized void invalidate(final @Nullable P primary) {
+		if (primary == null) return;
+		entries.remove(primary);
+		invalidations.remove(primary);
+		invalidations.put(primary, ++generation);
+	}
+	
+	/**
+	 * Entfernt alle Objekte aus dem Cache
+	 */
+	public synchronized void invalidateAll() {
+		entries.clear();
+		invalidations.clear();
+		floor = ++generation;
+	}
+	
+	/**
+	 * @return die aktuelle Anzahl an Objekten im Cache
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	/**
+	 * @return die Anzahl der Abfragen, bei denen das Objekt im Cache war
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return die Anzahl der Abfragen, bei denen das Objekt nicht im Cache war
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * @return die Anzahl der Objekte, die wegen der Größe oder der Zeit aus dem Cache entfernt wurden
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * @return die maximale Anzahl an Objekten
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+	
+	/**
+	 * @return die Zeit in Millisekunden, nach der ein Objekt ungültig wird oder {@code 0} für unbegrenzt
+	 */
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+	
+	@Override
+	public synchronized @NotNull String toString() {
+		return "ObjectCache [size=" + entries.size() + ", maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ']';
+	}
+	
+	/**
+	 * Ein Eintrag im Cache mit seinem Ablaufzeitpunkt
+	 *
+	 * @param <T> Typ des Java Objektes
+	 */
+	private static class Entry<T> {
+		private final T value;
+		private final long expires;
+		
+		private Entry(final @NotNull T value, final long expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+	}
+}
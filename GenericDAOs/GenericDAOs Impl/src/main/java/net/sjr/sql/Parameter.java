@@ -3,7 +3,6 @@ package net.sjr.sql;
 
 import net.sjr.sql.exceptions.NoNullTypeException;
 import net.sjr.sql.exceptions.UnsupportedValueException;
-import net.sjr.sql.parametertype.ParameterType;
 import net.sjr.sql.parametertype.ParameterTypeRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -18,7 +17,7 @@ import java.util.Objects;
 @SuppressWarnings("WeakerAccess")
 public class Parameter {
 	final Object value;
-	private final Integer type;
+	final Integer type;
 	
 	static {
 		loadClass("net.sjr.sql.parametertype.BasicParameterType");
@@ -70,11 +69,27 @@ public class Parameter {
 	 * @throws SQLException wenn eine SQLException aufgetreten ist
 	 */
 	public int setParameter(final @NotNull PreparedStatement pst, final int position) throws SQLException {
+		return setParameter(pst, position, value, type);
+	}
+	
+	/**
+	 * Setzt einen Wert in das Statement ein, ohne einen {@link Parameter} zu erstellen
+	 *
+	 * @param pst      Statement in welches eingesetzt werden soll
+	 * @param position Position an die eingesetzt werden soll
+	 * @param value    der Wert
+	 * @param type     der Typ aus der {@link java.sql.Types} Klasse, welcher im {@code null} Fall gebraucht wird
+	 *
+	 * @return neue Position für den nächsten Parameter
+	 *
+	 * @throws SQLException wenn eine SQLException aufgetreten ist
+	 */
+	static int setParameter(final @NotNull PreparedStatement pst, final int position, final @Nullable Object value, final @Nullable Integer type) throws SQLException {
 		Object actualValue = value;
 		while (actualValue instanceof DBConvertable) {
-			if (actualValue instanceof DBEnum) actualValue = ((DBEnum) value).getDBIdentifier();
-			else if (actualValue instanceof DBObject) actualValue = ((DBObject) value).getPrimary();
-			else if (actualValue instanceof DBColumn) actualValue = ((DBColumn) value).toColumn();
+			if (actualValue instanceof DBEnum) actualValue = ((DBEnum) actualValue).getDBIdentifier();
+			else if (actualValue instanceof DBObject) actualValue = ((DBObject) actualValue).getPrimary();
+			else if (actualValue instanceof DBColumn) actualValue = ((DBColumn) actualValue).toColumn();
 			else throw new UnsupportedValueException(actualValue.getClass());
 		}
 		
@@ -89,10 +104,8 @@ public class Parameter {
 			}
 		}
 		else {
-			for (final ParameterType type : ParameterTypeRegistry.PARAMETER_TYPES) {
-				int newPos = type.set(pst, position, actualValue);
-				if (newPos > 0) return newPos;
-			}
+			int newPos = ParameterTypeRegistry.set(pst, position, actualValue);
+			if (newPos > 0) return newPos;
 		}
 		throw new UnsupportedValueException(actualValue.getClass());
 	}
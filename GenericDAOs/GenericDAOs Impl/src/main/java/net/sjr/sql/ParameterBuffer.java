@@ -0,0 +1,237 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.NoNullTypeException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Wiederverwendbarer Puffer für die Parameter eines {@link PreparedStatement}s. Im Gegensatz zur {@link ParameterList} werden keine {@link Parameter} Objekte erstellt
+ * und primitive Werte nicht geboxt. Mit {@link #reset()} kann der Puffer für die nächste Zeile wiederverwendet werden, ohne neuen Speicher anzufordern.<br>
+ * <b>Nicht Thread sicher!</b>
+ */
+@SuppressWarnings({"WeakerAccess", "unused", "UnusedReturnValue"})
+public final class ParameterBuffer {
+	private static final byte OBJECT = 0;
+	private static final byte INT = 1;
+	private static final byte LONG = 2;
+	private static final byte DOUBLE = 3;
+	private static final byte BOOLEAN = 4;
+	private static final int NO_TYPE = Integer.MIN_VALUE;
+	
+	private byte[] kinds;
+	private Object[] objects;
+	private long[] longs;
+	private double[] doubles;
+	private int[] nullTypes;
+	private int size = 0;
+	
+	/**
+	 * Erstellt einen neuen {@link ParameterBuffer} mit Platz für 16 Parameter
+	 */
+	public ParameterBuffer() {
+		this(16);
+	}
+	
+	/**
+	 * Erstellt einen neuen {@link ParameterBuffer}
+	 *
+	 * @param capacity die anfängliche Anzahl an Parametern, für die Platz reserviert wird
+	 */
+	public ParameterBuffer(final int capacity) {
+		int c = Math.max(capacity, 1);
+		kinds = new byte[c];
+		objects = new Object[c];
+		longs = new long[c];
+		doubles = new double[c];
+		nullTypes = new int[c];
+	}
+	
+	/**
+	 * Fügt einen int Wert an
+	 *
+	 * @param value der Wert
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer addInt(final int value) {
+		int i = next(INT);
+		longs[i] = value;
+		return this;
+	}
+	
+	/**
+	 * Fügt einen long Wert an
+	 *
+	 * @param value der Wert
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer addLong(final long value) {
+		int i = next(LONG);
+		longs[i] = value;
+		return this;
+	}
+	
+	/**
+	 * Fügt einen double Wert an
+	 *
+	 * @param value der Wert
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer addDouble(final double value) {
+		int i = next(DOUBLE);
+		doubles[i] = value;
+		return this;
+	}
+	
+	/**
+	 * Fügt einen boolean Wert an
+	 *
+	 * @param value der Wert
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer addBoolean(final boolean value) {
+		int i = next(BOOLEAN);
+		longs[i] = value ? 1 : 0;
+		return this;
+	}
+	
+	/**
+	 * Fügt einen Wert an, welcher nicht {@code null} sein darf. {@link Parameter} und {@link ParameterList} werden aufgelöst
+	 *
+	 * @param value der Wert
+	 * @return sich selbst
+	 * @throws NoNullTypeException wenn der Wert {@code null} ist
+	 */
+	public @NotNull ParameterBuffer add(final @Nullable Object value) {
+		if (value instanceof Parameter) {
+			Parameter p = (Parameter) value;
+			return add(p.value, p.type == null ? NO_TYPE : p.type);
+		}
+		if (value instanceof ParameterList) {
+			for (final Parameter p : (ParameterList) value) {
+				add(p);
+			}
+			return this;
+		}
+		if (value == null) throw new NoNullTypeException("Kann null nicht ohne Parametertyp hinzufügen");
+		return add(value, NO_TYPE);
+	}
+	
+	/**
+	 * Fügt einen Wert an, welcher {@code null} sein darf
+	 *
+	 * @param value   der Wert
+	 * @param sqlType der Typ aus der {@link java.sql.Types} Klasse, welcher im {@code null} Fall gebraucht wird
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer add(final @Nullable Object value, final int sqlType) {
+		int i = next(OBJECT);
+		objects[i] = value;
+		nullTypes[i] = sqlType;
+		return this;
+	}
+	
+	/**
+	 * Fügt einen {@code null} Wert an
+	 *
+	 * @param sqlType der Typ aus der {@link java.sql.Types} Klasse
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer addNull(final int sqlType) {
+		return add(null, sqlType);
+	}
+	
+	/**
+	 * @return die Anzahl der Parameter
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Leert den Puffer, damit er wiederverwendet werden kann. Der reservierte Speicher bleibt erhalten
+	 *
+	 * @return sich selbst
+	 */
+	public @NotNull ParameterBuffer reset() {
+		Arrays.fill(objects, 0, size, null);
+		size = 0;
+		return this;
+	}
+	
+	/**
+	 * Fügt alle Parameter in das {@link PreparedStatement} ab der gegebenen Position ein.
+	 *
+	 * @param pst      das {@link PreparedStatement}, in welches eingefügt werden soll
+	 * @param position die Position ab der eingefügt werden soll
+	 * @return die Position hinter dem zuletzt eingefügten Parameter
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public int setParameter(final @NotNull PreparedStatement pst, final int position) throws SQLException {
+		int pos = position;
+		for (int i = 0; i < size; i++) {
+			switch (kinds[i]) {
+				case INT:
+					pst.setInt(pos++, (int) longs[i]);
+					break;
+				case LONG:
+					pst.setLong(pos++, longs[i]);
+					break;
+				case DOUBLE:
+					pst.setDouble(pos++, doubles[i]);
+					break;
+				case BOOLEAN:
+					pst.setBoolean(pos++, longs[i] != 0);
+					break;
+				default:
+					pos = Parameter.setParameter(pst, pos, objects[i], nullTypes[i] == NO_TYPE ? null : nullTypes[i]);
+			}
+		}
+		return pos;
+	}
+	
+	/**
+	 * Reserviert den nächsten Platz
+	 *
+	 * @param kind die Art des Wertes
+	 * @return der Index des Platzes
+	 */
+	private int next(final byte kind) {
+		if (size == kinds.length) {
+			int c = size * 2;
+			kinds = Arrays.copyOf(kinds, c);
+			objects = Arrays.copyOf(objects, c);
+			longs = Arrays.copyOf(longs, c);
+			doubles = Arrays.copyOf(doubles, c);
+			nullTypes = Arrays.copyOf(nullTypes, c);
+		}
+		kinds[size] = kind;
+		return size++;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		StringBuilder result = new StringBuilder("ParameterBuffer [");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) result.append(", ");
+			switch (kinds[i]) {
+				case INT:
+				case LONG:
+					result.append(longs[i]);
+					break;
+				case DOUBLE:
+					result.append(doubles[i]);
+					break;
+				case BOOLEAN:
+					result.append(longs[i] != 0);
+					break;
+				default:
+					result.append(objects[i]);
+			}
+		}
+		return result.append(']').toString();
+	}
+}
@@ -0,0 +1,175 @@
+package net.sjr.sql;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Unveränderliche, einmal aufgelöste Konfiguration eines {@link SharedConnectionPool}s. Wird beim Erstellen des Pools aus {@link DAOBase#getPoolConfig()},
+ * {@link DAOBase#getValidationIntervalMillis()} und {@link DAOBase#getValidationTimeout()} gebildet und kann zur Laufzeit über
+ * {@link SharedConnectionPool#reconfigure(PoolPolicy)} ersetzt werden
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PoolPolicy {
+	private final GenericObjectPoolConfig config;
+	private final long validationIntervalMillis;
+	private final int validationTimeout;
+	
+	/**
+	 * Erstellt eine neue {@link PoolPolicy}
+	 *
+	 * @param config                   die Konfiguration des Pools oder {@code null} für die Standardwerte von {@link GenericObjectPoolConfig}
+	 * @param validationIntervalMillis die Zeit in Millisekunden, in der eine Verbindung nach der letzten Benutzung ohne Anfrage an die Datenbank als gültig gilt
+	 * @param validationTimeout        der Timeout in Sekunden für {@link java.sql.Connection#isValid(int)}
+	 */
+	public PoolPolicy(final @Nullable GenericObjectPoolConfig config, final long validationIntervalMillis, final int validationTimeout) {
+		this.config = config == null ? new GenericObjectPoolConfig() : config.clone();
+		this.validationIntervalMillis = validationIntervalMillis;
+		this.validationTimeout = validationTimeout;
+	}
+	
+	/**
+	 * Löst die {@link PoolPolicy} einer DAO auf
+	 *
+	 * @param dao die {@link DAOBase}
+	 * @return die {@link PoolPolicy}
+	 */
+	static @NotNull PoolPolicy forDAO(final @NotNull DAOBase<?, ?> dao) {
+		return new PoolPolicy(dao.getPoolConfig(), dao.getValidationIntervalMillis(), dao.getValidationTimeout());
+	}
+	
+	/**
+	 * @return eine Kopie der Konfiguration für den {@link org.apache.commons.pool2.impl.GenericObjectPool}
+	 */
+	public @NotNull GenericObjectPoolConfig toConfig() {
+		return config.clone();
+	}
+	
+	/**
+	 * @return die maximale Anzahl an Verbindungen oder eine negative Zahl, wenn es kein Limit gibt
+	 */
+	public int getMaxTotal() {
+		return config.getMaxTotal();
+	}
+	
+	/**
+	 * @return die maximale Anzahl an freien Verbindungen oder eine negative Zahl, wenn es kein Limit gibt
+	 */
+	public int getMaxIdle() {
+		return config.getMaxIdle();
+	}
+	
+	/**
+	 * @return die minimale Anzahl an freien Verbindungen
+	 */
+	public int getMinIdle() {
+		return config.getMinIdle();
+	}
+	
+	/**
+	 * @return die maximale Wartezeit beim Ausleihen in Millisekunden oder eine negative Zahl, wenn unbegrenzt gewartet wird
+	 */
+	public long getMaxWaitMillis() {
+		return config.getMaxWaitMillis();
+	}
+	
+	/**
+	 * @return die Zeit in Millisekunden, in der eine Verbindung nach der letzten Benutzung ohne Anfrage an die Datenbank als gültig gilt
+	 */
+	public long getValidationIntervalMillis() {
+		return validationIntervalMillis;
+	}
+	
+	/**
+	 * @return der Timeout in Sekunden für {@link java.sql.Connection#isValid(int)}
+	 */
+	public int getValidationTimeout() {
+		return validationTimeout;
+	}
+	
+	/**
+	 * Erstellt eine Kopie mit einer anderen maximalen Anzahl an Verbindungen
+	 *
+	 * @param maxTotal die maximale Anzahl an Verbindungen oder eine negative Zahl für kein Limit
+	 * @return die neue {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy withMaxTotal(final int maxTotal) {
+		GenericObjectPoolConfig result = toConfig();
+		result.setMaxTotal(maxTotal);
+		return new PoolPolicy(result, validationIntervalMillis, validationTimeout);
+	}
+	
+	/**
+	 * Erstellt eine Kopie mit einer anderen maximalen Anzahl an freien Verbindungen
+	 *
+	 * @param maxIdle die maximale Anzahl an freien Verbindungen oder eine negative Zahl für kein Limit
+	 * @return die neue {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy withMaxIdle(final int maxIdle) {
+		GenericObjectPoolConfig result = toConfig();
+		result.setMaxIdle(maxIdle);
+		return new PoolPolicy(result, validationIntervalMillis, validationTimeout);
+	}
+	
+	/**
+	 * Erstellt eine Kopie mit einer anderen minimalen Anzahl an freien Verbindungen
+	 *
+	 * @param minIdle die minimale Anzahl an freien Verbindungen
+	 * @return die neue {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy withMinIdle(final int minIdle) {
+		GenericObjectPoolConfig result = toConfig();
+		result.setMinIdle(minIdle);
+		return new PoolPolicy(result, validationIntervalMillis, validationTimeout);
+	}
+	
+	/**
+	 * Erstellt eine Kopie mit einer anderen maximalen Wartezeit beim Ausleihen
+	 *
+	 * @param maxWaitMillis die maximale Wartezeit in Millisekunden oder eine negative Zahl für unbegrenzt
+	 * @return die neue {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy withMaxWaitMillis(final long maxWaitMillis) {
+		GenericObjectPoolConfig result = toConfig();
+		result.setMaxWaitMillis(maxWaitMillis);
+		return new PoolPolicy(result, validationIntervalMillis, validationTimeout);
+	}
+	
+	/**
+	 * Vergleicht die Werte der Konfiguration, die das Verhalten des Pools bestimmen
+	 */
+	@Override
+	public boolean equals(final @Nullable Object o) {
+		if (this == o) return true;
+		if (!(o instanceof PoolPolicy)) return false;
+		PoolPolicy that = (PoolPolicy) o;
+		return validationIntervalMillis == that.validationIntervalMillis && validationTimeout == that.validationTimeout
+				&& config.getMaxTotal() == that.config.getMaxTotal() && config.getMaxIdle() == that.config.getMaxIdle() && config.getMinIdle() == that.config.getMinIdle()
+				&& config.getMaxWaitMillis() == that.config.getMaxWaitMillis() && config.getBlockWhenExhausted() == that.config.getBlockWhenExhausted()
+				&& config.getLifo() == that.config.getLifo() && config.getFairness() == that.config.getFairness()
+				&& config.getTestOnCreate() == that.config.getTestOnCreate() && config.getTestOnBorrow() == that.config.getTestOnBorrow()
+				&& config.getTestOnReturn() == that.config.getTestOnReturn() && config.getTestWhileIdle() == that.config.getTestWhileIdle()
+				&& config.getTimeBetweenEvictionRunsMillis() == that.config.getTimeBetweenEvictionRunsMillis()
+				&& config.getMinEvictableIdleTimeMillis() == that.config.getMinEvictableIdleTimeMillis()
+				&& config.getSoftMinEvictableIdleTimeMillis() == that.config.getSoftMinEvictableIdleTimeMillis()
+				&& config.getNumTestsPerEvictionRun() == that.config.getNumTestsPerEvictionRun();
+	}
+	
+	@Override
+	public int hashCode() {
+		int result = config.getMaxTotal();
+		result = 31 * result + config.getMaxIdle();
+		result = 31 * result + config.getMinIdle();
+		result = 31 * result + (int) (config.getMaxWaitMillis() ^ (config.getMaxWaitMillis() >>> 32));
+		result = 31 * result + (config.getTestWhileIdle() ? 1 : 0);
+		result = 31 * result + (int) (validationIntervalMillis ^ (validationIntervalMillis >>> 32));
+		result = 31 * result + validationTimeout;
+		return result;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return "PoolPolicy{maxTotal=" + getMaxTotal() + ", maxIdle=" + getMaxIdle() + ", minIdle=" + getMinIdle() + ", maxWaitMillis=" + getMaxWaitMillis()
+				+ ", validationIntervalMillis=" + validationIntervalMillis + ", validationTimeout=" + validationTimeout + '}';
+	}
+}
@@ -0,0 +1,198 @@
+package net.sjr.sql;
+
+import net.sjr.sql.metrics.DAOMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eine Datenbankverbindung im {@link SharedConnectionPool} inkl. der gecachten {@link PreparedStatement}s aller DAOs, welche sie benutzt haben.<br>
+ * Wird immer nur von einem Thread gleichzeitig benutzt, da sie dazu aus dem Pool ausgeliehen werden muss
+ */
+@SuppressWarnings("WeakerAccess")
+public class PooledConnection implements AutoCloseable {
+	private final Connection connection;
+	private final PooledConnectionFactory factory;
+	private final boolean fromDataSource;
+	private final WeakReference<DAOBase<?, ?>> creator;
+	private final StatementCache statements = new StatementCache();
+	private final AtomicInteger leases = new AtomicInteger();
+	private volatile TransactionScope.Pin pin;
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	
+	/**
+	 * Erstellt eine neue {@link PooledConnection}
+	 *
+	 * @param connection     die Datenbankverbindung
+	 * @param factory        die {@link PooledConnectionFactory}, welche die Verbindung erstellt hat und wieder schließt
+	 * @param fromDataSource {@code true}, wenn die Verbindung aus der {@link javax.sql.DataSource} kommt und beim Schließen mit geschlossen werden soll
+	 * @param creator        die DAO, über welche die Verbindung geöffnet wurde und wieder geschlossen wird, oder {@code null}
+	 */
+	PooledConnection(final @NotNull Connection connection, final @NotNull PooledConnectionFactory factory, final boolean fromDataSource, final @Nullable DAOBase<?, ?> creator) {
+		this.connection = connection;
+		this.factory = factory;
+		this.fromDataSource = fromDataSource;
+		this.creator = creator == null ? null : new WeakReference<DAOBase<?, ?>>(creator);
+	}
+	
+	/**
+	 * @return die Datenbankverbindung
+	 */
+	public @NotNull Connection getConnection() {
+		return connection;
+	}
+	
+	/**
+	 * Holt ein offenes {@link PreparedStatement} aus dem Cache
+	 *
+	 * @param key der Key des Statements
+	 * @return das {@link PreparedStatement} oder {@code null}, wenn es nicht im Cache liegt oder geschlossen wurde
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	@Nullable PreparedStatement getStatement(final @NotNull StatementKey key) throws SQLException {
+		return statements.get(key);
+	}
+	
+	/**
+	 * Legt ein {@link PreparedStatement} in den Cache
+	 *
+	 * @param key     der Key des Statements
+	 * @param pst     das {@link PreparedStatement}
+	 * @param maxSize die maximale Anzahl an gecachten {@link PreparedStatement}s der DAO
+	 * @param metrics die {@link DAOMetrics} der DAO
+	 */
+	void putStatement(final @NotNull StatementKey key, final @NotNull PreparedStatement pst, final int maxSize, final @NotNull DAOMetrics metrics) {
+		statements.put(key, pst, maxSize, metrics);
+	}
+	
+	/**
+	 * Prüft, ob das {@link PreparedStatement} im Cache liegt und somit nicht geschlossen werden darf
+	 *
+	 * @param pst das {@link PreparedStatement}
+	 * @return {@code true}, wenn es gecached ist
+	 */
+	public boolean isCached(final @NotNull PreparedStatement pst) {
+		return statements.contains(pst);
+	}
+	
+	/**
+	 * @return die Anzahl der gecachten {@link PreparedStatement}s
+	 */
+	public int getStatementCount() {
+		return statements.size();
+	}
+	
+	/**
+	 * @return der {@link StatementCache} dieser Verbindung inkl. Treffer, Fehlschlägen und verdrängten {@link PreparedStatement}s
+	 */
+	public @NotNull StatementCache getStatementCache() {
+		return statements;
+	}
+	
+	/**
+	 * Setzt alle gecachten {@link PreparedStatement}s zurück, damit sie bei der nächsten Benutzung keine alten Parameter oder Batches mehr enthalten.
+	 * {@link PreparedStatement}s, die sich nicht zurücksetzen lassen, werden geschlossen und aus dem Cache entfernt
+	 */
+	public void resetStatements() {
+		statements.reset();
+	}
+	
+	/**
+	 * Bindet die Verbindung an einen {@link TransactionScope}. Der {@link TransactionScope} hält selbst eine Ausleihe, die Verbindung wird erst in den Pool zurück gegeben,
+	 * wenn er geschlossen und auch die letzte andere Ausleihe beendet wurde
+	 *
+	 * @param pin die Bindung an den {@link TransactionScope}
+	 */
+	void pin(final @NotNull TransactionScope.Pin pin) {
+		leases.set(1);
+		this.pin = pin;
+	}
+	
+	/**
+	 * @return {@code true}, wenn die Verbindung an einen {@link TransactionScope} gebunden ist
+	 */
+	public boolean isPinned() {
+		return pin != null;
+	}
+	
+	/**
+	 * Zählt eine weitere Ausleihe der an einen {@link TransactionScope} gebundenen Verbindung
+	 */
+	void lease() {
+		leases.incrementAndGet();
+	}
+	
+	/**
+	 * Beendet eine Ausleihe der an einen {@link TransactionScope} gebundenen Verbindung. Endet damit die letzte Ausleihe, wird die Verbindung vom {@link TransactionScope}
+	 * gelöst und in ihren Pool zurück gegeben
+	 */
+	void releaseLease() {
+		if (leases.decrementAndGet() > 0) return;
+		TransactionScope.Pin current = pin;
+		pin = null;
+		if (current != null) current.release();
+	}
+	
+	/**
+	 * @return die Anzahl der Ausleihen der an einen {@link TransactionScope} gebundenen Verbindung inkl. der des {@link TransactionScope}s selbst
+	 */
+	public int getLeaseCount() {
+		return leases.get();
+	}
+	
+	/**
+	 * Prüft, ob die an einen {@link TransactionScope} gebundene Verbindung gerade mehrfach von DAOs ausgeliehen ist, z.B. beim Laden von Fremdschlüsseln während ein {@link java.sql.ResultSet} offen ist.
+	 * Die weiteren Ausleihen dürfen dann keine gecachten {@link PreparedStatement}s benutzen, da diese noch offene {@link java.sql.ResultSet}s haben könnten
+	 *
+	 * @return {@code true}, wenn die Verbindung neben dem {@link TransactionScope} mehr als einmal ausgeliehen ist
+	 */
+	public boolean isShared() {
+		TransactionScope.Pin current = pin;
+		return current != null && leases.get() > (current.isHeld() ? 2 : 1);
+	}
+	
+	/**
+	 * Prüft, ob die Datenbankverbindung noch benutzt werden kann
+	 *
+	 * @param timeout der Timeout in Sekunden für {@link Connection#isValid(int)}
+	 * @return {@code true}, wenn die Verbindung gültig ist
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public boolean isValid(final int timeout) throws SQLException {
+		return !connection.isClosed() && connection.isValid(timeout);
+	}
+	
+	/**
+	 * Prüft, ob die Datenbankverbindung geschlossen ist
+	 *
+	 * @return {@code true}, wenn die Verbindung geschlossen ist
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public boolean isClosed() throws SQLException {
+		return connection.isClosed();
+	}
+	
+	/**
+	 * Schließt alle gecachten {@link PreparedStatement}s und die Datenbankverbindung, wenn sie aus der {@link javax.sql.DataSource} kommt
+	 */
+	@Override
+	public void close() {
+		log.debug("Closing PooledConnection...");
+		statements.clear();
+		if (fromDataSource) {
+			try {
+				factory.closeConnection(connection, creator == null ? null : creator.get());
+			}
+			catch (final SQLException e) {
+				log.error("Fehler beim Schließen der Datenbankverbindung", e);
+			}
+		}
+	}
+}
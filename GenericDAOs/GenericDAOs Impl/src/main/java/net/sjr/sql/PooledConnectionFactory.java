@@ -0,0 +1,174 @@
+package net.sjr.sql;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Erstellt, prüft und schließt die {@link PooledConnection}s eines {@link SharedConnectionPool}s an Hand der {@link DataSource} bzw. Datenbankverbindung
+ * und der aktuellen {@link PoolPolicy} des Pools.<br>
+ * Überschreibt eine DAO {@link DAOBase#getConnectionFromDataSource()} oder {@link DAOBase#closeConnectionFromDataSource(Connection)}, werden diese über die DAO aufgerufen,
+ * welche die Verbindung ausgeliehen und dabei erstellt hat. Die {@link PooledConnection} referenziert sie nur schwach. Wurde sie bereits vom Garbage Collector entfernt
+ * oder wird die Verbindung ohne Ausleihe erstellt, wird eine andere noch angemeldete DAO des Pools benutzt. Gibt es keine mehr, wird direkt die {@link DataSource} benutzt
+ */
+class PooledConnectionFactory extends BasePooledObjectFactory<PooledConnection> {
+	private static final ClassValue<Class<?>> HOOK_OWNER = new ClassValue<Class<?>>() {
+		@Override
+		protected Class<?> computeValue(final Class<?> type) {
+			for (Class<?> c = type; c != null && c != DAOBase.class; c = c.getSuperclass()) {
+				for (final Method m : c.getDeclaredMethods()) {
+					if (m.getName().equals("getConnectionFromDataSource") && m.getParameterTypes().length == 0) return c;
+					if (m.getName().equals("closeConnectionFromDataSource") && m.getParameterTypes().length == 1 && m.getParameterTypes()[0] == Connection.class) return c;
+				}
+			}
+			return DAOBase.class;
+		}
+	};
+	private final DataSource dataSource;
+	private final Connection staticConnection;
+	private final boolean customHooks;
+	private final ThreadLocal<DAOBase<?, ?>> borrower = new ThreadLocal<>();
+	private volatile SharedConnectionPool pool;
+	private volatile PoolPolicy policy;
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	
+	/**
+	 * Erstellt eine neue {@link PooledConnectionFactory}
+	 *
+	 * @param dataSource       die {@link DataSource} oder {@code null}
+	 * @param staticConnection die Datenbankverbindung oder {@code null}
+	 * @param hookOwner        die Klasse, welche die Methoden zum Öffnen und Schließen der Verbindungen deklariert, siehe {@link #getHookOwner(DAOBase)}
+	 */
+	PooledConnectionFactory(final @Nullable DataSource dataSource, final @Nullable Connection staticConnection, final @NotNull Class<?> hookOwner) {
+		this.dataSource = dataSource;
+		this.staticConnection = staticConnection;
+		this.customHooks = hookOwner != DAOBase.class;
+	}
+	
+	/**
+	 * Gibt die Klasse zurück, welche {@link DAOBase#getConnectionFromDataSource()} bzw. {@link DAOBase#closeConnectionFromDataSource(Connection)} für die DAO implementiert.
+	 * Bei einer statischen Datenbankverbindung werden diese nicht benutzt
+	 *
+	 * @param dao die {@link DAOBase}
+	 * @return die Klasse oder {@link DAOBase}, wenn die Methoden nicht überschrieben wurden
+	 */
+	static @NotNull Class<?> getHookOwner(final @NotNull DAOBase<?, ?> dao) {
+		if (dao.staticConnection != null) return DAOBase.class;
+		return HOOK_OWNER.get(dao.getClass());
+	}
+	
+	/**
+	 * Setzt den {@link SharedConnectionPool}, dessen angemeldete DAOs benutzt werden, wenn die DAO einer Verbindung nicht mehr existiert
+	 *
+	 * @param pool der {@link SharedConnectionPool}
+	 */
+	void setPool(final @NotNull SharedConnectionPool pool) {
+		this.pool = pool;
+	}
+	
+	/**
+	 * Setzt die DAO, welche auf dem aktuellen Thread gerade eine Verbindung ausleiht. Eine dabei erstellte Verbindung wird über diese DAO geöffnet und geschlossen
+	 *
+	 * @param dao die ausleihende {@link DAOBase} oder {@code null} nach dem Ausleihen
+	 */
+	void setBorrower(final @Nullable DAOBase<?, ?> dao) {
+		if (dao == null) borrower.remove();
+		else borrower.set(dao);
+	}
+	
+	/**
+	 * Setzt die {@link PoolPolicy} nach einer Neukonfiguration des Pools
+	 *
+	 * @param policy die neue {@link PoolPolicy}
+	 */
+	void setPolicy(final @NotNull PoolPolicy policy) {
+		this.policy = policy;
+	}
+	
+	/**
+	 * Gibt die DAO zurück, über welche die Verbindung geöffnet bzw. geschlossen wird
+	 *
+	 * @param preferred die DAO, welche die Verbindung ausleiht bzw. erstellt hat, oder {@code null}
+	 * @return die DAO oder {@code null}, wenn die {@link DataSource} direkt benutzt werden soll
+	 */
+	private @Nullable DAOBase<?, ?> getHooks(final @Nullable DAOBase<?, ?> preferred) {
+		if (!customHooks) return null;
+		if (preferred != null) return preferred;
+		SharedConnectionPool current = pool;
+		return current == null ? null : current.findLiveDAO();
+	}
+	
+	@Override
+	public PooledConnection create() throws SQLException {
+		if (staticConnection != null) return new PooledConnection(staticConnection, this, false, null);
+		if (dataSource == null) throw new IllegalStateException("Die DAO hat keine Connection und keine DataSource!");
+		DAOBase<?, ?> dao = getHooks(borrower.get());
+		return new PooledConnection(dao == null ? dataSource.getConnection() : dao.getConnectionFromDataSource(), this, true, dao);
+	}
+	
+	/**
+	 * Schließt eine aus der {@link DataSource} erstellte Datenbankverbindung
+	 *
+	 * @param connection die Datenbankverbindung
+	 * @param creator    die DAO, welche die Verbindung erstellt hat, oder {@code null}, wenn sie nicht mehr existiert
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	void closeConnection(final @NotNull Connection connection, final @Nullable DAOBase<?, ?> creator) throws SQLException {
+		DAOBase<?, ?> dao = getHooks(creator);
+		if (dao == null) SQLUtils.closeSqlAutocloseable(log, connection);
+		else dao.closeConnectionFromDataSource(connection);
+	}
+	
+	@Override
+	public PooledObject<PooledConnection> wrap(PooledConnection obj) {
+		return new DefaultPooledObject<>(obj);
+	}
+	
+	@Override
+	public void destroyObject(PooledObject<PooledConnection> p) {
+		SQLUtils.closeSqlAutocloseable(log, p.getObject());
+	}
+	
+	/**
+	 * Setzt die gecachten {@link java.sql.PreparedStatement}s zurück, bevor die {@link PooledConnection} zurück in den Pool gelegt wird
+	 *
+	 * @param p die zurückgegebene {@link PooledConnection}
+	 */
+	@Override
+	public void passivateObject(PooledObject<PooledConnection> p) {
+		PooledConnection pooled = p.getObject();
+		if (pooled != null) pooled.resetStatements();
+	}
+	
+	/**
+	 * Prüft eine {@link PooledConnection}. Wurde sie vor kurzem noch benutzt, reicht die isClosed Abfrage, sonst wird die Verbindung mit {@link Connection#isValid(int)} geprüft
+	 *
+	 * @param p die zu prüfende {@link PooledConnection}
+	 * @return {@code true}, wenn die {@link PooledConnection} weiter benutzt werden kann
+	 */
+	@Override
+	public boolean validateObject(PooledObject<PooledConnection> p) {
+		PooledConnection pooled = p.getObject();
+		if (pooled == null) return false;
+		PoolPolicy current = policy;
+		try {
+			if (System.currentTimeMillis() - p.getLastUsedTime() < current.getValidationIntervalMillis()) {
+				return !pooled.isClosed();
+			}
+			return pooled.isValid(current.getValidationTimeout());
+		}
+		catch (SQLException e) {
+			log.error("Fehler bei der Prüfung der Datenbankverbindung", e);
+		}
+		return false;
+	}
+}
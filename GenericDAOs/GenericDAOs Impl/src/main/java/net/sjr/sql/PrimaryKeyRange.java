@@ -0,0 +1,104 @@
+package net.sjr.sql;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geschlossener Bereich von Primary Keys {@code [from, to]}. Wird genutzt, um große Tabellen in Partitionen aufzuteilen, die unabhängig voneinander gelesen werden können
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PrimaryKeyRange {
+	private final long from;
+	private final long to;
+	
+	/**
+	 * Erstellt einen neuen {@link PrimaryKeyRange}
+	 *
+	 * @param from der kleinste Primary Key
+	 * @param to   der größte Primary Key
+	 */
+	public PrimaryKeyRange(final long from, final long to) {
+		if (from > to) throw new IllegalArgumentException("from " + from + " ist größer als to " + to);
+		this.from = from;
+		this.to = to;
+	}
+	
+	/**
+	 * @return der kleinste Primary Key
+	 */
+	public long getFrom() {
+		return from;
+	}
+	
+	/**
+	 * @return der größte Primary Key
+	 */
+	public long getTo() {
+		return to;
+	}
+	
+	/**
+	 * Teilt den Bereich in gleich breite, lückenlose Partitionen auf. Sind die Primary Keys ungleich verteilt, sind es auch die Zeilen pro Partition
+	 *
+	 * @param partitions die gewünschte Anzahl an Partitionen
+	 * @return die Partitionen in aufsteigender Reihenfolge. Höchstens so viele, wie der Bereich Primary Keys enthält
+	 */
+	public @NotNull List<PrimaryKeyRange> split(final int partitions) {
+		if (partitions < 1) throw new IllegalArgumentException("Es muss mindestens eine Partition geben");
+		double width = ((double) to - from + 1) / partitions;
+		List<PrimaryKeyRange> result = new ArrayList<>(partitions);
+		long start = from;
+		for (int i = 1; i <= partitions && start <= to; i++) {
+			long end = i == partitions ? to : Math.min(to, from + (long) Math.ceil(width * i) - 1);
+			if (end < start) continue;
+			result.add(new PrimaryKeyRange(start, end));
+			start = end + 1;
+		}
+		return result;
+	}
+	
+	/**
+	 * Erweitert eine WHERE Klausel um die Bedingung für diesen Bereich
+	 *
+	 * @param primaryCol die Spalte mit dem Primary Key
+	 * @param where      Die WHERE Klausel oder {@code null}
+	 * @return die erweiterte WHERE Klausel
+	 */
+	public @NotNull String where(final @NotNull String primaryCol, final @Nullable String where) {
+		String range = primaryCol + " >= ? AND " + primaryCol + " <= ?";
+		return StringUtils.isBlank(where) ? range : '(' + where + ") AND " + range;
+	}
+	
+	/**
+	 * Erweitert die Parameter um die Grenzen für {@link #where(String, String)}
+	 *
+	 * @param params Die {@link Parameter} oder {@code null}
+	 * @return eine neue {@link ParameterList}
+	 */
+	public @NotNull ParameterList params(final @Nullable ParameterList params) {
+		ParameterList result = params == null ? new ParameterList() : new ParameterList(params);
+		return result.addParameter(from, to);
+	}
+	
+	@Override
+	public boolean equals(final @Nullable Object o) {
+		if (this == o) return true;
+		if (!(o instanceof PrimaryKeyRange)) return false;
+		PrimaryKeyRange that = (PrimaryKeyRange) o;
+		return from == that.from && to == that.to;
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * (int) (from ^ (from >>> 32)) + (int) (to ^ (to >>> 32));
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return "[" + from + ", " + to + ']';
+	}
+}
@@ -0,0 +1,19 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Datenbankspezifische Teile der SQL Abfragen, die nicht im SQL Standard festgelegt sind oder von den DBMS unterschiedlich umgesetzt werden.
+ * Die mitgelieferten Umsetzungen stehen in {@link StandardSQLDialect}, die Auswahl erfolgt über {@link DatabaseType#getDialect()} bzw. {@link DAOBase#getSQLDialect(DatabaseType)}
+ */
+public interface SQLDialect {
+	/**
+	 * Begrenzt eine SELECT Abfrage auf einen Ausschnitt der Ergebnisse
+	 *
+	 * @param query  die vollständige SELECT Abfrage inkl. ORDER BY
+	 * @param offset die Anzahl der Zeilen, die übersprungen werden
+	 * @param limit  die maximale Anzahl der Ergebnisse
+	 * @return die begrenzte Abfrage
+	 */
+	@NotNull String paginate(@NotNull String query, long offset, long limit);
+}
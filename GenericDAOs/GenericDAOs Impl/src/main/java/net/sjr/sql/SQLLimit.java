@@ -0,0 +1,80 @@
+package net.sjr.sql;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ausgewertetes Limit einer Abfrage. Versteht die Schreibweisen {@code "n"}, {@code "m, n"} und {@code "n OFFSET m"}, wobei n die maximale Anzahl der Ergebnisse
+ * und m die Anzahl der übersprungenen Zeilen ist
+ */
+@SuppressWarnings("WeakerAccess")
+public final class SQLLimit {
+	private static final Pattern COUNT = Pattern.compile("^\\s*(\\d+)\\s*$");
+	private static final Pattern OFFSET_COMMA_COUNT = Pattern.compile("^\\s*(\\d+)\\s*,\\s*(\\d+)\\s*$");
+	private static final Pattern COUNT_OFFSET = Pattern.compile("^\\s*(\\d+)\\s+OFFSET\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE);
+	private final long offset;
+	private final long limit;
+	
+	/**
+	 * Erstellt ein neues {@link SQLLimit}
+	 *
+	 * @param offset die Anzahl der übersprungenen Zeilen
+	 * @param limit  die maximale Anzahl der Ergebnisse
+	 */
+	public SQLLimit(final long offset, final long limit) {
+		if (offset < 0 || limit < 0) throw new IllegalArgumentException("Offset und Limit dürfen nicht negativ sein");
+		this.offset = offset;
+		this.limit = limit;
+	}
+	
+	/**
+	 * Wertet ein Limit aus
+	 *
+	 * @param limit das Limit als String oder {@code null}
+	 * @return das {@link SQLLimit} oder {@code null}, wenn kein Limit angegeben wurde oder die Schreibweise unbekannt ist
+	 */
+	public static @Nullable SQLLimit parse(final @Nullable String limit) {
+		if (StringUtils.isBlank(limit)) return null;
+		Matcher matcher = COUNT.matcher(limit);
+		if (matcher.matches()) return new SQLLimit(0, Long.parseLong(matcher.group(1)));
+		matcher = OFFSET_COMMA_COUNT.matcher(limit);
+		if (matcher.matches()) return new SQLLimit(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+		matcher = COUNT_OFFSET.matcher(limit);
+		if (matcher.matches()) return new SQLLimit(Long.parseLong(matcher.group(2)), Long.parseLong(matcher.group(1)));
+		return null;
+	}
+	
+	/**
+	 * @return die Anzahl der übersprungenen Zeilen
+	 */
+	public long getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * @return die maximale Anzahl der Ergebnisse
+	 */
+	public long getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * Begrenzt die Abfrage mit dem {@link SQLDialect}
+	 *
+	 * @param dialect der {@link SQLDialect}
+	 * @param query   die vollständige SELECT Abfrage inkl. ORDER BY
+	 * @return die begrenzte Abfrage
+	 */
+	public @NotNull String apply(final @NotNull SQLDialect dialect, final @NotNull String query) {
+		return dialect.paginate(query, offset, limit);
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return limit + " OFFSET " + offset;
+	}
+}
@@ -0,0 +1,128 @@
+package net.sjr.sql;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Unveränderliche, vorkompilierte SQL Bausteine einer DAO. Werden einmal pro DAO erstellt, sodass beim Laden und Speichern nur noch Parameter gesetzt werden müssen
+ */
+@SuppressWarnings({"WeakerAccess", "SqlDialectInspection", "SqlNoDataSourceInspection"})
+public final class SQLTemplates {
+	private final String table;
+	private final String select;
+	private final String selectFrom;
+	private final String insert;
+	private final String update;
+	private final String delete;
+	private final int hash;
+	
+	/**
+	 * Erstellt die {@link SQLTemplates}
+	 *
+	 * @param table  der Name der Tabelle
+	 * @param select die Felder für die SELECT Klausel
+	 * @param insert das INSERT Statement oder {@code null}, wenn es keins gibt
+	 * @param update das UPDATE Statement oder {@code null}, wenn es keins gibt
+	 * @param delete das DELETE Statement oder {@code null}, wenn es keins gibt
+	 */
+	public SQLTemplates(final @NotNull String table, final @NotNull String select, final @Nullable String insert, final @Nullable String update, final @Nullable String delete) {
+		this.table = table;
+		this.select = select;
+		this.selectFrom = "SELECT " + select + " FROM " + table;
+		this.insert = insert;
+		this.update = update;
+		this.delete = delete;
+		this.hash = 31 * (31 * (31 * (31 * table.hashCode() + select.hashCode()) + (insert == null ? 0 : insert.hashCode())) + (update == null ? 0 : update.hashCode())) + (delete == null ? 0 : delete.hashCode());
+	}
+	
+	/**
+	 * Erstellt die {@link SQLTemplates} für eine {@link DAO}
+	 *
+	 * @param dao die {@link DAO}
+	 * @return die {@link SQLTemplates}
+	 */
+	static @NotNull SQLTemplates forDAO(final @NotNull DAO<?, ?> dao) {
+		String table = dao.getTable();
+		String felder = (dao.getDtype() == null ? "" : "DType, ") + dao.getFelder();
+		return new SQLTemplates(table,
+				SQLUtils.fullQualifyTableName(dao.getPrimaryCol() + ", " + dao.getFelder(), table),
+				"INSERT INTO " + table + " (" + felder + ") VALUES (" + SQLUtils.getFragezeichenInsert(felder) + ')',
+				"UPDATE " + table + " SET " + SQLUtils.getFragezeichenUpdate(felder) + " WHERE " + dao.getPrimaryCol() + "=?",
+				"DELETE FROM " + table + " WHERE " + dao.getPrimaryCol() + "=?" + (dao.getDtype() != null ? " AND DType=?" : ""));
+	}
+	
+	/**
+	 * Erstellt die {@link SQLTemplates} für eine {@link KreuzDAOBase}
+	 *
+	 * @param dao die {@link KreuzDAOBase}
+	 * @return die {@link SQLTemplates}
+	 */
+	static @NotNull SQLTemplates forKreuzDAO(final @NotNull KreuzDAOBase<?, ?, ?, ?, ?> dao) {
+		String table = dao.getTable();
+		String cols = dao.getAllKreuzCols();
+		return new SQLTemplates(table, cols,
+				"INSERT INTO " + table + " (" + cols + ") VALUES (" + SQLUtils.getFragezeichenInsert(cols) + ')',
+				null,
+				"DELETE FROM " + table + " WHERE " + SQLUtils.getFragezeichenSelect(cols, " AND ", "="));
+	}
+	
+	/**
+	 * @return der Name der Tabelle
+	 */
+	public @NotNull String getTable() {
+		return table;
+	}
+	
+	/**
+	 * @return die Felder für die SELECT Klausel
+	 */
+	public @NotNull String getSelect() {
+		return select;
+	}
+	
+	/**
+	 * @return {@code SELECT <Felder> FROM <Tabelle>}
+	 */
+	public @NotNull String getSelectFrom() {
+		return selectFrom;
+	}
+	
+	/**
+	 * @return das INSERT Statement oder {@code null}, wenn es keins gibt
+	 */
+	public @Nullable String getInsert() {
+		return insert;
+	}
+	
+	/**
+	 * @return das UPDATE Statement oder {@code null}, wenn es keins gibt
+	 */
+	public @Nullable String getUpdate() {
+		return update;
+	}
+	
+	/**
+	 * @return das DELETE Statement oder {@code null}, wenn es keins gibt
+	 */
+	public @Nullable String getDelete() {
+		return delete;
+	}
+	
+	/**
+	 * Vergleicht die SQL Bausteine. Gleiche {@link SQLTemplates} verschiedener Instanzen einer DAO teilen sich so die gecachten {@link java.sql.PreparedStatement}s
+	 */
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) return true;
+		if (!(o instanceof SQLTemplates)) return false;
+		SQLTemplates that = (SQLTemplates) o;
+		return hash == that.hash && table.equals(that.table) && select.equals(that.select)
+				&& StringUtils.equals(insert, that.insert) && StringUtils.equals(update, that.update) && StringUtils.equals(delete, that.delete);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+}
@@ -8,12 +8,18 @@ import org.slf4j.Logger;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.regex.Pattern;
 
 /**
  * Klasse mit diversen Methoden, die bei dem Arbeiten mit SQL hilfreich sind
  */
 @SuppressWarnings("WeakerAccess")
 public class SQLUtils extends RsUtils {
+	private static final Pattern PST_PREFIX = Pattern.compile("org.apache.tomcat.jdbc.pool.StatementFacade\\$StatementProxy\\[Proxy=[0-9]+; Query=.+ Delegate="
+			+ "|com\\.mysql\\.jdbc\\.JDBC42PreparedStatement@[0-9a-z]+: "
+			+ "|HikariProxyPreparedStatement@[0-9a-z]+ wrapping "
+			+ "|org\\.hsqldb\\.jdbc\\.JDBCPreparedStatement@[0-9a-z]+\\[");
+	
 	/**
 	 * Wandelt den Felder {@link String} vom Format "colA, colB" in das Format "?, ?" um
 	 *
@@ -24,6 +30,21 @@ public class SQLUtils extends RsUtils {
 		return felder.replaceAll("[a-zA-Z0-9_]+", "?");
 	}
 	
+	/**
+	 * Erstellt die Fragezeichen für eine IN Liste im Format "?, ?, ?"
+	 *
+	 * @param count die Anzahl der Fragezeichen
+	 * @return der {@link String} mit den Fragezeichen
+	 */
+	public static @NotNull String getFragezeichenIn(final int count) {
+		StringBuilder result = new StringBuilder(count * 3);
+		for (int i = 0; i < count; i++) {
+			if (i > 0) result.append(", ");
+			result.append('?');
+		}
+		return result.toString();
+	}
+	
 	/**
 	 * Wandelt den Felder {@link String} vom Format "colA, colB" in das Format "colA=?, colB=?" um
 	 *
@@ -54,7 +75,7 @@ public class SQLUtils extends RsUtils {
 	 * @return der umgewandelte {@link String}
 	 */
 	public static @NotNull String fullQualifyTableName(final @NotNull String felder, final @NotNull String tableName) {
-		return tableName + '.' + felder.replaceAll(", ", ", " + tableName + '.');
+		return tableName + '.' + felder.replace(", ", ", " + tableName + '.');
 	}
 	
 	/**
@@ -66,7 +87,7 @@ public class SQLUtils extends RsUtils {
 	 */
 	@Contract("null, _ -> null; !null, _ -> !null")
 	public static String nullableWhere(@Nullable String where, @Nullable ParameterList params) {
-		if (where == null || params == null) return where;
+		if (where == null || params == null || !containsNull(params)) return where;
 		String[] terme = where.split(" ");
 		StringBuilder result = new StringBuilder();
 		int pos = 0;
@@ -85,6 +106,35 @@ public class SQLUtils extends RsUtils {
 		return result.toString();
 	}
 	
+	/**
+	 * Beschreibt, welche Parameter {@code null} sind. Da {@link #nullableWhere(String, ParameterList)} die WHERE Klausel nur an Hand dieser Parameter ändert,
+	 * kann das Ergebnis zusammen mit der WHERE Klausel als Key für den pstCache benutzt werden
+	 *
+	 * @param params die Parameter oder {@code null}
+	 * @return pro Parameter {@code 0} für {@code null} und {@code 1} für einen Wert, bzw. ein leerer String, wenn es keine Parameter gibt
+	 */
+	public static @NotNull String nullMask(@Nullable ParameterList params) {
+		if (params == null) return "";
+		StringBuilder result = new StringBuilder();
+		for (final Parameter p : params) {
+			result.append(p.value == null ? '0' : '1');
+		}
+		return result.toString();
+	}
+	
+	/**
+	 * Prüft, ob mindestens ein Parameter {@code null} ist
+	 *
+	 * @param params die Parameter
+	 * @return {@code true}, wenn ein Parameter {@code null} ist
+	 */
+	private static boolean containsNull(final @NotNull ParameterList params) {
+		for (final Parameter p : params) {
+			if (p.value == null) return true;
+		}
+		return false;
+	}
+	
 	/**
 	 * Extrahiert das SQL Statement aus einem {@link PreparedStatement}
 	 *
@@ -92,11 +142,7 @@ public class SQLUtils extends RsUtils {
 	 * @return das SQL Statement
 	 */
 	public static @NotNull String pstToSQL(@NotNull PreparedStatement pst) {
-		return pst.toString()
-				  .replaceAll("org.apache.tomcat.jdbc.pool.StatementFacade\\$StatementProxy\\[Proxy=[0-9]+; Query=.+ Delegate=", "")
-				  .replaceAll("com\\.mysql\\.jdbc\\.JDBC42PreparedStatement@[0-9a-z]+: ", "")
-				  .replaceAll("HikariProxyPreparedStatement@[0-9a-z]+ wrapping ", "")
-				  .replaceAll("org\\.hsqldb\\.jdbc\\.JDBCPreparedStatement@[0-9a-z]+\\[", "");
+		return PST_PREFIX.matcher(pst.toString()).replaceAll("");
 	}
 	
 	/**
@@ -0,0 +1,276 @@
+package net.sjr.sql;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pool von {@link PooledConnection}s, den sich alle DAOs auf derselben {@link javax.sql.DataSource} bzw. Datenbankverbindung mit derselben {@link PoolPolicy} teilen.<br>
+ * DAOs, die nach jeder Funktion schließen ({@link DAOBase#shouldCloseAlways()}), bekommen einen eigenen Pool, damit sie nicht die gecachten
+ * {@link java.sql.PreparedStatement}s der anderen DAOs verwerfen. Ebenso bekommen DAOs mit einer anderen {@link PoolPolicy} oder eigenen
+ * {@link DAOBase#getConnectionFromDataSource()} bzw. {@link DAOBase#closeConnectionFromDataSource(java.sql.Connection)} einen eigenen Pool.<br>
+ * Die Pools werden über {@link #acquire(DAOBase)} und {@link #release(Lease)} gezählt und geschlossen, sobald keine DAO sie mehr benutzt.
+ * Die DAOs werden dabei nur schwach referenziert, sodass auch nie geschlossene DAOs den Pool nicht dauerhaft festhalten.<br>
+ * Die Konfiguration wird nur beim Erstellen als {@link PoolPolicy} aufgelöst und danach ausschließlich über {@link #reconfigure(PoolPolicy)} geändert
+ */
+@SuppressWarnings("WeakerAccess")
+public class SharedConnectionPool extends GenericObjectPool<PooledConnection> {
+	private static final Logger LOG = LoggerFactory.getLogger(SharedConnectionPool.class);
+	private static final Map<Key, SharedConnectionPool> POOLS = new HashMap<>();
+	private static final ReferenceQueue<DAOBase<?, ?>> STALE = new ReferenceQueue<>();
+	private final Key key;
+	private final String name;
+	private final PooledConnectionFactory factory;
+	private final Set<Lease> leases = new HashSet<>();
+	private volatile PoolPolicy policy;
+	
+	/**
+	 * Erstellt einen neuen {@link SharedConnectionPool}
+	 *
+	 * @param key     der Key in der Registry
+	 * @param name    der Name für die {@link net.sjr.sql.metrics.DAOMetrics}
+	 * @param factory die {@link PooledConnectionFactory}
+	 */
+	private SharedConnectionPool(final @NotNull Key key, final @NotNull String name, final @NotNull PooledConnectionFactory factory) {
+		super(factory, key.policy.toConfig());
+		this.key = key;
+		this.name = name;
+		this.factory = factory;
+		this.policy = key.policy;
+		factory.setPolicy(key.policy);
+		factory.setPool(this);
+	}
+	
+	/**
+	 * Holt den {@link SharedConnectionPool} für die {@link javax.sql.DataSource} bzw. Datenbankverbindung der DAO oder erstellt ihn, wenn es noch keinen gibt.
+	 * Jeder Aufruf muss mit {@link #release(Lease)} wieder freigegeben werden. Wird die DAO vorher vom Garbage Collector entfernt, wird sie automatisch freigegeben
+	 *
+	 * @param dao die {@link DAOBase}
+	 * @return die {@link Lease} mit dem {@link SharedConnectionPool}
+	 */
+	static @NotNull Lease acquire(final @NotNull DAOBase<?, ?> dao) {
+		Object source = dao.dataSource != null ? dao.dataSource : dao.staticConnection;
+		if (source == null) throw new IllegalStateException("Die DAO hat keine Connection und keine DataSource!");
+		Key key = new Key(source, dao.shouldCloseAlways(), PoolPolicy.forDAO(dao), PooledConnectionFactory.getHookOwner(dao));
+		List<SharedConnectionPool> unused;
+		Lease result;
+		synchronized (POOLS) {
+			unused = expungeStaleLeases();
+			SharedConnectionPool pool = POOLS.get(key);
+			if (pool == null) {
+				pool = new SharedConnectionPool(key, createName(key), new PooledConnectionFactory(dao.dataSource, dao.staticConnection, key.hookOwner));
+				POOLS.put(key, pool);
+			}
+			result = new Lease(dao, pool);
+			pool.leases.add(result);
+		}
+		closeAll(unused);
+		return result;
+	}
+	
+	/**
+	 * Gibt eine mit {@link #acquire(DAOBase)} geholte {@link Lease} wieder frei. Wird der Pool von keiner DAO mehr benutzt, werden alle Verbindungen geschlossen
+	 *
+	 * @param lease die {@link Lease}
+	 */
+	static void release(final @NotNull Lease lease) {
+		List<SharedConnectionPool> unused;
+		synchronized (POOLS) {
+			lease.clear();
+			unused = expungeStaleLeases();
+			SharedConnectionPool pool = releaseLocked(lease);
+			if (pool != null) unused.add(pool);
+		}
+		closeAll(unused);
+	}
+	
+	/**
+	 * Gibt die Anzahl der offenen Pools zurück. Pools von DAOs, die inzwischen vom Garbage Collector entfernt wurden, werden vorher geschlossen
+	 *
+	 * @return die Anzahl der offenen Pools
+	 */
+	public static int getPoolCount() {
+		List<SharedConnectionPool> unused;
+		int result;
+		synchronized (POOLS) {
+			unused = expungeStaleLeases();
+			result = POOLS.size();
+		}
+		closeAll(unused);
+		return result;
+	}
+	
+	private static @NotNull List<SharedConnectionPool> expungeStaleLeases() {
+		List<SharedConnectionPool> result = new ArrayList<>();
+		Object stale;
+		while ((stale = STALE.poll()) != null) {
+			SharedConnectionPool pool = releaseLocked((Lease) stale);
+			if (pool != null) result.add(pool);
+		}
+		return result;
+	}
+	
+	private static @Nullable SharedConnectionPool releaseLocked(final @NotNull Lease lease) {
+		SharedConnectionPool pool = lease.pool;
+		if (!pool.leases.remove(lease) || !pool.leases.isEmpty()) return null;
+		if (POOLS.get(pool.key) == pool) POOLS.remove(pool.key);
+		return pool;
+	}
+	
+	private static void closeAll(final @NotNull List<SharedConnectionPool> pools) {
+		for (final SharedConnectionPool pool : pools) {
+			pool.close();
+		}
+	}
+	
+	private static @NotNull String createName(final @NotNull Key key) {
+		String result = key.source.getClass().getSimpleName() + '@' + Integer.toHexString(System.identityHashCode(key.source)) + (key.closeAlways ? "/closeAlways" : "");
+		int siblings = 0;
+		for (final Key other : POOLS.keySet()) {
+			if (other.source == key.source && other.closeAlways == key.closeAlways) {
+				siblings++;
+				if (!other.policy.equals(key.policy)) {
+					LOG.warn("Für {} gibt es bereits einen Pool mit {}, die DAO fordert {} an und bekommt einen eigenen Pool", result, other.policy, key.policy);
+				}
+			}
+		}
+		return siblings == 0 ? result : result + '#' + (siblings + 1);
+	}
+	
+	/**
+	 * Gibt den Namen zurück, unter dem der Pool in den {@link net.sjr.sql.metrics.DAOMetrics} aufgezeichnet wird
+	 *
+	 * @return der Name des Pools
+	 */
+	public @NotNull String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return die {@link javax.sql.DataSource} bzw. Datenbankverbindung des Pools
+	 */
+	@NotNull Object getSource() {
+		return key.source;
+	}
+	
+	/**
+	 * @return {@code true}, wenn der Pool zu DAOs gehört, die nach jeder Funktion schließen
+	 */
+	boolean isCloseAlways() {
+		return key.closeAlways;
+	}
+	
+	/**
+	 * @return die aktuelle {@link PoolPolicy}
+	 */
+	public @NotNull PoolPolicy getPolicy() {
+		return policy;
+	}
+	
+	/**
+	 * Leiht eine Verbindung für eine DAO aus. Muss dafür eine neue Verbindung erstellt werden, wird sie über diese DAO geöffnet und später wieder geschlossen,
+	 * siehe {@link PooledConnectionFactory}
+	 *
+	 * @param dao                 die ausleihende {@link DAOBase}
+	 * @param borrowMaxWaitMillis die maximale Wartezeit in Millisekunden
+	 * @return die {@link PooledConnection}
+	 * @throws Exception Wenn keine Verbindung ausgeliehen werden konnte
+	 */
+	@NotNull PooledConnection borrowObject(final @NotNull DAOBase<?, ?> dao, final long borrowMaxWaitMillis) throws Exception {
+		factory.setBorrower(dao);
+		try {
+			return borrowObject(borrowMaxWaitMillis);
+		}
+		finally {
+			factory.setBorrower(null);
+		}
+	}
+	
+	/**
+	 * Sucht eine noch angemeldete DAO des Pools
+	 *
+	 * @return die DAO oder {@code null}, wenn keine DAO mehr angemeldet ist
+	 */
+	@Nullable DAOBase<?, ?> findLiveDAO() {
+		synchronized (POOLS) {
+			for (final Lease lease : leases) {
+				DAOBase<?, ?> dao = lease.get();
+				if (dao != null) return dao;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Ändert die Konfiguration zur Laufzeit, z.B. mit {@code pool.reconfigure(pool.getPolicy().withMaxTotal(20))}.
+	 * Ausgeliehene Verbindungen bleiben gültig, ein kleineres Limit greift beim nächsten Ausleihen bzw. Zurückgeben.
+	 * DAOs, die danach erstellt werden, bekommen weiterhin diesen Pool, solange sie die ursprüngliche {@link PoolPolicy} anfordern
+	 *
+	 * @param policy die neue {@link PoolPolicy}
+	 */
+	public synchronized void reconfigure(final @NotNull PoolPolicy policy) {
+		setConfig(policy.toConfig());
+		factory.setPolicy(policy);
+		this.policy = policy;
+	}
+	
+	/**
+	 * Anmeldung einer DAO an einem {@link SharedConnectionPool}. Referenziert die DAO nur schwach
+	 */
+	static final class Lease extends WeakReference<DAOBase<?, ?>> {
+		private final SharedConnectionPool pool;
+		
+		private Lease(final @NotNull DAOBase<?, ?> dao, final @NotNull SharedConnectionPool pool) {
+			super(dao, STALE);
+			this.pool = pool;
+		}
+		
+		/**
+		 * @return der {@link SharedConnectionPool}
+		 */
+		@NotNull SharedConnectionPool getPool() {
+			return pool;
+		}
+	}
+	
+	/**
+	 * Key der Registry. Vergleicht die {@link javax.sql.DataSource} bzw. Datenbankverbindung über ihre Identität
+	 */
+	private static final class Key {
+		private final Object source;
+		private final boolean closeAlways;
+		private final PoolPolicy policy;
+		private final Class<?> hookOwner;
+		
+		private Key(final @NotNull Object source, final boolean closeAlways, final @NotNull PoolPolicy policy, final @NotNull Class<?> hookOwner) {
+			this.source = source;
+			this.closeAlways = closeAlways;
+			this.policy = policy;
+			this.hookOwner = hookOwner;
+		}
+		
+		@Override
+		public boolean equals(final Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key)) return false;
+			Key that = (Key) o;
+			return source == that.source && closeAlways == that.closeAlways && policy.equals(that.policy) && hookOwner == that.hookOwner;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * (31 * (31 * System.identityHashCode(source) + (closeAlways ? 1 : 0)) + policy.hashCode()) + hookOwner.hashCode();
+		}
+	}
+}
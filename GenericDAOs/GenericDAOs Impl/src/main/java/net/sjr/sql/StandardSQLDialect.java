@@ -0,0 +1,60 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Die mitgelieferten {@link SQLDialect}e
+ */
+public enum StandardSQLDialect implements SQLDialect {
+	/**
+	 * {@code LIMIT n OFFSET m}, z.B. für PostgreSQL, MySQL, H2 und HSQLDB
+	 */
+	LIMIT_OFFSET {
+		@Override
+		public @NotNull String paginate(final @NotNull String query, final long offset, final long limit) {
+			return offset > 0 ? query + " LIMIT " + limit + " OFFSET " + offset : query + " LIMIT " + limit;
+		}
+	},
+	/**
+	 * {@code OFFSET m ROWS FETCH FIRST n ROWS ONLY} aus SQL:2008, z.B. für Oracle ab 12c, DB2 und Derby
+	 */
+	FETCH_FIRST {
+		@Override
+		public @NotNull String paginate(final @NotNull String query, final long offset, final long limit) {
+			return offset > 0 ? query + " OFFSET " + offset + " ROWS FETCH NEXT " + limit + " ROWS ONLY" : query + " FETCH FIRST " + limit + " ROWS ONLY";
+		}
+	},
+	/**
+	 * {@code SELECT TOP n} für Microsoft SQL Server. Mit Offset wird {@code OFFSET m ROWS FETCH NEXT n ROWS ONLY} benutzt, was ab SQL Server 2012 ein ORDER BY voraussetzt
+	 */
+	TOP {
+		@Override
+		public @NotNull String paginate(final @NotNull String query, final long offset, final long limit) {
+			if (offset > 0) {
+				String ordered = ORDER_BY.matcher(query).find() ? query : query + " ORDER BY (SELECT NULL)";
+				return ordered + " OFFSET " + offset + " ROWS FETCH NEXT " + limit + " ROWS ONLY";
+			}
+			Matcher matcher = SELECT.matcher(query);
+			if (!matcher.find()) throw new IllegalArgumentException("Keine SELECT Abfrage: " + query);
+			return query.substring(0, matcher.end()) + "TOP " + limit + ' ' + query.substring(matcher.end());
+		}
+	},
+	/**
+	 * Verschachtelte Abfrage mit {@code ROWNUM} für alle Oracle Versionen. Mit Offset enthält das Ergebnis eine zusätzliche letzte Spalte {@code rownum_}
+	 */
+	ROWNUM {
+		@Override
+		public @NotNull String paginate(final @NotNull String query, final long offset, final long limit) {
+			if (offset > 0) {
+				return "SELECT * FROM (SELECT q_.*, ROWNUM rownum_ FROM (" + query + ") q_ WHERE ROWNUM <= " + (offset + limit) + ") WHERE rownum_ > " + offset;
+			}
+			return "SELECT * FROM (" + query + ") WHERE ROWNUM <= " + limit;
+		}
+	};
+	
+	private static final Pattern SELECT = Pattern.compile("^\\s*SELECT\\s+(DISTINCT\\s+)?", Pattern.CASE_INSENSITIVE);
+	private static final Pattern ORDER_BY = Pattern.compile("\\sORDER\\s+BY\\s", Pattern.CASE_INSENSITIVE);
+}
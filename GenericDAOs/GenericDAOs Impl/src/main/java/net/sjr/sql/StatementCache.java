@@ -0,0 +1,189 @@
+package net.sjr.sql;
+
+import net.sjr.sql.metrics.DAOMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Begrenzter Cache für die {@link PreparedStatement}s einer {@link PooledConnection}. Jede DAO Klasse bekommt einen eigenen LRU Bereich mit der Größe aus
+ * {@link DAOBase#getStatementCacheSize()}. Ist dieser voll, wird das am längsten nicht benutzte {@link PreparedStatement} geschlossen und verworfen.<br>
+ * Wie die {@link PooledConnection} wird auch der Cache immer nur von dem Thread verändert, der die Verbindung ausgeliehen hat
+ */
+@SuppressWarnings("WeakerAccess")
+public final class StatementCache {
+	private final Map<Class<?>, Segment> segments = new HashMap<>();
+	private final Set<PreparedStatement> cached = Collections.newSetFromMap(new IdentityHashMap<PreparedStatement, Boolean>());
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private long hits;
+	private long misses;
+	private long evictions;
+	
+	/**
+	 * Holt ein offenes {@link PreparedStatement} aus dem Cache
+	 *
+	 * @param key der Key des Statements
+	 * @return das {@link PreparedStatement} oder {@code null}, wenn es nicht im Cache liegt oder geschlossen wurde
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	@Nullable PreparedStatement get(final @NotNull StatementKey key) throws SQLException {
+		Segment segment = segments.get(key.getDaoClass());
+		PreparedStatement result = segment == null ? null : segment.get(key);
+		if (result != null && result.isClosed()) {
+			segment.remove(key);
+			cached.remove(result);
+			result = null;
+		}
+		if (result == null) misses++;
+		else hits++;
+		return result;
+	}
+	
+	/**
+	 * Legt ein {@link PreparedStatement} in den Cache. Ist der Bereich der DAO voll, werden die am längsten nicht benutzten {@link PreparedStatement}s geschlossen
+	 * und in den {@link DAOMetrics} der DAO aufgezeichnet
+	 *
+	 * @param key     der Key des Statements
+	 * @param pst     das {@link PreparedStatement}
+	 * @param maxSize die maximale Anzahl an {@link PreparedStatement}s der DAO. Wird bei jedem Aufruf übernommen, sodass ein verkleinerter Bereich sofort gekürzt wird
+	 * @param metrics die {@link DAOMetrics} der DAO
+	 */
+	void put(final @NotNull StatementKey key, final @NotNull PreparedStatement pst, final int maxSize, final @NotNull DAOMetrics metrics) {
+		Segment segment = segments.get(key.getDaoClass());
+		if (maxSize <= 0) {
+			if (segment != null) segment.trim(0, metrics);
+			return;
+		}
+		if (segment == null) {
+			segment = new Segment(key.getDaoClass());
+			segments.put(key.getDaoClass(), segment);
+		}
+		PreparedStatement old = segment.put(key, pst);
+		cached.add(pst);
+		if (old != null && old != pst) {
+			cached.remove(old);
+			SQLUtils.closeSqlAutocloseable(log, old);
+		}
+		segment.trim(maxSize, metrics);
+	}
+	
+	/**
+	 * Prüft, ob das {@link PreparedStatement} im Cache liegt und somit nicht geschlossen werden darf
+	 *
+	 * @param pst das {@link PreparedStatement}
+	 * @return {@code true}, wenn es gecached ist
+	 */
+	public boolean contains(final @NotNull PreparedStatement pst) {
+		return cached.contains(pst);
+	}
+	
+	/**
+	 * @return die Anzahl der gecachten {@link PreparedStatement}s
+	 */
+	public int size() {
+		return cached.size();
+	}
+	
+	/**
+	 * @return die Anzahl der Treffer
+	 */
+	public long getHits() {
+		return hits;
+	}
+	
+	/**
+	 * @return die Anzahl der Zugriffe, bei denen das {@link PreparedStatement} neu erstellt werden musste
+	 */
+	public long getMisses() {
+		return misses;
+	}
+	
+	/**
+	 * @return die Anzahl der wegen der Größenbegrenzung geschlossenen {@link PreparedStatement}s
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+	
+	/**
+	 * Setzt alle gecachten {@link PreparedStatement}s zurück, damit sie bei der nächsten Benutzung keine alten Parameter oder Batches mehr enthalten.
+	 * {@link PreparedStatement}s, die sich nicht zurücksetzen lassen, werden geschlossen und aus dem Cache entfernt
+	 */
+	void reset() {
+		for (final Segment segment : segments.values()) {
+			Iterator<PreparedStatement> it = segment.values().iterator();
+			while (it.hasNext()) {
+				PreparedStatement pst = it.next();
+				try {
+					if (pst.isClosed()) {
+						it.remove();
+						cached.remove(pst);
+						continue;
+					}
+					pst.clearParameters();
+					pst.clearBatch();
+					pst.clearWarnings();
+				}
+				catch (final SQLException e) {
+					log.debug("PreparedStatement konnte nicht zurückgesetzt werden und wird verworfen", e);
+					it.remove();
+					cached.remove(pst);
+					SQLUtils.closeSqlAutocloseable(log, pst);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Schließt alle gecachten {@link PreparedStatement}s und leert den Cache
+	 */
+	void clear() {
+		for (final PreparedStatement pst : cached) {
+			SQLUtils.closeSqlAutocloseable(log, pst);
+		}
+		cached.clear();
+		segments.clear();
+	}
+	
+	/**
+	 * LRU Bereich einer DAO Klasse
+	 */
+	private final class Segment extends LinkedHashMap<StatementKey, PreparedStatement> {
+		private static final long serialVersionUID = 1L;
+		private final String dao;
+		
+		private Segment(final @NotNull Class<?> daoClass) {
+			super(16, 0.75f, true);
+			this.dao = daoClass.getName();
+		}
+		
+		/**
+		 * Schließt die am längsten nicht benutzten {@link PreparedStatement}s, bis höchstens maxSize übrig sind
+		 *
+		 * @param maxSize die maximale Anzahl an {@link PreparedStatement}s
+		 * @param metrics die {@link DAOMetrics}, in welche die verworfenen {@link PreparedStatement}s aufgezeichnet werden
+		 */
+		private void trim(final int maxSize, final @NotNull DAOMetrics metrics) {
+			Iterator<PreparedStatement> it = values().iterator();
+			while (size() > maxSize && it.hasNext()) {
+				PreparedStatement pst = it.next();
+				it.remove();
+				cached.remove(pst);
+				SQLUtils.closeSqlAutocloseable(log, pst);
+				evictions++;
+				metrics.recordStatementCacheEviction(dao);
+			}
+		}
+	}
+}
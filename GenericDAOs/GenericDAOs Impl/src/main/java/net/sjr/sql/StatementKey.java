@@ -0,0 +1,49 @@
+package net.sjr.sql;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Key für die gecachten {@link java.sql.PreparedStatement}s einer {@link PooledConnection}. Ein Statement wird über die Klasse der DAO,
+ * ihre {@link SQLTemplates}, den DType und den cacheKey gefunden, sodass sich alle Instanzen einer DAO Klasse die Statements teilen
+ */
+final class StatementKey {
+	private final Class<?> daoClass;
+	private final SQLTemplates templates;
+	private final String dtype;
+	private final String cacheKey;
+	private final int hash;
+	
+	StatementKey(final @NotNull DAOBase<?, ?> dao, final @NotNull String cacheKey) {
+		this.daoClass = dao.getClass();
+		this.templates = dao.getSQLTemplates();
+		this.dtype = dao.getDtype();
+		this.cacheKey = cacheKey;
+		this.hash = 31 * (31 * daoClass.hashCode() + templates.hashCode()) + cacheKey.hashCode();
+	}
+	
+	/**
+	 * @return die Klasse der DAO, welche das Statement erstellt hat
+	 */
+	@NotNull Class<?> getDaoClass() {
+		return daoClass;
+	}
+	
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) return true;
+		if (!(o instanceof StatementKey)) return false;
+		StatementKey that = (StatementKey) o;
+		return hash == that.hash && daoClass == that.daoClass && cacheKey.equals(that.cacheKey) && templates.equals(that.templates) && StringUtils.equals(dtype, that.dtype);
+	}
+	
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+	
+	@Override
+	public @NotNull String toString() {
+		return daoClass.getName() + '#' + cacheKey;
+	}
+}
@@ -0,0 +1,354 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.UncheckedSQLException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transaktion für eine Arbeitseinheit über mehrere DAOs. Solange sie für den aktuellen Thread geöffnet ist, leihen alle DAOs derselben {@link javax.sql.DataSource}
+ * bzw. Datenbankverbindung dieselbe Datenbankverbindung inkl. ihrer gecachten {@link java.sql.PreparedStatement}s aus, auch wenn sie z.B. wegen {@link DAOBase#shouldCloseAlways()}
+ * oder einer anderen {@link PoolPolicy} unterschiedliche {@link SharedConnectionPool}s benutzen. Die Verbindung läuft ohne Autocommit und wird erst mit {@link #commit()} bestätigt.
+ * Wird die {@link TransactionScope} ohne {@link #commit()} geschlossen, werden alle Änderungen seit dem letzten {@link #commit()} zurück gerollt.<br>
+ * Über {@link #queueInsert(DAO, DBObject)}, {@link #queueUpdate(DAO, DBObject)} und {@link #queueDelete(DAO, DBObject)} können Änderungen gesammelt werden,
+ * die erst bei {@link #flush()} bzw. {@link #commit()} als JDBC Batches geschrieben werden.
+ * <pre>
+ * try (TransactionScope tx = TransactionScope.begin()) {
+ *     parentDAO.insertIntoDB(parent);
+ *     childDAO.insertAll(children);
+ *     tx.commit();
+ * }
+ * </pre>
+ * Innerhalb der {@link TransactionScope} geladene Objekte werden nicht in den {@link ObjectCache} gelegt, geänderte Objekte werden bei {@link #commit()}, {@link #rollback()}
+ * und {@link #close()} erneut aus ihm entfernt.<br>
+ * DAOs mit unterschiedlichen {@link javax.sql.DataSource}s benutzen unterschiedliche Verbindungen, die nacheinander und nicht atomar bestätigt werden.
+ * Ist beim {@link #close()} noch ein {@link DAOIterator} oder Stream auf einer gebundenen Verbindung offen, wird sie erst mit dessen Schließen in den Pool zurück gegeben. Andere Threads, z.B. von {@link DAOIterator}en anderer Threads oder parallelen Abfragen, sehen die
+ * {@link TransactionScope} nicht. Eine bereits offene {@link TransactionScope} wird beim {@link #close()} wieder hergestellt, die neue benutzt aber eigene Verbindungen
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class TransactionScope implements AutoCloseable {
+	private static final ThreadLocal<TransactionScope> CURRENT = new ThreadLocal<>();
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private final Map<Object, Pin> pinned = new LinkedHashMap<>();
+	private final List<QueuedWrite> queued = new ArrayList<>();
+	private final Map<ObjectCache<?, ?>, Set<Number>> invalidations = new IdentityHashMap<>();
+	private final TransactionScope previous;
+	private boolean closed = false;
+	
+	private TransactionScope(final @Nullable TransactionScope previous) {
+		this.previous = previous;
+	}
+	
+	/**
+	 * Öffnet eine neue {@link TransactionScope} für den aktuellen Thread. Eine bereits offene {@link TransactionScope} wird beim {@link #close()} wieder hergestellt
+	 *
+	 * @return die neue {@link TransactionScope}
+	 */
+	public static @NotNull TransactionScope begin() {
+		TransactionScope result = new TransactionScope(CURRENT.get());
+		CURRENT.set(result);
+		return result;
+	}
+	
+	/**
+	 * Gibt die {@link TransactionScope} des aktuellen Threads zurück
+	 *
+	 * @return die {@link TransactionScope} oder {@code null}, wenn keine geöffnet ist
+	 */
+	public static @Nullable TransactionScope current() {
+		return CURRENT.get();
+	}
+	
+	/**
+	 * Gibt die an diese {@link TransactionScope} gebundene Verbindung der {@link javax.sql.DataSource} bzw. Datenbankverbindung des {@link SharedConnectionPool}s zurück
+	 * und leiht sie beim ersten Aufruf aus diesem aus. Andere {@link SharedConnectionPool}s derselben {@link javax.sql.DataSource} bekommen dieselbe Verbindung
+	 *
+	 * @param pool                der {@link SharedConnectionPool}
+	 * @param dao                 die ausleihende {@link DAOBase}
+	 * @param borrowMaxWaitMillis die maximale Wartezeit in Millisekunden
+	 * @return die gebundene {@link PooledConnection}
+	 * @throws Exception Wenn keine Verbindung ausgeliehen werden konnte
+	 */
+	@NotNull PooledConnection pin(final @NotNull SharedConnectionPool pool, final @NotNull DAOBase<?, ?> dao, final long borrowMaxWaitMillis) throws Exception {
+		if (closed) throw new IllegalStateException("Die TransactionScope wurde bereits geschlossen");
+		Pin pin = pinned.get(pool.getSource());
+		if (pin == null) {
+			PooledConnection connection = pool.borrowObject(dao, borrowMaxWaitMillis);
+			boolean autoCommit;
+			try {
+				autoCommit = connection.getConnection().getAutoCommit();
+				if (autoCommit) connection.getConnection().setAutoCommit(false);
+			}
+			catch (SQLException e) {
+				pool.invalidateObject(connection);
+				throw e;
+			}
+			pin = new Pin(pool, connection, autoCommit);
+			connection.pin(pin);
+			pinned.put(pool.getSource(), pin);
+		}
+		pin.connection.lease();
+		return pin.connection;
+	}
+	
+	/**
+	 * Merkt eine PrimaryID vor, die bei {@link #commit()}, {@link #rollback()} und {@link #close()} erneut aus dem {@link ObjectCache} entfernt wird.
+	 * Bis dahin können andere Threads den bestätigten alten Stand wieder in den Cache legen
+	 *
+	 * @param cache   der {@link ObjectCache}
+	 * @param primary die PrimaryID des geänderten Objektes
+	 * @param <P>     Typ des Primary Keys
+	 */
+	<P extends Number> void invalidateOnEnd(final @NotNull ObjectCache<P, ?> cache, final @NotNull P primary) {
+		Set<Number> primaries = invalidations.get(cache);
+		if (primaries == null) {
+			primaries = new HashSet<>();
+			invalidations.put(cache, primaries);
+		}
+		primaries.add(primary);
+	}
+	
+	/**
+	 * Entfernt alle in dieser {@link TransactionScope} geänderten Objekte erneut aus ihren {@link ObjectCache}s
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void invalidateCaches() {
+		for (final Map.Entry<ObjectCache<?, ?>, Set<Number>> entry : invalidations.entrySet()) {
+			ObjectCache cache = entry.getKey();
+			for (final Number primary : entry.getValue()) {
+				cache.invalidate(primary);
+			}
+		}
+		invalidations.clear();
+	}
+	
+	/**
+	 * Merkt ein Objekt zum Einfügen vor. Es wird erst bei {@link #flush()} bzw. {@link #commit()} zusammen mit direkt folgenden Objekten derselben DAO
+	 * über {@link DAO#insertAll(java.util.Collection)} eingefügt und hat bis dahin keine PrimaryID
+	 *
+	 * @param dao die {@link DAO}
+	 * @param v   das Objekt
+	 * @param <T> Typ des zu speichernden Java Objektes
+	 * @param <P> Typ des Primary Keys
+	 */
+	public <T extends DBObject<P>, P extends Number> void queueInsert(final @NotNull DAO<T, P> dao, final @NotNull T v) {
+		queue(dao, WriteKind.INSERT, v);
+	}
+	
+	/**
+	 * Merkt ein Objekt zum Aktualisieren vor. Es wird erst bei {@link #flush()} bzw. {@link #commit()} zusammen mit direkt folgenden Objekten derselben DAO
+	 * über {@link DAO#updateAll(java.util.Collection)} geschrieben
+	 *
+	 * @param dao die {@link DAO}
+	 * @param v   das Objekt
+	 * @param <T> Typ des zu speichernden Java Objektes
+	 * @param <P> Typ des Primary Keys
+	 */
+	public <T extends DBObject<P>, P extends Number> void queueUpdate(final @NotNull DAO<T, P> dao, final @NotNull T v) {
+		queue(dao, WriteKind.UPDATE, v);
+	}
+	
+	/**
+	 * Merkt ein Objekt zum Löschen vor. Es wird erst bei {@link #flush()} bzw. {@link #commit()} zusammen mit direkt folgenden Objekten derselben DAO
+	 * über {@link DAO#deleteAll(java.util.Collection)} gelöscht
+	 *
+	 * @param dao die {@link DAO}
+	 * @param v   das Objekt
+	 * @param <T> Typ des zu speichernden Java Objektes
+	 * @param <P> Typ des Primary Keys
+	 */
+	public <T extends DBObject<P>, P extends Number> void queueDelete(final @NotNull DAO<T, P> dao, final @NotNull T v) {
+		queue(dao, WriteKind.DELETE, v);
+	}
+	
+	private void queue(final @NotNull DAO<?, ?> dao, final @NotNull WriteKind kind, final @NotNull DBObject<?> v) {
+		if (closed) throw new IllegalStateException("Die TransactionScope wurde bereits geschlossen");
+		QueuedWrite last = queued.isEmpty() ? null : queued.get(queued.size() - 1);
+		if (last == null || last.dao != dao || last.kind != kind) {
+			last = new QueuedWrite(dao, kind);
+			queued.add(last);
+		}
+		last.values.add(v);
+	}
+	
+	/**
+	 * @return die Anzahl der vorgemerkten Objekte
+	 */
+	public int getQueuedCount() {
+		int result = 0;
+		for (final QueuedWrite write : queued) {
+			result += write.values.size();
+		}
+		return result;
+	}
+	
+	/**
+	 * Schreibt alle vorgemerkten Objekte in der Reihenfolge des Vormerkens. Direkt aufeinander folgende Objekte derselben DAO und Art werden als ein JDBC Batch geschrieben
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public void flush() {
+		if (closed) throw new IllegalStateException("Die TransactionScope wurde bereits geschlossen");
+		while (!queued.isEmpty()) {
+			QueuedWrite write = queued.remove(0);
+			DAO dao = write.dao;
+			switch (write.kind) {
+				case INSERT:
+					dao.insertAll(write.values);
+					break;
+				case UPDATE:
+					dao.updateAll(write.values);
+					break;
+				case DELETE:
+					dao.deleteAll(write.values);
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Schreibt alle vorgemerkten Objekte und bestätigt die Transaktion auf allen gebundenen Verbindungen. Die {@link TransactionScope} kann danach weiter benutzt werden
+	 */
+	public void commit() {
+		flush();
+		try {
+			for (final Pin pin : pinned.values()) {
+				pin.connection.getConnection().commit();
+			}
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		finally {
+			invalidateCaches();
+		}
+	}
+	
+	/**
+	 * Verwirft alle vorgemerkten Objekte und rollt alle Änderungen seit dem letzten {@link #commit()} auf allen gebundenen Verbindungen zurück
+	 */
+	public void rollback() {
+		queued.clear();
+		try {
+			for (final Pin pin : pinned.values()) {
+				pin.connection.getConnection().rollback();
+			}
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		finally {
+			invalidateCaches();
+		}
+	}
+	
+	/**
+	 * Rollt alle nicht bestätigten Änderungen zurück, gibt die gebundenen Verbindungen an ihre Pools zurück und stellt die vorher geöffnete {@link TransactionScope} wieder her.
+	 * Noch ausgeliehene Verbindungen, z.B. von offenen {@link DAOIterator}en, werden erst beim Beenden der letzten Ausleihe zurück gegeben
+	 */
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		try {
+			queued.clear();
+			for (final Pin pin : pinned.values()) {
+				try {
+					pin.connection.getConnection().rollback();
+				}
+				catch (final SQLException e) {
+					log.error("Fehler beim Zurückrollen der Transaktion", e);
+				}
+			}
+			invalidateCaches();
+			for (final Pin pin : pinned.values()) {
+				pin.held = false;
+				pin.connection.releaseLease();
+			}
+			pinned.clear();
+		}
+		finally {
+			if (CURRENT.get() == this) {
+				if (previous == null) CURRENT.remove();
+				else CURRENT.set(previous);
+			}
+		}
+	}
+	
+	/**
+	 * Bindung einer {@link PooledConnection} an eine {@link TransactionScope}. Gibt die Verbindung nach der letzten Ausleihe an den {@link SharedConnectionPool} zurück, aus dem sie kam
+	 */
+	static final class Pin {
+		private final Logger log = LoggerFactory.getLogger(getClass());
+		private final SharedConnectionPool pool;
+		private final PooledConnection connection;
+		private final boolean autoCommit;
+		private volatile boolean held = true;
+		
+		private Pin(final @NotNull SharedConnectionPool pool, final @NotNull PooledConnection connection, final boolean autoCommit) {
+			this.pool = pool;
+			this.connection = connection;
+			this.autoCommit = autoCommit;
+		}
+		
+		/**
+		 * @return {@code true}, solange die {@link TransactionScope} offen ist
+		 */
+		boolean isHeld() {
+			return held;
+		}
+		
+		/**
+		 * Stellt den Autocommit wieder her und gibt die Verbindung an ihren {@link SharedConnectionPool} zurück
+		 */
+		void release() {
+			try {
+				if (autoCommit) {
+					connection.getConnection().rollback();
+					connection.getConnection().setAutoCommit(true);
+				}
+				if (pool.isCloseAlways()) pool.invalidateObject(connection);
+				else pool.returnObject(connection);
+			}
+			catch (final Exception e) {
+				log.error("Fehler beim Zurückgeben der Datenbankverbindung", e);
+				try {
+					pool.invalidateObject(connection);
+				}
+				catch (final Exception e1) {
+					log.error("Fehler beim Schließen der Datenbankverbindung", e1);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Art einer vorgemerkten Änderung
+	 */
+	private enum WriteKind {
+		INSERT, UPDATE, DELETE
+	}
+	
+	/**
+	 * Direkt aufeinander folgende vorgemerkte Änderungen derselben DAO und Art
+	 */
+	private static final class QueuedWrite {
+		private final DAO<?, ?> dao;
+		private final WriteKind kind;
+		private final List<DBObject<?>> values = new ArrayList<>();
+		
+		private QueuedWrite(final @NotNull DAO<?, ?> dao, final @NotNull WriteKind kind) {
+			this.dao = dao;
+			this.kind = kind;
+		}
+	}
+}
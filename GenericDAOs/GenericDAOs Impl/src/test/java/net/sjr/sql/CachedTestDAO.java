@@ -0,0 +1,19 @@
+package net.sjr.sql;
+
+import java.sql.Connection;
+
+/**
+ * {@link TestDAO} mit {@link ObjectCache}
+ */
+public class CachedTestDAO extends TestDAO {
+	private final ObjectCache<Integer, TestClass> cache = new ObjectCache<>(2, 60000);
+	
+	public CachedTestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected ObjectCache<Integer, TestClass> getObjectCache() {
+		return cache;
+	}
+}
@@ -0,0 +1,31 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PooledTestDAO}, welche in {@link #beforeInsert(TestClass, Object...)} fehlende {@link TestClass2} Objekte einfügt und sich die Anzahl der dabei ausgeliehenen Verbindungen merkt
+ */
+public class CascadeTestDAO extends PooledTestDAO {
+	final List<Integer> activeBeforeInsert = new ArrayList<>();
+	
+	public CascadeTestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected void beforeInsert(@NotNull TestClass v, Object... cascadeInfos) {
+		activeBeforeInsert.add(connectionPool.getNumActive());
+		if (v.getTest2() == null) {
+			TestClass2 t2 = new TestClass2();
+			t2.setB(true);
+			try (Test2DAO t2dao = new Test2DAO(this)) {
+				t2dao.insertIntoDB(t2);
+			}
+			v.setTest2(t2);
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package net.sjr.sql;
+
+import java.sql.Connection;
+
+/**
+ * {@link TestDAO}, welche die Fremdschlüssel gebündelt lädt
+ */
+public class DeferredTestDAO extends TestDAO {
+	
+	public DeferredTestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected boolean shouldDeferForeignKeys() {
+		return true;
+	}
+}
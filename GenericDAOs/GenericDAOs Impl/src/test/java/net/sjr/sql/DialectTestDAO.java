@@ -0,0 +1,22 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+
+/**
+ * {@link TestDAO}, welche unabhängig von der Datenbank einen festen {@link SQLDialect} benutzt
+ */
+public class DialectTestDAO extends TestDAO {
+	private final SQLDialect dialect;
+	
+	public DialectTestDAO(Connection con, SQLDialect dialect) {
+		super(con);
+		this.dialect = dialect;
+	}
+	
+	@Override
+	protected @NotNull SQLDialect getSQLDialect(@NotNull DatabaseType databaseType) {
+		return dialect;
+	}
+}
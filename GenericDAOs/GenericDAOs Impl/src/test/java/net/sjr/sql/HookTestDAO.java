@@ -0,0 +1,32 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PooledTestDAO}, welche mitzählt, wie viele Datenbankverbindungen über sie geöffnet und geschlossen wurden
+ */
+public class HookTestDAO extends PooledTestDAO {
+	final AtomicInteger opened = new AtomicInteger();
+	final AtomicInteger closed = new AtomicInteger();
+	
+	public HookTestDAO(DataSource ds) {
+		super(ds);
+	}
+	
+	@Override
+	protected @NotNull Connection getConnectionFromDataSource() throws SQLException {
+		opened.incrementAndGet();
+		return super.getConnectionFromDataSource();
+	}
+	
+	@Override
+	protected void closeConnectionFromDataSource(Connection connection) throws SQLException {
+		closed.incrementAndGet();
+		super.closeConnectionFromDataSource(connection);
+	}
+}
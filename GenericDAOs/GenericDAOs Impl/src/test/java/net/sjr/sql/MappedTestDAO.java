@@ -0,0 +1,37 @@
+package net.sjr.sql;
+
+import net.sjr.sql.rsloader.RowMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+/**
+ * {@link TestDAO}, welche die Objekte über einen {@link RowMapper} füllt
+ */
+public class MappedTestDAO extends TestDAO {
+	private final Test2DAO test2DAO;
+	private final RowMapper<TestClass> mapper;
+	
+	public MappedTestDAO(Connection con) {
+		super(con);
+		test2DAO = new Test2DAO(this);
+		mapper = RowMapper.builder(TestClass.class).primary(this).column("setS").column("setI").column("setD").dbObject("setTest2", test2DAO).build();
+	}
+	
+	@Override
+	protected @NotNull TestClass getFromRS(ResultSet rs, DBObject... loadedObjects) {
+		return mapper.map(rs, loadedObjects);
+	}
+	
+	@Override
+	protected void fillObject(@NotNull ResultSet rs, @NotNull TestClass result, DBObject... loadedObjects) {
+		mapper.fill(rs, result, loadedObjects);
+	}
+	
+	@Override
+	public void close() {
+		test2DAO.close();
+		super.close();
+	}
+}
@@ -0,0 +1,23 @@
+package net.sjr.sql;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * {@link TestDAO}, welche die Datenbankverbindungen inkl. {@link java.sql.PreparedStatement}s wiederverwendet
+ */
+public class PooledTestDAO extends TestDAO {
+	
+	public PooledTestDAO(Connection con) {
+		super(con);
+	}
+	
+	public PooledTestDAO(DataSource ds) {
+		super(ds);
+	}
+	
+	@Override
+	protected boolean shouldCloseAlways() {
+		return false;
+	}
+}
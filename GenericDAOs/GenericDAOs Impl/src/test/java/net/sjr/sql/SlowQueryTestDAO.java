@@ -0,0 +1,28 @@
+package net.sjr.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TestDAO}, welche jede Abfrage als langsam protokolliert und sich die cacheKeys merkt
+ */
+public class SlowQueryTestDAO extends TestDAO {
+	final List<String> slowQueries = new ArrayList<>();
+	
+	public SlowQueryTestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected long getSlowQueryMillis() {
+		return 0;
+	}
+	
+	@Override
+	protected void logSlowQuery(PreparedStatement pst, String cacheKey, List<?> params, long millis) {
+		super.logSlowQuery(pst, cacheKey, params, millis);
+		slowQueries.add(cacheKey);
+	}
+}
@@ -3,6 +3,7 @@ package net.sjr.sql;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -22,6 +23,10 @@ public class TestDAO extends DAO<TestClass, Integer> {
 		super(con);
 	}
 
+	public TestDAO(DataSource ds) {
+		super(ds);
+	}
+
 	public TestDAO(DAO<? extends DBObject, ? extends Number> dao) {
 		super(dao);
 	}
@@ -46,6 +51,11 @@ public class TestDAO extends DAO<TestClass, Integer> {
 		return new ParameterList(new Parameter(v.getS(), Types.VARCHAR), v.getI(), new Parameter(v.getD(), Types.DATE), new Parameter(v.getTest2(), Types.BIGINT));
 	}
 
+	@Override
+	protected void fillParameters(@NotNull TestClass v, @NotNull ParameterBuffer buffer) {
+		buffer.add(v.getS(), Types.VARCHAR).addInt(v.getI()).add(v.getD(), Types.DATE).add(v.getTest2(), Types.BIGINT);
+	}
+
 	@Override
 	protected @NotNull TestClass getFromRS(ResultSet rs, DBObject... loadedObjects) throws SQLException {
 		TestClass result = new TestClass();
@@ -1,20 +1,48 @@
 package net.sjr.sql;
 
+import net.sjr.sql.exceptions.EntryNotFoundException;
 import net.sjr.sql.exceptions.NoNullTypeException;
 import net.sjr.sql.exceptions.UnsupportedValueException;
+import net.sjr.sql.metrics.DAOMetrics;
+import net.sjr.sql.metrics.DAOMetricsSnapshot;
+import net.sjr.sql.metrics.InProcessDAOMetrics;
+import net.sjr.sql.metrics.Instrumentation;
+import net.sjr.sql.metrics.NoOpDAOMetrics;
+import net.sjr.sql.metrics.StatementStats;
+import net.sjr.sql.rsloader.RsUtils;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by Jan on 13.05.2017.
@@ -195,4 +223,890 @@ public class TestRunner {
 			Assert.assertEquals(actual, expected);
 		}
 	}
+
+	@Test(dependsOnMethods = {"testLoadAll", "testLoadOne"})
+	public void testPooledConnectionReuse() {
+		try (PooledTestDAO tdao = new PooledTestDAO(con)) {
+			Assert.assertEquals(tdao.loadFromID(testClass.getPrimary()), testClass);
+			Assert.assertEquals(tdao.loadFromID(testClass.getPrimary()), testClass);
+			Assert.assertEquals(tdao.loadAll(), Collections.singletonList(testClass));
+			Assert.assertEquals(tdao.connectionPool.getCreatedCount(), 1);
+			Assert.assertEquals(tdao.connectionPool.getNumIdle(), 1);
+			Assert.assertEquals(tdao.connectionPool.getDestroyedCount(), 0);
+		}
+	}
+
+	@Test(dependsOnMethods = {"testPooledConnectionReuse"})
+	public void testSharedConnectionPool() throws Exception {
+		try (PooledTestDAO first = new PooledTestDAO(con); PooledTestDAO second = new PooledTestDAO(con)) {
+			SharedConnectionPool pool = first.connectionPool.getSharedPool();
+			Assert.assertSame(second.connectionPool.getSharedPool(), pool);
+			Assert.assertNotSame(new Test2DAO(first).connectionPool.getSharedPool(), pool);
+			try (PooledTestDAO otherPolicy = new PooledTestDAO(con) {
+				@Override
+				protected GenericObjectPoolConfig getPoolConfig() {
+					GenericObjectPoolConfig conf = super.getPoolConfig();
+					conf.setMaxIdle(3);
+					return conf;
+				}
+			}) {
+				Assert.assertNotSame(otherPolicy.connectionPool.getSharedPool(), pool);
+				Assert.assertEquals(otherPolicy.getPoolPolicy().getMaxIdle(), 3);
+			}
+			
+			Assert.assertEquals(first.loadAll(), Collections.singletonList(testClass));
+			Assert.assertEquals(second.loadAll(), Collections.singletonList(testClass));
+			Assert.assertEquals(pool.getCreatedCount(), 1);
+			Assert.assertEquals(pool.getNumIdle(), 1);
+			PooledConnection pooled = pool.borrowObject();
+			Assert.assertEquals(pooled.getStatementCount(), 1);
+			pool.returnObject(pooled);
+			
+			first.close();
+			Assert.assertSame(second.connectionPool.getSharedPool(), pool);
+			Assert.assertFalse(pool.isClosed());
+			second.close();
+			Assert.assertTrue(pool.isClosed());
+		}
+	}
+	
+	@Test
+	public void testUnclosedDAOsReleasePool() throws Exception {
+		List<Connection> connections = new ArrayList<>();
+		try {
+			List<SharedConnectionPool> pools = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				Connection c = DriverManager.getConnection("jdbc:h2:mem:;INIT=RUNSCRIPT FROM 'classpath:ddl.sql'", "sa", "");
+				connections.add(c);
+				pools.addAll(loadWithUnclosedDAOs(c, 4));
+			}
+			for (final SharedConnectionPool pool : pools) {
+				Assert.assertFalse(pool.isClosed());
+			}
+			
+			for (int i = 0; i < 200 && !allClosed(pools); i++) {
+				System.gc();
+				SharedConnectionPool.getPoolCount();
+				Thread.sleep(10);
+			}
+			Assert.assertTrue(allClosed(pools));
+		}
+		finally {
+			for (final Connection c : connections) {
+				c.close();
+			}
+		}
+	}
+	
+	private static List<SharedConnectionPool> loadWithUnclosedDAOs(final Connection c, final int rows) {
+		PooledTestDAO tdao = new PooledTestDAO(c);
+		for (int i = 0; i < rows; i++) {
+			TestClass t = new TestClass();
+			t.setI(i);
+			t.setD(new Date());
+			t.setTest2(new Test2DAO(tdao).loadFromID(1L));
+			tdao.insertIntoDB(t);
+		}
+		Assert.assertEquals(tdao.loadAll().size(), rows + 1);
+		return Arrays.asList(tdao.connectionPool.getSharedPool(), new Test2DAO(tdao).connectionPool.getSharedPool());
+	}
+	
+	private static boolean allClosed(final List<SharedConnectionPool> pools) {
+		for (final SharedConnectionPool pool : pools) {
+			if (!pool.isClosed()) return false;
+		}
+		return true;
+	}
+	
+	@Test(dependsOnMethods = {"testPooledConnectionReuse"})
+	public void testPoolReconfiguration() {
+		final AtomicInteger configCalls = new AtomicInteger();
+		try (PooledTestDAO tdao = new PooledTestDAO(con) {
+			@Override
+			protected GenericObjectPoolConfig getPoolConfig() {
+				configCalls.incrementAndGet();
+				return super.getPoolConfig();
+			}
+		}) {
+			tdao.loadAll();
+			tdao.loadAll();
+			Assert.assertEquals(configCalls.get(), 1);
+			Assert.assertEquals(tdao.getPoolPolicy().getMaxTotal(), GenericObjectPoolConfig.DEFAULT_MAX_TOTAL);
+			
+			tdao.reconfigurePool(tdao.getPoolPolicy().withMaxTotal(2).withMaxWaitMillis(100));
+			Assert.assertEquals(tdao.connectionPool.getSharedPool().getMaxTotal(), 2);
+			Assert.assertEquals(tdao.connectionPool.getSharedPool().getMaxWaitMillis(), 100);
+			tdao.fillPool();
+			Assert.assertEquals(tdao.connectionPool.getNumIdle(), 2);
+			Assert.assertEquals(tdao.loadAll(), Collections.singletonList(testClass));
+			Assert.assertEquals(configCalls.get(), 1);
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testPooledConnectionReuse"})
+	public void testStatementCacheEviction() throws Exception {
+		final InProcessDAOMetrics metrics = new InProcessDAOMetrics();
+		final AtomicInteger cacheSize = new AtomicInteger(2);
+		try (PooledTestDAO tdao = new PooledTestDAO(con) {
+			@Override
+			protected int getStatementCacheSize() {
+				return cacheSize.get();
+			}
+			
+			@Override
+			protected @NotNull DAOMetrics getMetrics() {
+				return metrics;
+			}
+		}) {
+			for (int i = 0; i < 4; i++) {
+				Assert.assertEquals(tdao.loadCountFromWhere(null, null, null, "count" + i), 1);
+			}
+			Assert.assertEquals(tdao.loadCountFromWhere(null, null, null, "count3"), 1);
+			
+			PooledConnection pooled = tdao.connectionPool.getSharedPool().borrowObject();
+			try {
+				StatementCache cache = pooled.getStatementCache();
+				Assert.assertEquals(cache.size(), 2);
+				Assert.assertEquals(cache.getMisses(), 4);
+				Assert.assertEquals(cache.getHits(), 1);
+				Assert.assertEquals(cache.getEvictions(), 2);
+			}
+			finally {
+				tdao.connectionPool.getSharedPool().returnObject(pooled);
+			}
+			Assert.assertEquals(metrics.snapshot().getStatementCaches().get(tdao.getClass().getName()).getEvictions(), 2);
+			
+			cacheSize.set(4);
+			for (int i = 4; i < 7; i++) {
+				Assert.assertEquals(tdao.loadCountFromWhere(null, null, null, "count" + i), 1);
+			}
+			cacheSize.set(1);
+			Assert.assertEquals(tdao.loadCountFromWhere(null, null, null, "count7"), 1);
+			
+			pooled = tdao.connectionPool.getSharedPool().borrowObject();
+			try {
+				StatementCache cache = pooled.getStatementCache();
+				Assert.assertEquals(cache.size(), 1);
+				Assert.assertEquals(cache.getEvictions(), 7);
+			}
+			finally {
+				tdao.connectionPool.getSharedPool().returnObject(pooled);
+			}
+			Assert.assertEquals(metrics.snapshot().getStatementCaches().get(tdao.getClass().getName()).getEvictions(), 7);
+		}
+	}
+	
+	@Test
+	public void testSQLLimit() {
+		Assert.assertNull(SQLLimit.parse(null));
+		Assert.assertNull(SQLLimit.parse("?"));
+		Assert.assertEquals(SQLLimit.parse("5").getLimit(), 5);
+		Assert.assertEquals(SQLLimit.parse("10, 5").getOffset(), 10);
+		Assert.assertEquals(SQLLimit.parse("5 offset 10").getOffset(), 10);
+		
+		Assert.assertEquals(StandardSQLDialect.TOP.paginate("SELECT DISTINCT a FROM t", 0, 1), "SELECT DISTINCT TOP 1 a FROM t");
+		Assert.assertEquals(StandardSQLDialect.TOP.paginate("SELECT a FROM t", 2, 1), "SELECT a FROM t ORDER BY (SELECT NULL) OFFSET 2 ROWS FETCH NEXT 1 ROWS ONLY");
+		Assert.assertEquals(StandardSQLDialect.ROWNUM.paginate("SELECT a FROM t", 0, 1), "SELECT * FROM (SELECT a FROM t) WHERE ROWNUM <= 1");
+		Assert.assertEquals(DatabaseType.ORACLE.getDialect(), StandardSQLDialect.ROWNUM);
+	}
+	
+	@Test(dependsOnMethods = {"testInsert"})
+	public void testDialectPagination() {
+		List<TestClass> all = new ArrayList<>();
+		try (TestDAO tdao = new TestDAO(con)) {
+			for (int i = 0; i < 3; i++) {
+				TestClass t = new TestClass();
+				t.setI(i);
+				t.setD(new Date());
+				tdao.insertIntoDB(t);
+			}
+			all.addAll(tdao.loadAllFromWhere(null, null, null, null, "testID"));
+		}
+		Assert.assertEquals(all.size(), 4);
+		
+		for (final StandardSQLDialect dialect : StandardSQLDialect.values()) {
+			try (DialectTestDAO tdao = new DialectTestDAO(con, dialect)) {
+				Assert.assertEquals(tdao.loadAllFromWhere(null, null, null, "2", "testID"), all.subList(0, 2), dialect.name());
+				Assert.assertEquals(tdao.loadAllFromWhere(null, null, null, "1, 2", "testID"), all.subList(1, 3), dialect.name());
+				Assert.assertEquals(tdao.loadFromID(all.get(3).getPrimary()), all.get(3), dialect.name());
+			}
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testInsert"})
+	public void testUnparsedLimit() throws Exception {
+		try (DialectTestDAO tdao = new DialectTestDAO(con, StandardSQLDialect.LIMIT_OFFSET)) {
+			Assert.assertEquals(tdao.loadAllFromWhere(null, null, new ParameterList(1), "?", "testID").size(), 1);
+		}
+
+		try (Connection oracle = DriverManager.getConnection("jdbc:h2:mem:;MODE=Oracle;INIT=RUNSCRIPT FROM 'classpath:ddl.sql'", "sa", "")) {
+			try (TestDAO tdao = new TestDAO(oracle)) {
+				for (int i = 0; i < 3; i++) {
+					TestClass t = new TestClass();
+					t.setI(i);
+					t.setD(new Date());
+					tdao.insertIntoDB(t);
+				}
+			}
+			for (final StandardSQLDialect dialect : new StandardSQLDialect[]{StandardSQLDialect.ROWNUM, StandardSQLDialect.FETCH_FIRST}) {
+				try (DialectTestDAO tdao = new DialectTestDAO(oracle, dialect)) {
+					Assert.assertEquals(tdao.loadAllFromWhere(null, null, null, "2", "testID").size(), 2, dialect.name());
+					try {
+						tdao.loadAllFromWhere(null, null, new ParameterList(2), "?", "testID");
+						Assert.fail("Ein Limit mit Platzhalter wurde für " + dialect + " unverändert übernommen");
+					}
+					catch (IllegalArgumentException ignored) {
+					}
+				}
+			}
+		}
+	}
+
+	@Test(dependsOnMethods = {"testInsert"})
+	public void testKeysetPagination() throws Exception {
+		try (TestDAO tdao = new TestDAO(con)) {
+			for (int i = 0; i < 5; i++) {
+				TestClass t = new TestClass();
+				t.setI(i % 2);
+				t.setD(new Date());
+				tdao.insertIntoDB(t);
+			}
+		}
+		try (PooledTestDAO tdao = new PooledTestDAO(con)) {
+			Keyset keyset = Keyset.of("i DESC").withTieBreaker("testID");
+			Assert.assertEquals(keyset, Keyset.of("i DESC", "testID"));
+			Assert.assertSame(keyset.withTieBreaker("TESTID"), keyset);
+			Assert.assertEquals(keyset.getSeekPredicate(), "(i < ? OR (i = ? AND testID > ?))");
+			try {
+				tdao.loadPageAfter(Keyset.of("i DESC"), null, 2, null, null, null);
+				Assert.fail("Ein Keyset ohne Primary Key wurde akzeptiert");
+			}
+			catch (IllegalArgumentException ignored) {
+			}
+			List<TestClass> expected = tdao.loadAllFromWhere(null, "i < ?", new ParameterList(5), null, keyset.getOrderBy());
+			Assert.assertEquals(expected.size(), 6);
+			
+			List<TestClass> actual = new ArrayList<>();
+			Object[] lastKey = null;
+			List<TestClass> page;
+			do {
+				page = tdao.loadPageAfter(keyset, lastKey, 2, null, "i < ?", new ParameterList(5));
+				actual.addAll(page);
+				if (!page.isEmpty()) lastKey = new Object[] {page.get(page.size() - 1).getI(), page.get(page.size() - 1).getPrimary()};
+			}
+			while (page.size() == 2);
+			Assert.assertEquals(actual, expected);
+			
+			PooledConnection pooled = tdao.connectionPool.getSharedPool().borrowObject();
+			try {
+				Assert.assertEquals(pooled.getStatementCache().getHits(), 2);
+			}
+			finally {
+				tdao.connectionPool.getSharedPool().returnObject(pooled);
+			}
+		}
+	}
+	
+	@Test
+	public void testTransactionScope() throws Exception {
+		try (PooledTestDAO tdao = new PooledTestDAO(con); TestDAO closeAlways = new TestDAO(con)) {
+			int before = tdao.loadAll().size();
+			try (TransactionScope tx = TransactionScope.begin()) {
+				Assert.assertSame(TransactionScope.current(), tx);
+				DAOConnection first = tdao.connectionPool.borrowObject();
+				DAOConnection nested = tdao.connectionPool.borrowObject();
+				Assert.assertSame(nested.getPooledConnection(), first.getPooledConnection());
+				Assert.assertTrue(first.getPooledConnection().isShared());
+				tdao.connectionPool.returnObject(nested);
+				tdao.connectionPool.returnObject(first);
+				
+				TestClass t = new TestClass();
+				t.setI(42);
+				t.setD(new Date());
+				closeAlways.insertIntoDB(t);
+				Assert.assertEquals(tdao.loadAll().size(), before + 1);
+			}
+			Assert.assertNull(TransactionScope.current());
+			Assert.assertEquals(tdao.loadAll().size(), before);
+			Assert.assertTrue(con.getAutoCommit());
+			
+			List<TestClass> neu = new ArrayList<>();
+			try (TransactionScope tx = TransactionScope.begin()) {
+				for (int i = 0; i < 3; i++) {
+					TestClass t = new TestClass();
+					t.setI(i);
+					t.setD(new Date());
+					tx.queueInsert(tdao, t);
+					neu.add(t);
+				}
+				Assert.assertEquals(tx.getQueuedCount(), 3);
+				Assert.assertNull(neu.get(0).getPrimary());
+				tx.commit();
+				Assert.assertEquals(tx.getQueuedCount(), 0);
+			}
+			Assert.assertNotNull(neu.get(2).getPrimary());
+			Assert.assertEquals(tdao.loadAll().size(), before + 3);
+		}
+	}
+	
+	@Test
+	public void testConnectionHooksPerDAO() throws Exception {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:hooks");
+		ds.setUser("sa");
+		ds.setPassword("");
+		HookTestDAO first = new HookTestDAO(ds);
+		HookTestDAO second = new HookTestDAO(ds);
+		try {
+			Assert.assertSame(second.connectionPool.getSharedPool(), first.connectionPool.getSharedPool());
+			DAOConnection fromFirst = first.connectionPool.borrowObject();
+			first.connectionPool.returnObject(fromFirst);
+			
+			DAOConnection reused = second.connectionPool.borrowObject();
+			DAOConnection fromSecond = second.connectionPool.borrowObject();
+			Assert.assertSame(reused.getPooledConnection(), fromFirst.getPooledConnection());
+			second.connectionPool.returnObject(fromSecond);
+			second.connectionPool.returnObject(reused);
+			Assert.assertEquals(first.opened.get(), 1);
+			Assert.assertEquals(second.opened.get(), 1);
+		}
+		finally {
+			first.close();
+			second.close();
+		}
+		Assert.assertEquals(first.closed.get(), 1);
+		Assert.assertEquals(second.closed.get(), 1);
+	}
+	
+	@Test
+	public void testTransactionScopeDataSource() throws Exception {
+		Connection keeper = DriverManager.getConnection("jdbc:h2:mem:txscope;INIT=RUNSCRIPT FROM 'classpath:ddl.sql'", "sa", "");
+		try {
+			JdbcDataSource ds = new JdbcDataSource();
+			ds.setURL("jdbc:h2:mem:txscope");
+			ds.setUser("sa");
+			ds.setPassword("");
+			try (TestDAO parent = new TestDAO(ds); PooledTestDAO child = new PooledTestDAO(ds)) {
+				Assert.assertNotSame(parent.connectionPool.getSharedPool(), child.connectionPool.getSharedPool());
+				try (TransactionScope tx = TransactionScope.begin()) {
+					DAOConnection fromParent = parent.connectionPool.borrowObject();
+					DAOConnection fromChild = child.connectionPool.borrowObject();
+					Assert.assertSame(fromChild.getPooledConnection(), fromParent.getPooledConnection());
+					child.connectionPool.returnObject(fromChild);
+					parent.connectionPool.returnObject(fromParent);
+					
+					TestClass t = new TestClass();
+					t.setI(42);
+					t.setD(new Date());
+					t.setTest2(new Test2DAO(parent).loadFromID(1L));
+					parent.insertIntoDB(t);
+					Assert.assertEquals(child.loadFromID(t.getPrimary()), t);
+					Assert.assertEquals(child.connectionPool.getNumActive(), 0);
+				}
+				Assert.assertEquals(child.loadAll().size(), 1);
+				
+				DAOIterator<TestClass, Integer> it;
+				try (TransactionScope tx = TransactionScope.begin()) {
+					it = child.iterateAll();
+					Assert.assertTrue(it.hasNext());
+				}
+				Assert.assertEquals(child.connectionPool.getNumActive(), 1);
+				Assert.assertEquals(it.next(), testClass);
+				it.close();
+				Assert.assertEquals(child.connectionPool.getNumActive(), 0);
+				Assert.assertEquals(parent.connectionPool.getNumActive(), 0);
+			}
+		}
+		finally {
+			keeper.close();
+		}
+	}
+	
+	@Test
+	public void testPrimaryKeyRange() {
+		List<PrimaryKeyRange> parts = new PrimaryKeyRange(1, 10).split(3);
+		Assert.assertEquals(parts, Arrays.asList(new PrimaryKeyRange(1, 4), new PrimaryKeyRange(5, 7), new PrimaryKeyRange(8, 10)));
+		Assert.assertEquals(new PrimaryKeyRange(1, 2).split(5).size(), 2);
+		Assert.assertEquals(parts.get(1).where("testID", "i = ?"), "(i = ?) AND testID >= ? AND testID <= ?");
+		
+		try (TestDAO tdao = new TestDAO(con)) {
+			Assert.assertEquals(tdao.loadPrimaryKeyRange(null, null, null), new PrimaryKeyRange(1, 1));
+			Assert.assertNull(tdao.loadPrimaryKeyRange(null, "i > ?", new ParameterList(1000)));
+			
+			List<TestClass> all = new ArrayList<>();
+			for (PrimaryKeyRange range : new PrimaryKeyRange(1, 1).split(4)) {
+				all.addAll(tdao.loadAllFromWhere(null, range.where("testID", null), range.params(null), null, "testID"));
+			}
+			Assert.assertEquals(all, tdao.loadAll());
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testInsert", "testUpdate", "testDelete"})
+	public void testBatchInsertUpdateDelete() {
+		try (TestDAO tdao = new TestDAO(con)) {
+			List<TestClass> neu = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				TestClass t = new TestClass();
+				t.setS("batch" + i);
+				t.setI(i);
+				t.setD(new Date());
+				t.setTest2(testClass2);
+				neu.add(t);
+			}
+			tdao.insertAll(neu);
+			for (TestClass t : neu) {
+				Assert.assertNotNull(t.getPrimary());
+				Assert.assertEquals(tdao.loadFromID(t.getPrimary()), t);
+			}
+			
+			for (TestClass t : neu) {
+				t.setI(t.getI() + 10);
+			}
+			tdao.updateAll(neu);
+			for (TestClass t : neu) {
+				Assert.assertEquals(tdao.loadFromID(t.getPrimary()), t);
+			}
+			
+			tdao.deleteAll(neu);
+			for (TestClass t : neu) {
+				Assert.assertNull(t.getPrimary());
+			}
+			Assert.assertEquals(tdao.loadAll(), Collections.singletonList(testClass));
+		}
+	}
+
+	@Test(dependsOnMethods = {"testBatchInsertUpdateDelete"})
+	public void testBatchCascadeBeforeBorrow() {
+		try (CascadeTestDAO tdao = new CascadeTestDAO(con)) {
+			List<TestClass> neu = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				TestClass t = new TestClass();
+				t.setI(i);
+				t.setD(new Date());
+				neu.add(t);
+			}
+			tdao.insertAll(neu);
+			Assert.assertEquals(tdao.activeBeforeInsert, Arrays.asList(0, 0, 0));
+			for (TestClass t : neu) {
+				Assert.assertNotNull(t.getTest2().getPrimary());
+				Assert.assertEquals(tdao.loadFromID(t.getPrimary()), t);
+			}
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testBatchInsertUpdateDelete"})
+	public void testBatchInsertShortGeneratedKeys() throws SQLException {
+		AtomicInteger batches = new AtomicInteger();
+		try (PooledTestDAO tdao = new PooledTestDAO(shortBatchKeys(con, batches))) {
+			List<TestClass> neu = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				TestClass t = new TestClass();
+				t.setI(i);
+				t.setD(new Date());
+				t.setTest2(testClass2);
+				neu.add(t);
+			}
+			tdao.insertAll(neu);
+			for (TestClass t : neu) {
+				Assert.assertNotNull(t.getPrimary());
+				Assert.assertEquals(tdao.loadFromID(t.getPrimary()), t);
+			}
+			Assert.assertEquals(tdao.loadAll().size(), 4);
+			Assert.assertEquals(batches.get(), 1);
+			
+			TestClass next = new TestClass();
+			next.setI(3);
+			next.setD(new Date());
+			next.setTest2(testClass2);
+			tdao.insertAll(Collections.singletonList(next));
+			Assert.assertNotNull(next.getPrimary());
+			Assert.assertEquals(batches.get(), 2);
+			Assert.assertEquals(tdao.loadAll().size(), 5);
+		}
+		Assert.assertTrue(con.getAutoCommit());
+	}
+	
+	/**
+	 * Simuliert einen Treiber, der nach einem Batch keine generierten Keys liefert
+	 */
+	private static Connection shortBatchKeys(final Connection con, final AtomicInteger batches) {
+		return (Connection) Proxy.newProxyInstance(TestRunner.class.getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				Object result = invokeTarget(con, method, args);
+				if (result instanceof PreparedStatement) return shortBatchKeys((PreparedStatement) result, batches);
+				return result;
+			}
+		});
+	}
+	
+	private static PreparedStatement shortBatchKeys(final PreparedStatement pst, final AtomicInteger batches) {
+		final boolean[] batch = {false};
+		return (PreparedStatement) Proxy.newProxyInstance(TestRunner.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (method.getName().equals("executeBatch")) {
+					batch[0] = true;
+					batches.incrementAndGet();
+				}
+				else if (method.getName().equals("executeUpdate")) batch[0] = false;
+				final Object result = invokeTarget(pst, method, args);
+				if (!batch[0] || !method.getName().equals("getGeneratedKeys")) return result;
+				return Proxy.newProxyInstance(TestRunner.class.getClassLoader(), new Class<?>[]{ResultSet.class}, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getName().equals("next")) return false;
+						return invokeTarget(result, method, args);
+					}
+				});
+			}
+		});
+	}
+	
+	private static Object invokeTarget(final Object target, final Method method, final Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testBatchInsertUpdateDelete"})
+	public void testLoadFromIDs() {
+		try (TestDAO tdao = new TestDAO(con)) {
+			List<TestClass> neu = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				TestClass t = new TestClass();
+				t.setS("ids" + i);
+				t.setI(i);
+				t.setD(new Date());
+				neu.add(t);
+			}
+			tdao.insertAll(neu);
+			
+			List<TestClass> expected = new ArrayList<>(neu);
+			Collections.reverse(expected);
+			expected.add(testClass);
+			List<Integer> ids = new ArrayList<>();
+			for (TestClass t : expected) {
+				ids.add(t.getPrimary());
+			}
+			Assert.assertEquals(tdao.loadFromIDs(ids), expected);
+			
+			ids.add(-1);
+			Assert.assertEquals(tdao.loadMapFromIDs(ids).size(), expected.size());
+			try {
+				tdao.loadFromIDs(ids);
+				Assert.fail("EntryNotFoundException erwartet");
+			}
+			catch (EntryNotFoundException ignored) {
+			}
+		}
+	}
+
+	@Test(dependsOnMethods = {"testBatchInsertUpdateDelete"})
+	public void testDeferredForeignKeys() {
+		try (DeferredTestDAO tdao = new DeferredTestDAO(con)) {
+			List<TestClass> expected = new ArrayList<>();
+			expected.add(testClass);
+			for (int i = 0; i < 4; i++) {
+				TestClass t = new TestClass();
+				t.setS("deferred" + i);
+				t.setI(i);
+				t.setD(new Date());
+				t.setTest2(i % 2 == 0 ? testClass2 : null);
+				expected.add(t);
+			}
+			tdao.insertAll(expected.subList(1, expected.size()));
+			
+			List<TestClass> actual = tdao.loadAll();
+			Assert.assertEquals(actual, expected);
+			Assert.assertSame(actual.get(0).getTest2(), actual.get(1).getTest2());
+			Assert.assertEquals(actual.get(0).getTest2().getPrimary(), testClass2.getPrimary());
+			Assert.assertNull(RsUtils.getForeignKeyCollector());
+		}
+	}
+
+	@Test(dependsOnMethods = {"testPooledConnectionReuse"})
+	public void testIterateAll() {
+		try (PooledTestDAO tdao = new PooledTestDAO(con)) {
+			List<TestClass> actual = new ArrayList<>();
+			try (DAOIterator<TestClass, Integer> it = tdao.iterateAll()) {
+				while (it.hasNext()) {
+					actual.add(it.next());
+				}
+				Assert.assertTrue(it.isClosed());
+			}
+			Assert.assertEquals(actual, Collections.singletonList(testClass));
+			
+			try (DAOIterator<TestClass, Integer> it = tdao.iterateAll()) {
+				Assert.assertEquals(tdao.connectionPool.getNumActive(), 1);
+				Assert.assertEquals(it.peek(), testClass);
+			}
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+	}
+
+	@Test(dependsOnMethods = {"testLoadOne", "testUpdate"})
+	public void testObjectCache() {
+		try (CachedTestDAO tdao = new CachedTestDAO(con)) {
+			ObjectCache<Integer, TestClass> cache = tdao.getObjectCache();
+			TestClass first = tdao.loadFromID(testClass.getPrimary());
+			Assert.assertSame(tdao.loadFromID(testClass.getPrimary()), first);
+			Assert.assertEquals(cache.getHits(), 1);
+			Assert.assertEquals(cache.getMisses(), 1);
+			
+			first.setI(42);
+			tdao.updateIntoDB(first);
+			Assert.assertEquals(cache.size(), 0);
+			TestClass reloaded = tdao.loadFromID(testClass.getPrimary());
+			Assert.assertNotSame(reloaded, first);
+			Assert.assertEquals(reloaded.getI(), 42);
+			
+			List<TestClass> neu = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				TestClass t = new TestClass();
+				t.setD(new Date());
+				neu.add(t);
+			}
+			tdao.insertAll(neu);
+			tdao.loadFromIDs(Arrays.asList(neu.get(0).getPrimary(), neu.get(1).getPrimary()));
+			Assert.assertEquals(cache.size(), 2);
+			Assert.assertEquals(cache.getEvictions(), 1);
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testLoadOne", "testUpdate"})
+	public void testObjectCacheGeneration() throws Exception {
+		final AtomicInteger invalidateDuringLoad = new AtomicInteger();
+		try (CachedTestDAO tdao = new CachedTestDAO(con) {
+			@Override
+			protected @NotNull ResultSet getResultSet(final @NotNull PreparedStatement pst, final @Nullable String cacheKey, final @Nullable List<?> params) throws SQLException {
+				ResultSet rs = super.getResultSet(pst, cacheKey, params);
+				if (invalidateDuringLoad.getAndSet(0) == 1) invalidateCached(testClass.getPrimary());
+				return rs;
+			}
+		}) {
+			ObjectCache<Integer, TestClass> cache = tdao.getObjectCache();
+			long generation = cache.getGeneration();
+			TestClass loaded = tdao.loadFromID(testClass.getPrimary());
+			Assert.assertEquals(cache.size(), 1);
+			
+			cache.invalidate(testClass.getPrimary());
+			Assert.assertFalse(cache.put(loaded, generation));
+			Assert.assertTrue(cache.put(loaded, cache.getGeneration()));
+			cache.invalidateAll();
+			Assert.assertFalse(cache.put(loaded, generation));
+			Assert.assertEquals(cache.size(), 0);
+			
+			invalidateDuringLoad.set(1);
+			Assert.assertEquals(tdao.loadFromID(testClass.getPrimary()), loaded);
+			Assert.assertEquals(cache.size(), 0);
+			
+			invalidateDuringLoad.set(1);
+			Assert.assertEquals(tdao.loadFromIDs(Collections.singletonList(testClass.getPrimary())), Collections.singletonList(loaded));
+			Assert.assertEquals(cache.size(), 0);
+			
+			Assert.assertEquals(tdao.loadFromID(testClass.getPrimary()), loaded);
+			Assert.assertEquals(cache.size(), 1);
+		}
+	}
+	
+	@Test(dependsOnMethods = {"testLoadOne", "testUpdate"})
+	public void testObjectCacheTransactionScope() {
+		try (CachedTestDAO tdao = new CachedTestDAO(con)) {
+			ObjectCache<Integer, TestClass> cache = tdao.getObjectCache();
+			int committed = tdao.loadFromID(testClass.getPrimary()).getI();
+			cache.invalidateAll();
+			
+			try (TransactionScope tx = TransactionScope.begin()) {
+				TestClass t = tdao.loadFromID(testClass.getPrimary());
+				t.setI(committed + 100);
+				tdao.updateIntoDB(t);
+				Assert.assertEquals(tdao.loadFromID(testClass.getPrimary()).getI(), committed + 100);
+				Assert.assertEquals(cache.size(), 0);
+				
+				Assert.assertTrue(cache.put(t, cache.getGeneration()));
+				tx.rollback();
+				Assert.assertEquals(cache.size(), 0);
+			}
+			
+			TestClass reloaded = tdao.loadFromID(testClass.getPrimary());
+			Assert.assertEquals(reloaded.getI(), committed);
+			Assert.assertSame(tdao.loadFromID(testClass.getPrimary()), reloaded);
+		}
+	}
+	
+	@Test
+	public void testIdentityMap() {
+		try (TestDAO tdao = new TestDAO(con); TestDAO other = new TestDAO(con)) {
+			TestClass t = new TestClass();
+			t.setS("identity");
+			t.setD(new Date());
+			t.setTest2(testClass2);
+			tdao.insertIntoDB(t);
+			
+			try (IdentityMap map = IdentityMap.open()) {
+				TestClass first = tdao.loadFromID(testClass.getPrimary());
+				Assert.assertSame(other.loadFromID(testClass.getPrimary()), first);
+				
+				List<TestClass> all = other.loadAll();
+				Assert.assertSame(all.get(0), first);
+				Assert.assertSame(all.get(1).getTest2(), first.getTest2());
+				Assert.assertSame(map, IdentityMap.current());
+				
+				tdao.deleteFromDB(all.get(1));
+				Assert.assertEquals(other.loadAll().size(), 1);
+			}
+			Assert.assertNull(IdentityMap.current());
+			Assert.assertNotSame(tdao.loadFromID(testClass.getPrimary()), other.loadFromID(testClass.getPrimary()));
+		}
+	}
+	
+	@Test
+	public void testDatabaseTypeCached() throws Exception {
+		try (TestDAO tdao = new TestDAO(con)) {
+			DAOConnection dcon = tdao.connectionPool.borrowObject();
+			try {
+				Assert.assertEquals(dcon.getDatabaseType(), DatabaseType.H2);
+			}
+			finally {
+				tdao.connectionPool.returnObject(dcon);
+			}
+		}
+		Connection closed = DriverManager.getConnection("jdbc:h2:mem:", "sa", "");
+		closed.close();
+		Assert.assertEquals(DatabaseType.detect(con, closed), DatabaseType.H2);
+	}
+	
+	@Test
+	public void testSlowQueryLog() {
+		try (SlowQueryTestDAO tdao = new SlowQueryTestDAO(con)) {
+			TestClass t = tdao.loadFromID(testClass.getPrimary());
+			tdao.updateIntoDB(t);
+			Assert.assertEquals(tdao.slowQueries, Arrays.asList("loadFromID", "update"));
+		}
+		try (TestDAO tdao = new TestDAO(con)) {
+			Assert.assertEquals(tdao.getSlowQueryMillis(), -1);
+		}
+	}
+	
+	@Test
+	public void testSQLTemplates() {
+		try (TestDAO tdao = new TestDAO(con)) {
+			SQLTemplates templates = tdao.getSQLTemplates();
+			Assert.assertSame(tdao.getSQLTemplates(), templates);
+			Assert.assertSame(tdao.getFelderID(), templates.getSelect());
+			Assert.assertEquals(templates.getSelectFrom(), "SELECT " + templates.getSelect() + " FROM " + tdao.getTable());
+			Assert.assertEquals(templates.getDelete(), "DELETE FROM " + tdao.getTable() + " WHERE " + tdao.getPrimaryCol() + "=?");
+		}
+		String where = "a=? AND b=?";
+		Assert.assertSame(SQLUtils.nullableWhere(where, new ParameterList(1, 2)), where);
+		Assert.assertEquals(SQLUtils.nullableWhere(where, new ParameterList(1, new Parameter(null, Types.INTEGER))), "a=? AND (b=? OR b IS NULL)");
+	}
+	
+	@Test
+	public void testParameterTypeDispatch() throws SQLException {
+		try (PreparedStatement pst = con.prepareStatement("SELECT CAST(? AS VARCHAR), CAST(? AS TIMESTAMP), CAST(? AS DECIMAL(10, 2))")) {
+			Date date = new Date(0) {
+			};
+			int pos = new Parameter(TimeUnit.SECONDS).setParameter(pst, 1);
+			pos = new Parameter(date).setParameter(pst, pos);
+			pos = new Parameter(new BigDecimal("1.50")).setParameter(pst, pos);
+			Assert.assertEquals(pos, 4);
+			try (ResultSet rs = pst.executeQuery()) {
+				Assert.assertTrue(rs.next());
+				Assert.assertEquals(rs.getString(1), "SECONDS");
+				Assert.assertEquals(rs.getTimestamp(2).getTime(), 0);
+				Assert.assertEquals(rs.getBigDecimal(3), new BigDecimal("1.50"));
+			}
+		}
+	}
+	
+	@Test
+	public void testParameterBuffer() throws SQLException {
+		ParameterBuffer buffer = new ParameterBuffer(1);
+		try (PreparedStatement pst = con.prepareStatement("SELECT CAST(? AS INT), CAST(? AS BIGINT), CAST(? AS VARCHAR)")) {
+			for (int i = 0; i < 2; i++) {
+				Assert.assertEquals(buffer.reset().addInt(i).addLong(10L + i).addNull(Types.VARCHAR).size(), 3);
+				Assert.assertEquals(buffer.setParameter(pst, 1), 4);
+				try (ResultSet rs = pst.executeQuery()) {
+					Assert.assertTrue(rs.next());
+					Assert.assertEquals(rs.getInt(1), i);
+					Assert.assertEquals(rs.getLong(2), 10L + i);
+					Assert.assertNull(rs.getString(3));
+				}
+			}
+		}
+		Assert.assertEquals(buffer.toString(), "ParameterBuffer [1, 11, null]");
+	}
+	
+	@Test
+	public void testRowMapper() {
+		try (MappedTestDAO tdao = new MappedTestDAO(con)) {
+			TestClass t = new TestClass();
+			t.setS(null);
+			t.setI(7);
+			t.setD(new Date(1000));
+			tdao.insertIntoDB(t);
+			
+			List<TestClass> actual = tdao.loadAll();
+			Assert.assertEquals(actual, Arrays.asList(testClass, t));
+			Assert.assertEquals(actual.get(0).getTest2(), testClass2);
+			Assert.assertNull(actual.get(1).getTest2());
+		}
+	}
+	
+	@Test
+	public void testForeignKeyQueryMetrics() throws Exception {
+		final InProcessDAOMetrics metrics = new InProcessDAOMetrics();
+		try (CachedTestDAO tdao = new CachedTestDAO(con) {
+			@Override
+			protected @NotNull DAOMetrics getMetrics() {
+				return metrics;
+			}
+		}; PreparedStatement pst = con.prepareStatement("SELECT Test FROM Kreuz"); ResultSet rs = pst.executeQuery()) {
+			Assert.assertTrue(rs.next());
+			TestClass first = RsUtils.loadedObjectsOrNull(1, rs, tdao);
+			Assert.assertSame(RsUtils.loadedObjectsOrNull(1, rs, tdao), first);
+			Assert.assertEquals(tdao.getObjectCache().getHits(), 1);
+			Assert.assertEquals(metrics.snapshot().getForeignKeyQueries().get(tdao.getClass().getName()), Long.valueOf(1));
+		}
+	}
+	
+	@Test
+	public void testMetrics() throws Exception {
+		InProcessDAOMetrics metrics = new InProcessDAOMetrics();
+		Instrumentation.setMetrics(metrics);
+		try (PooledTestDAO tdao = new PooledTestDAO(con)) {
+			tdao.loadAll();
+			tdao.loadAll();
+			
+			DAOMetricsSnapshot snapshot = metrics.snapshot();
+			String dao = PooledTestDAO.class.getName();
+			StatementStats loadAll = snapshot.getStatements().get(dao + "#loadAll");
+			Assert.assertEquals(loadAll.getExecutions(), 2);
+			Assert.assertEquals(loadAll.getRows(), 2);
+			Assert.assertEquals(snapshot.getStatementCaches().get(dao).getHits(), 1);
+			Assert.assertEquals(snapshot.getStatementCaches().get(dao).getMisses(), 1);
+			String pool = tdao.connectionPool.getSharedPool().getName();
+			Assert.assertEquals(snapshot.getPools().get(pool).getBorrows(), 2);
+			Assert.assertEquals(snapshot.getPools().get(pool).getIdle(), 1);
+			Assert.assertEquals(snapshot.getForeignKeyQueries().get(Test2DAO.class.getName()), Long.valueOf(2));
+			
+			ObjectName name = metrics.registerMBean();
+			try {
+				CompositeData mbean = (CompositeData) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Snapshot");
+				Assert.assertTrue(((TabularData) mbean.get("statements")).containsKey(new Object[] {dao + "#loadAll"}));
+			}
+			finally {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+			}
+		}
+		finally {
+			Instrumentation.setMetrics(null);
+		}
+		Assert.assertSame(Instrumentation.getMetrics(), NoOpDAOMetrics.INSTANCE);
+	}
 }
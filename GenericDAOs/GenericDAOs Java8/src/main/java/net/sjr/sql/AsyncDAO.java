@@ -0,0 +1,157 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Asynchrone Fassade um eine {@link DAO}. Die CRUD Methoden liefern ein {@link CompletableFuture}, weitere Methoden sind über {@link #supplyAsync(java.util.function.Function)} erreichbar
+ *
+ * @param <T> Typ des zu speichernden Java Objektes
+ * @param <P> Typ des Primary Keys
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class AsyncDAO<T extends DBObject<P>, P extends Number> extends AsyncDAOBase<DAO<T, P>> {
+	
+	/**
+	 * Erstellt die {@link AsyncDAO} mit einem eigenen, an den Pool angepassten {@link ExecutorService}
+	 *
+	 * @param dao die {@link DAO}
+	 */
+	public AsyncDAO(final @NotNull DAO<T, P> dao) {
+		super(dao);
+	}
+	
+	/**
+	 * Erstellt die {@link AsyncDAO} mit einem vorhandenen {@link ExecutorService}
+	 *
+	 * @param dao      die {@link DAO}
+	 * @param executor der {@link ExecutorService}
+	 */
+	public AsyncDAO(final @NotNull DAO<T, P> dao, final @NotNull ExecutorService executor) {
+		super(dao, executor);
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#loadFromID(Number)}
+	 *
+	 * @param primary der Primary Key
+	 * @return das {@link CompletableFuture} mit dem Objekt
+	 */
+	public @NotNull CompletableFuture<T> loadFromID(final @NotNull P primary) {
+		return supplyAsync(d -> d.loadFromID(primary));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#loadFromIDs(Collection)}
+	 *
+	 * @param primaries die Primary Keys
+	 * @return das {@link CompletableFuture} mit den Objekten
+	 */
+	public @NotNull CompletableFuture<List<T>> loadFromIDs(final @NotNull Collection<P> primaries) {
+		return supplyAsync(d -> d.loadFromIDs(primaries));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#loadMapFromIDs(Collection, DBObject[])}
+	 *
+	 * @param primaries     die Primary Keys
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return das {@link CompletableFuture} mit den Objekten nach Primary Key
+	 */
+	public @NotNull CompletableFuture<Map<P, T>> loadMapFromIDs(final @NotNull Collection<P> primaries, final DBObject... loadedObjects) {
+		return supplyAsync(d -> d.loadMapFromIDs(primaries, loadedObjects));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#loadAll()}
+	 *
+	 * @return das {@link CompletableFuture} mit allen Objekten
+	 */
+	public @NotNull CompletableFuture<List<T>> loadAll() {
+		return supplyAsync(DAO::loadAll);
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#insertIntoDB(DBObject)}
+	 *
+	 * @param v das Objekt
+	 * @return das {@link CompletableFuture} mit dem eingefügten Objekt
+	 */
+	public @NotNull CompletableFuture<T> insertIntoDB(final @NotNull T v) {
+		return supplyAsync(d -> {
+			d.insertIntoDB(v);
+			return v;
+		});
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#updateIntoDB(DBObject)}
+	 *
+	 * @param v das Objekt
+	 * @return das {@link CompletableFuture} mit dem geänderten Objekt
+	 */
+	public @NotNull CompletableFuture<T> updateIntoDB(final @NotNull T v) {
+		return supplyAsync(d -> {
+			d.updateIntoDB(v);
+			return v;
+		});
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#insertOrUpdate(DBObject)}
+	 *
+	 * @param v das Objekt
+	 * @return das {@link CompletableFuture} mit dem gespeicherten Objekt
+	 */
+	public @NotNull CompletableFuture<T> insertOrUpdate(final @NotNull T v) {
+		return supplyAsync(d -> {
+			d.insertOrUpdate(v);
+			return v;
+		});
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#deleteFromDB(DBObject)}
+	 *
+	 * @param v das Objekt
+	 * @return das {@link CompletableFuture}, das nach dem Löschen abgeschlossen wird
+	 */
+	public @NotNull CompletableFuture<Void> deleteFromDB(final @NotNull T v) {
+		return runAsync(d -> d.deleteFromDB(v));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#insertAll(Collection)}
+	 *
+	 * @param values die Objekte
+	 * @return das {@link CompletableFuture}, das nach dem Einfügen abgeschlossen wird
+	 */
+	public @NotNull CompletableFuture<Void> insertAll(final @NotNull Collection<T> values) {
+		return runAsync(d -> d.insertAll(values));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#updateAll(Collection)}
+	 *
+	 * @param values die Objekte
+	 * @return das {@link CompletableFuture}, das nach dem Ändern abgeschlossen wird
+	 */
+	public @NotNull CompletableFuture<Void> updateAll(final @NotNull Collection<T> values) {
+		return runAsync(d -> d.updateAll(values));
+	}
+	
+	/**
+	 * Asynchrones {@link DAO#deleteAll(Collection)}
+	 *
+	 * @param values die Objekte
+	 * @return das {@link CompletableFuture}, das nach dem Löschen abgeschlossen wird
+	 */
+	public @NotNull CompletableFuture<Void> deleteAll(final @NotNull Collection<T> values) {
+		return runAsync(d -> d.deleteAll(values));
+	}
+}
@@ -0,0 +1,135 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.UncheckedSQLException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Basisklasse einer asynchronen Fassade um eine {@link DAOBase}. Alle Aufrufe werden auf einem begrenzten {@link ExecutorService} ausgeführt und liefern ein {@link CompletableFuture}.
+ * So können voneinander unabhängige Abfragen, z.B. {@code loadFromID} auf mehreren DAOs, gleichzeitig laufen.<br>
+ * Schlägt ein Aufruf fehl, wird das {@link CompletableFuture} mit der ursprünglichen Exception, z.B. einer {@link UncheckedSQLException}, abgeschlossen.
+ * {@link CompletableFuture#join()} verpackt diese in eine {@link CompletionException}.<br>
+ * Echte Parallelität gibt es nur, wenn die DAO mit einer {@link javax.sql.DataSource} erstellt wurde. Bei einer statischen Datenbankverbindung teilen sich alle Aufrufe diese eine Verbindung
+ *
+ * @param <D> Typ der DAO
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public abstract class AsyncDAOBase<D extends DAOBase<?, ?>> implements AutoCloseable {
+	private static final AtomicInteger EXECUTOR_COUNTER = new AtomicInteger();
+	
+	protected final D dao;
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	
+	/**
+	 * Erstellt die {@link AsyncDAOBase} mit einem eigenen {@link ExecutorService}, dessen Größe über {@link #getThreadCount(DAOBase)} an den Pool der DAO angepasst ist
+	 *
+	 * @param dao die DAO
+	 */
+	protected AsyncDAOBase(final @NotNull D dao) {
+		this(dao, createExecutor(dao), true);
+	}
+	
+	/**
+	 * Erstellt die {@link AsyncDAOBase} mit einem vorhandenen {@link ExecutorService}, z.B. um ihn mit anderen Fassaden zu teilen. Dieser wird von {@link #close()} nicht beendet
+	 *
+	 * @param dao      die DAO
+	 * @param executor der {@link ExecutorService}
+	 */
+	protected AsyncDAOBase(final @NotNull D dao, final @NotNull ExecutorService executor) {
+		this(dao, executor, false);
+	}
+	
+	private AsyncDAOBase(final @NotNull D dao, final @NotNull ExecutorService executor, final boolean ownsExecutor) {
+		this.dao = dao;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+	}
+	
+	/**
+	 * Gibt an, wie viele Threads der eigene {@link ExecutorService} hat. Entspricht {@link PoolPolicy#getMaxTotal()} oder, wenn dieser nicht begrenzt ist,
+	 * {@link PoolPolicy#getMaxIdle()}, damit nicht mehr Verbindungen gleichzeitig genutzt werden, als der Pool offen hält
+	 *
+	 * @param dao die DAO
+	 * @return die Anzahl der Threads
+	 */
+	public static int getThreadCount(final @NotNull DAOBase<?, ?> dao) {
+		PoolPolicy policy = dao.getPoolPolicy();
+		if (policy.getMaxTotal() > 0) return policy.getMaxTotal();
+		if (policy.getMaxIdle() > 0) return policy.getMaxIdle();
+		return Runtime.getRuntime().availableProcessors();
+	}
+	
+	/**
+	 * Erstellt einen {@link ExecutorService} mit {@link #getThreadCount(DAOBase)} Daemon Threads, die nach einer Minute ohne Aufgabe beendet werden
+	 *
+	 * @param dao die DAO
+	 * @return der {@link ExecutorService}
+	 */
+	public static @NotNull ExecutorService createExecutor(final @NotNull DAOBase<?, ?> dao) {
+		final String prefix = "AsyncDAO-" + EXECUTOR_COUNTER.incrementAndGet() + '-' + dao.getClass().getSimpleName() + '-';
+		final AtomicInteger threadCounter = new AtomicInteger();
+		ThreadFactory threadFactory = r -> {
+			Thread thread = new Thread(r, prefix + threadCounter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		int threads = getThreadCount(dao);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+	
+	/**
+	 * @return die DAO, auf der die Aufrufe ausgeführt werden
+	 */
+	public @NotNull D getDAO() {
+		return dao;
+	}
+	
+	/**
+	 * @return der {@link ExecutorService}, auf dem die Aufrufe ausgeführt werden
+	 */
+	public @NotNull ExecutorService getExecutor() {
+		return executor;
+	}
+	
+	/**
+	 * Führt eine beliebige Methode der DAO asynchron aus
+	 *
+	 * @param call die Methode
+	 * @param <R>  Typ des Ergebnisses
+	 * @return das {@link CompletableFuture} mit dem Ergebnis
+	 */
+	public @NotNull <R> CompletableFuture<R> supplyAsync(final @NotNull Function<? super D, ? extends R> call) {
+		return CompletableFuture.supplyAsync(() -> call.apply(dao), executor);
+	}
+	
+	/**
+	 * Führt eine beliebige Methode der DAO ohne Ergebnis asynchron aus
+	 *
+	 * @param call die Methode
+	 * @return das {@link CompletableFuture}, das nach dem Aufruf abgeschlossen wird
+	 */
+	public @NotNull CompletableFuture<Void> runAsync(final @NotNull Consumer<? super D> call) {
+		return CompletableFuture.runAsync(() -> call.accept(dao), executor);
+	}
+	
+	/**
+	 * Beendet den eigenen {@link ExecutorService}. Bereits übergebene Aufrufe werden noch ausgeführt. Die DAO selbst wird nicht geschlossen
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) executor.shutdown();
+	}
+}
@@ -0,0 +1,80 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Asynchrone Fassade um eine {@link KreuzDAOBase}
+ *
+ * @param <A>  Typ des ersten Java Objektes
+ * @param <PA> Typ des Primary Keys des ersten Java Objektes
+ * @param <B>  Typ des zweiten Java Objektes
+ * @param <PB> Typ des Primary Keys des zweiten Java Objektes
+ * @param <KO> Typ des KreuzObjektes mit allen verbundenen Objekten
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class AsyncKreuzDAO<A extends DBObject<PA>, PA extends Number, B extends DBObject<PB>, PB extends Number, KO extends Kreuz2Objekt<A, PA, B, PB>> extends AsyncDAOBase<KreuzDAOBase<A, PA, B, PB, KO>> {
+	
+	/**
+	 * Erstellt die {@link AsyncKreuzDAO} mit einem eigenen, an den Pool angepassten {@link ExecutorService}
+	 *
+	 * @param dao die {@link KreuzDAOBase}
+	 */
+	public AsyncKreuzDAO(final @NotNull KreuzDAOBase<A, PA, B, PB, KO> dao) {
+		super(dao);
+	}
+	
+	/**
+	 * Erstellt die {@link AsyncKreuzDAO} mit einem vorhandenen {@link ExecutorService}
+	 *
+	 * @param dao      die {@link KreuzDAOBase}
+	 * @param executor der {@link ExecutorService}
+	 */
+	public AsyncKreuzDAO(final @NotNull KreuzDAOBase<A, PA, B, PB, KO> dao, final @NotNull ExecutorService executor) {
+		super(dao, executor);
+	}
+	
+	/**
+	 * Asynchrones {@link KreuzDAOBase#loadAfromB(DBObject, DBObject[])}
+	 *
+	 * @param b             das zweite Objekt
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return das {@link CompletableFuture} mit den verbundenen Objekten
+	 */
+	public @NotNull CompletableFuture<List<A>> loadAfromB(final @Nullable B b, final DBObject... loadedObjects) {
+		return supplyAsync(d -> d.loadAfromB(b, loadedObjects));
+	}
+	
+	/**
+	 * Asynchrones {@link KreuzDAOBase#loadBfromA(DBObject, DBObject[])}
+	 *
+	 * @param a             das erste Objekt
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return das {@link CompletableFuture} mit den verbundenen Objekten
+	 */
+	public @NotNull CompletableFuture<List<B>> loadBfromA(final @Nullable A a, final DBObject... loadedObjects) {
+		return supplyAsync(d -> d.loadBfromA(a, loadedObjects));
+	}
+	
+	/**
+	 * Asynchrones {@link KreuzDAOBase#loadAllKreuze()}
+	 *
+	 * @return das {@link CompletableFuture} mit allen Kreuzobjekten
+	 */
+	public @NotNull CompletableFuture<List<KO>> loadAllKreuze() {
+		return supplyAsync(KreuzDAOBase::loadAllKreuze);
+	}
+	
+	/**
+	 * Asynchrones {@link KreuzDAOBase#loadAllCount()}
+	 *
+	 * @return das {@link CompletableFuture} mit der Anzahl
+	 */
+	public @NotNull CompletableFuture<Long> loadAllCount() {
+		return supplyAsync(KreuzDAOBase::loadAllCount);
+	}
+}
@@ -0,0 +1,291 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.EntryNotFoundException;
+import net.sjr.sql.exceptions.UnsupportedPrimaryException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bündelt gleichzeitige Anfragen nach einzelnen Primary Keys zu einer Abfrage mit IN Liste über {@link DAO#loadMapFromIDs(Collection, DBObject[])}.
+ * Alle Keys, die innerhalb eines Zeitfensters angefragt werden, werden gemeinsam geladen. Wird die maximale Größe eines Bündels erreicht, wird sofort geladen.
+ * Wird ein Key angefragt, der bereits geladen wird, bekommt der Aufrufer dasselbe {@link CompletableFuture}. Keys werden dafür vorher in den Typ des Primary Keys
+ * der DAO umgewandelt, sodass z.B. {@code 1} und {@code 1L} zusammen geladen werden.<br>
+ * Gibt es zu einem Key kein Objekt, wird dessen {@link CompletableFuture} wie bei {@link DAO#loadFromID(Number)} mit einer {@link EntryNotFoundException} abgeschlossen.
+ * Schlägt die Abfrage fehl, werden alle {@link CompletableFuture}s des Bündels mit der Exception abgeschlossen.<br>
+ * Die Abfragen laufen auf einem anderen Thread und sehen daher keine {@link IdentityMap} des Aufrufers. Nach {@link #close()} werden neue Anfragen mit einer
+ * {@link IllegalStateException} abgeschlossen
+ *
+ * @param <T> Typ des zu ladenden Java Objektes
+ * @param <P> Typ des Primary Keys
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class BatchLoader<T extends DBObject<P>, P extends Number> implements AutoCloseable {
+	private final DAO<T, P> dao;
+	private final long windowMillis;
+	private final int maxBatchSize;
+	private final Executor executor;
+	private final ExecutorService ownedExecutor;
+	private final ScheduledExecutorService scheduler;
+	
+	private final ConcurrentHashMap<P, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private Map<P, CompletableFuture<T>> pending = new LinkedHashMap<>();
+	private ScheduledFuture<?> scheduled;
+	private boolean closed = false;
+	
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong queries = new AtomicLong();
+	
+	/**
+	 * Erstellt einen {@link BatchLoader} mit einem Zeitfenster von 2ms, höchstens 128 Keys pro Bündel und einem eigenen, über {@link AsyncDAOBase#createExecutor(DAOBase)}
+	 * an den Pool angepassten {@link ExecutorService}
+	 *
+	 * @param dao die {@link DAO}
+	 */
+	public BatchLoader(final @NotNull DAO<T, P> dao) {
+		this(dao, 2, 128);
+	}
+	
+	/**
+	 * Erstellt einen {@link BatchLoader} mit einem eigenen, über {@link AsyncDAOBase#createExecutor(DAOBase)} an den Pool angepassten {@link ExecutorService}
+	 *
+	 * @param dao          die {@link DAO}
+	 * @param windowMillis wie lange nach dem ersten Key eines Bündels auf weitere Keys gewartet wird
+	 * @param maxBatchSize die maximale Anzahl an Keys pro Abfrage
+	 */
+	public BatchLoader(final @NotNull DAO<T, P> dao, final long windowMillis, final int maxBatchSize) {
+		this(dao, windowMillis, maxBatchSize, AsyncDAOBase.createExecutor(dao), true);
+	}
+	
+	/**
+	 * Erstellt einen {@link BatchLoader}, der die Abfragen auf einem vorhandenen {@link Executor} ausführt. Dieser wird von {@link #close()} nicht beendet
+	 *
+	 * @param dao          die {@link DAO}
+	 * @param windowMillis wie lange nach dem ersten Key eines Bündels auf weitere Keys gewartet wird
+	 * @param maxBatchSize die maximale Anzahl an Keys pro Abfrage
+	 * @param executor     der {@link Executor} für die Abfragen
+	 */
+	public BatchLoader(final @NotNull DAO<T, P> dao, final long windowMillis, final int maxBatchSize, final @NotNull Executor executor) {
+		this(dao, windowMillis, maxBatchSize, executor, false);
+	}
+	
+	private BatchLoader(final @NotNull DAO<T, P> dao, final long windowMillis, final int maxBatchSize, final @NotNull Executor executor, final boolean ownsExecutor) {
+		if (windowMillis < 0) throw new IllegalArgumentException("Das Zeitfenster darf nicht negativ sein");
+		if (maxBatchSize < 1) throw new IllegalArgumentException("Ein Bündel muss mindestens einen Key enthalten");
+		this.dao = dao;
+		this.windowMillis = windowMillis;
+		this.maxBatchSize = maxBatchSize;
+		this.executor = executor;
+		this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+		final String name = "BatchLoader-" + dao.getClass().getSimpleName();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Lädt ein Objekt von T an Hand seiner PrimaryID zusammen mit allen anderen Keys des aktuellen Zeitfensters
+	 *
+	 * @param primary die PrimaryID des Objektes
+	 * @return das {@link CompletableFuture} mit dem Objekt
+	 */
+	public @NotNull CompletableFuture<T> load(final @NotNull P primary) {
+		requests.incrementAndGet();
+		P key = normalize(primary);
+		CompletableFuture<T> existing = inFlight.get(key);
+		if (existing != null) return existing;
+		CompletableFuture<T> created = new CompletableFuture<>();
+		existing = inFlight.putIfAbsent(key, created);
+		if (existing != null) return existing;
+		enqueue(key, created);
+		return created;
+	}
+	
+	/**
+	 * Lädt mehrere Objekte von T an Hand ihrer PrimaryIDs zusammen mit allen anderen Keys des aktuellen Zeitfensters
+	 *
+	 * @param primaries die PrimaryIDs der Objekte
+	 * @return das {@link CompletableFuture} mit den Objekten in der Reihenfolge der PrimaryIDs
+	 */
+	public @NotNull CompletableFuture<List<T>> loadMany(final @NotNull Collection<P> primaries) {
+		List<CompletableFuture<T>> futures = new ArrayList<>(primaries.size());
+		for (final P primary : primaries) {
+			futures.add(load(primary));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+			List<T> result = new ArrayList<>(futures.size());
+			for (final CompletableFuture<T> future : futures) {
+				result.add(future.join());
+			}
+			return result;
+		});
+	}
+	
+	/**
+	 * Lädt alle wartenden Keys sofort, ohne auf das Ende des Zeitfensters zu warten
+	 */
+	public void flush() {
+		dispatch(drain());
+	}
+	
+	/**
+	 * @return die Anzahl der Aufrufe von {@link #load(Number)}
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+	
+	/**
+	 * Gibt die Anzahl der ausgeführten Datenbankabfragen zurück. Ein Bündel mit mehr Keys als die größte IN Liste aus {@link DAO#IN_BUCKETS} braucht mehrere Abfragen,
+	 * ein Bündel, dessen Objekte alle im {@link ObjectCache} liegen, keine
+	 *
+	 * @return die Anzahl der ausgeführten Abfragen
+	 */
+	public long getBatchCount() {
+		return queries.get();
+	}
+	
+	/**
+	 * Lädt alle wartenden Keys und beendet den Zeitgeber sowie einen eigenen {@link ExecutorService}. Die DAO selbst wird nicht geschlossen
+	 */
+	@Override
+	public void close() {
+		Map<P, CompletableFuture<T>> batch;
+		lock.lock();
+		try {
+			closed = true;
+			batch = drainLocked();
+		}
+		finally {
+			lock.unlock();
+		}
+		dispatch(batch);
+		scheduler.shutdown();
+		if (ownedExecutor != null) ownedExecutor.shutdown();
+	}
+	
+	private void enqueue(final @NotNull P primary, final @NotNull CompletableFuture<T> future) {
+		Map<P, CompletableFuture<T>> batch = null;
+		lock.lock();
+		try {
+			if (closed) {
+				fail(Collections.singletonMap(primary, future), new IllegalStateException("Der BatchLoader wurde bereits geschlossen"));
+				return;
+			}
+			pending.put(primary, future);
+			if (pending.size() >= maxBatchSize) {
+				batch = drainLocked();
+			}
+			else if (scheduled == null) {
+				scheduled = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+		dispatch(batch);
+	}
+	
+	private @NotNull Map<P, CompletableFuture<T>> drain() {
+		lock.lock();
+		try {
+			return drainLocked();
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+	
+	private @NotNull Map<P, CompletableFuture<T>> drainLocked() {
+		Map<P, CompletableFuture<T>> batch = pending;
+		pending = new LinkedHashMap<>();
+		if (scheduled != null) {
+			scheduled.cancel(false);
+			scheduled = null;
+		}
+		return batch;
+	}
+	
+	private void dispatch(final Map<P, CompletableFuture<T>> batch) {
+		if (batch == null || batch.isEmpty()) return;
+		try {
+			executor.execute(() -> loadBatch(batch));
+		}
+		catch (final RuntimeException e) {
+			fail(batch, e);
+		}
+	}
+	
+	private void loadBatch(final @NotNull Map<P, CompletableFuture<T>> batch) {
+		Map<P, T> loaded;
+		try {
+			loaded = dao.loadMapFromIDs(batch.keySet(), queries);
+		}
+		catch (final RuntimeException e) {
+			fail(batch, e);
+			return;
+		}
+		for (final Map.Entry<P, CompletableFuture<T>> entry : batch.entrySet()) {
+			inFlight.remove(entry.getKey(), entry.getValue());
+			T v = loaded.get(entry.getKey());
+			if (v == null) entry.getValue().completeExceptionally(new EntryNotFoundException(dao.getPrimaryCol(), entry.getKey()));
+			else entry.getValue().complete(v);
+		}
+	}
+	
+	/**
+	 * Schließt alle {@link CompletableFuture}s eines Bündels mit einer Exception ab. Sie werden vorher aus den laufenden Anfragen entfernt,
+	 * damit eine neue Anfrage nach demselben Key nicht das abgeschlossene {@link CompletableFuture} bekommt
+	 *
+	 * @param batch das Bündel
+	 * @param e     die Exception
+	 */
+	private void fail(final @NotNull Map<P, CompletableFuture<T>> batch, final @NotNull Throwable e) {
+		for (final Map.Entry<P, CompletableFuture<T>> entry : batch.entrySet()) {
+			inFlight.remove(entry.getKey(), entry.getValue());
+			entry.getValue().completeExceptionally(e);
+		}
+	}
+	
+	/**
+	 * Wandelt einen Key in den Typ des Primary Keys der DAO um, wie er auch von {@link DAO#getPrimary(java.sql.ResultSet, int)} geliefert wird
+	 *
+	 * @param primary der Key
+	 * @return der umgewandelte Key
+	 * @throws IllegalArgumentException    wenn der Key nicht verlustfrei umgewandelt werden kann
+	 * @throws UnsupportedPrimaryException wenn der Typ des Primary Keys nicht unterstützt wird
+	 */
+	@SuppressWarnings("unchecked")
+	private @NotNull P normalize(final @NotNull Number primary) {
+		Class<P> primaryClass = dao.getPrimaryClass();
+		if (primaryClass.isInstance(primary)) return (P) primary;
+		Number converted;
+		if (primaryClass.equals(Integer.class)) converted = primary.intValue();
+		else if (primaryClass.equals(Long.class)) converted = primary.longValue();
+		else if (primaryClass.equals(Byte.class)) converted = primary.byteValue();
+		else if (primaryClass.equals(Short.class)) converted = primary.shortValue();
+		else if (primaryClass.equals(Double.class)) converted = primary.doubleValue();
+		else if (primaryClass.equals(Float.class)) converted = primary.floatValue();
+		else throw new UnsupportedPrimaryException(primaryClass.getName());
+		if (converted.doubleValue() != primary.doubleValue()) throw new IllegalArgumentException("Der Key " + primary + " kann nicht verlustfrei in " + primaryClass.getSimpleName() + " umgewandelt werden");
+		return (P) converted;
+	}
+}
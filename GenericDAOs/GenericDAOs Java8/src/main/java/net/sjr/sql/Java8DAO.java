@@ -0,0 +1,255 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Erweitert die {@link DAO} um Java 8 {@link Stream}s und paralleles Lesen über Partitionen des Primary Keys
+ *
+ * @param <T> Typ des zu speichernden Java Objektes
+ * @param <P> Typ des Primary Keys
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public abstract class Java8DAO<T extends DBObject<P>, P extends Number> extends DAO<T, P> {
+	
+	/**
+	 * Erstellt die {@link Java8DAO} mit einer {@link DataSource}
+	 *
+	 * @param ds die {@link DataSource}
+	 */
+	public Java8DAO(final @NotNull DataSource ds) {
+		super(ds);
+	}
+	
+	/**
+	 * Erstellt die {@link Java8DAO} mit einer bereits vorhandenen Datenbankverbindung
+	 *
+	 * @param con die bereits vorhandene Datenbankverbindung
+	 */
+	public Java8DAO(final @NotNull Connection con) {
+		super(con);
+	}
+	
+	/**
+	 * Erstellt die {@link Java8DAO} mit einem bereits vorhandenen {@link DAOBase}
+	 *
+	 * @param dao die bereits vorhandene {@link DAOBase}
+	 */
+	public Java8DAO(final @NotNull DAOBase<?, ?> dao) {
+		super(dao);
+	}
+	
+	/**
+	 * Erstellt einen {@link Stream} über alle Objekte von T, welcher direkt aus dem offenen {@link java.sql.ResultSet} liest.
+	 * Wie {@link #iterateAll()} erstellt er für jede Zeile ein neues Objekt und umgeht damit eine offene {@link IdentityMap}.<br>
+	 * <b>Der {@link Stream} muss geschlossen werden, wenn er nicht bis zum Ende durchlaufen wird!</b>
+	 *
+	 * @return der {@link Stream}
+	 */
+	public @NotNull Stream<T> stream() {
+		return stream(iterateAll());
+	}
+	
+	/**
+	 * Erstellt einen {@link Stream} über alle möglichen Einträge aus der Datenbank mit benutzerspezifizierten Bedingungen, welcher direkt aus dem offenen {@link java.sql.ResultSet} liest.
+	 * Wie {@link #iterateFromWhere(String, String, ParameterList, String, DBObject[])} erstellt er für jede Zeile ein neues Objekt und umgeht damit eine offene {@link IdentityMap}.<br>
+	 * <b>Der {@link Stream} muss geschlossen werden, wenn er nicht bis zum Ende durchlaufen wird!</b>
+	 *
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param order         Die ORDER Klausel oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return der {@link Stream}
+	 */
+	public @NotNull Stream<T> streamFromWhere(final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @Nullable String order, final DBObject... loadedObjects) {
+		return stream(iterateFromWhere(join, where, params, order, loadedObjects));
+	}
+	
+	/**
+	 * Teilt alle möglichen Einträge mit benutzerspezifizierten Bedingungen an Hand von MIN und MAX des Primary Keys in gleich breite Partitionen auf
+	 *
+	 * @param partitions die gewünschte Anzahl an Partitionen
+	 * @param join       Die JOIN Klausel oder {@code null}
+	 * @param where      Die WHERE Klausel oder {@code null}
+	 * @param params     Die {@link Parameter} oder {@code null}
+	 * @return die Partitionen in aufsteigender Reihenfolge. Leer, wenn es keine Einträge gibt
+	 * @throws net.sjr.sql.exceptions.UnsupportedPrimaryException wenn der Primary Key keine Ganzzahl ist
+	 */
+	public @NotNull List<PrimaryKeyRange> loadPartitions(final int partitions, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params) {
+		PrimaryKeyRange range = loadPrimaryKeyRange(join, where, params);
+		return range == null ? Collections.emptyList() : range.split(partitions);
+	}
+	
+	/**
+	 * Erstellt einen parallelen {@link Stream} über alle möglichen Einträge mit benutzerspezifizierten Bedingungen. Die Einträge werden nach dem Primary Key in Partitionen aufgeteilt,
+	 * die jeweils mit einer eigenen {@link DAOConnection} aus dem Pool gelesen werden. Für mehrere Sitzungen auf dem Server muss die DAO mit einer {@link DataSource} erstellt worden sein.<br>
+	 * <b>Der {@link Stream} muss geschlossen werden, wenn er nicht bis zum Ende durchlaufen wird!</b>
+	 *
+	 * @param partitions    die gewünschte Anzahl an Partitionen
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return der parallele {@link Stream}
+	 */
+	public @NotNull Stream<T> parallelStreamFromWhere(final int partitions, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject... loadedObjects) {
+		Set<DAOIterator<T, P>> open = ConcurrentHashMap.newKeySet();
+		PartitionSpliterator spliterator = new PartitionSpliterator(loadPartitions(partitions, join, where, params), join, where, params, loadedObjects, open);
+		return StreamSupport.stream(spliterator, true).onClose(() -> open.forEach(DAOIterator::close));
+	}
+	
+	/**
+	 * Liest alle möglichen Einträge mit benutzerspezifizierten Bedingungen parallel und übergibt sie an den {@link Consumer}. Jede Partition wird als eigene Aufgabe mit einer eigenen
+	 * {@link DAOConnection} auf dem {@link ExecutorService} ausgeführt. Der {@link Consumer} wird dabei gleichzeitig aus mehreren Threads aufgerufen.
+	 * Die Methode kehrt zurück, wenn alle Partitionen gelesen wurden. Schlägt eine Partition fehl, werden die übrigen abgebrochen
+	 *
+	 * @param partitions die gewünschte Anzahl an Partitionen
+	 * @param executor   der {@link ExecutorService}, auf dem die Partitionen gelesen werden
+	 * @param join       Die JOIN Klausel oder {@code null}
+	 * @param where      Die WHERE Klausel oder {@code null}
+	 * @param params     Die {@link Parameter} oder {@code null}
+	 * @param consumer   der {@link Consumer} für die gelesenen Objekte
+	 */
+	public void scanParallel(final int partitions, final @NotNull ExecutorService executor, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @NotNull Consumer<? super T> consumer) {
+		List<Future<?>> futures = new ArrayList<>();
+		for (final PrimaryKeyRange range : loadPartitions(partitions, join, where, params)) {
+			futures.add(executor.submit(() -> {
+				try (DAOIterator<T, P> it = iteratePartition(range, join, where, params)) {
+					while (it.hasNext()) {
+						if (Thread.currentThread().isInterrupted()) return;
+						consumer.accept(it.next());
+					}
+				}
+			}));
+		}
+		try {
+			for (final Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (final ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+		finally {
+			for (final Future<?> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+	
+	/**
+	 * Iteriert über alle Einträge einer Partition
+	 *
+	 * @param range         die Partition
+	 * @param join          Die JOIN Klausel oder {@code null}
+	 * @param where         Die WHERE Klausel oder {@code null}
+	 * @param params        Die {@link Parameter} oder {@code null}
+	 * @param loadedObjects Objekte, die schon geladen wurden und somit nicht neu geladen werden müssen
+	 * @return der {@link DAOIterator}
+	 */
+	protected @NotNull DAOIterator<T, P> iteratePartition(final @NotNull PrimaryKeyRange range, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject... loadedObjects) {
+		return iterateFromWhere(join, range.where(getPrimaryCol(), where), range.params(params), getPrimaryCol(), loadedObjects);
+	}
+	
+	/**
+	 * Wandelt einen {@link DAOIterator} in einen {@link Stream} um. Beim Schließen des {@link Stream}s wird auch der {@link DAOIterator} geschlossen
+	 *
+	 * @param iterator der {@link DAOIterator}
+	 * @param <T>      Typ des Java Objektes
+	 * @param <P>      Typ des Primary Keys
+	 * @return der {@link Stream}
+	 */
+	public static @NotNull <T extends DBObject<P>, P extends Number> Stream<T> stream(final @NotNull DAOIterator<T, P> iterator) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+							.onClose(iterator::close);
+	}
+	
+	/**
+	 * {@link Spliterator} über Partitionen, das beim Teilen die noch nicht begonnenen Partitionen halbiert und jede Partition mit einem eigenen {@link DAOIterator} liest
+	 */
+	private final class PartitionSpliterator implements Spliterator<T> {
+		private final List<PrimaryKeyRange> ranges;
+		private final String join;
+		private final String where;
+		private final ParameterList params;
+		private final DBObject[] loadedObjects;
+		private final Set<DAOIterator<T, P>> open;
+		private int from;
+		private final int to;
+		private DAOIterator<T, P> current;
+		
+		private PartitionSpliterator(final @NotNull List<PrimaryKeyRange> ranges, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject[] loadedObjects, final @NotNull Set<DAOIterator<T, P>> open) {
+			this(ranges, 0, ranges.size(), join, where, params, loadedObjects, open);
+		}
+		
+		private PartitionSpliterator(final @NotNull List<PrimaryKeyRange> ranges, final int from, final int to, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject[] loadedObjects, final @NotNull Set<DAOIterator<T, P>> open) {
+			this.ranges = ranges;
+			this.from = from;
+			this.to = to;
+			this.join = join;
+			this.where = where;
+			this.params = params;
+			this.loadedObjects = loadedObjects;
+			this.open = open;
+		}
+		
+		@Override
+		public boolean tryAdvance(final @NotNull Consumer<? super T> action) {
+			while (true) {
+				if (current == null) {
+					if (from >= to) return false;
+					current = iteratePartition(ranges.get(from++), join, where, params, loadedObjects);
+					open.add(current);
+				}
+				if (current.hasNext()) {
+					action.accept(current.next());
+					return true;
+				}
+				current.close();
+				open.remove(current);
+				current = null;
+			}
+		}
+		
+		@Override
+		public @Nullable Spliterator<T> trySplit() {
+			if (current != null || to - from < 2) return null;
+			int mid = (from + to) >>> 1;
+			PartitionSpliterator prefix = new PartitionSpliterator(ranges, from, mid, join, where, params, loadedObjects, open);
+			from = mid;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize() {
+			return from >= to && current == null ? 0 : Long.MAX_VALUE;
+		}
+		
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.NONNULL;
+		}
+	}
+}
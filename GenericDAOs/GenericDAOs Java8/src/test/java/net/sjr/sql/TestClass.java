@@ -0,0 +1,57 @@
+package net.sjr.sql;
+
+import java.util.Objects;
+
+/**
+ * Testobjekt für die {@link TestDAO}
+ */
+public class TestClass extends DBObjectImpl<Integer> {
+	private static final long serialVersionUID = 4581150349232807717L;
+	private String s = null;
+	private int i = 1;
+	
+	public TestClass() {
+	}
+	
+	public TestClass(String s, int i) {
+		this.s = s;
+		this.i = i;
+	}
+	
+	public String getS() {
+		return s;
+	}
+	
+	public void setS(String s) {
+		this.s = s;
+	}
+	
+	public int getI() {
+		return i;
+	}
+	
+	public void setI(int i) {
+		this.i = i;
+	}
+	
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		TestClass testClass = (TestClass) o;
+		return i == testClass.i && Objects.equals(s, testClass.s);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(s, i);
+	}
+	
+	@Override
+	public String toString() {
+		return "TestClass{" +
+				"s='" + s + '\'' +
+				", i=" + i +
+				'}';
+	}
+}
@@ -0,0 +1,65 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * {@link Java8DAO} für die Tabelle Test, welche die Datenbankverbindungen wiederverwendet
+ */
+public class TestDAO extends Java8DAO<TestClass, Integer> {
+	private static final String FELDER = "s, i";
+	private static final String PRIMARY = "testID";
+	private static final String TABLE = "Test";
+	
+	public TestDAO(DataSource ds) {
+		super(ds);
+	}
+	
+	public TestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected boolean shouldCloseAlways() {
+		return false;
+	}
+	
+	@Override
+	protected @NotNull String getFelder() {
+		return FELDER;
+	}
+	
+	@Override
+	protected @NotNull String getTable() {
+		return TABLE;
+	}
+	
+	@Override
+	protected @NotNull String getPrimaryCol() {
+		return PRIMARY;
+	}
+	
+	@Override
+	protected @NotNull ParameterList getPList(@NotNull TestClass v) {
+		return new ParameterList(new Parameter(v.getS(), Types.VARCHAR), v.getI());
+	}
+	
+	@Override
+	protected @NotNull TestClass getFromRS(ResultSet rs, DBObject... loadedObjects) throws SQLException {
+		TestClass result = new TestClass();
+		fillObject(rs, result, loadedObjects);
+		return result;
+	}
+	
+	@Override
+	protected void fillObject(@NotNull ResultSet rs, @NotNull TestClass result, DBObject... loadedObjects) throws SQLException {
+		result.setPrimary(rs.getInt(1));
+		result.setS(rs.getString(2));
+		result.setI(rs.getInt(3));
+	}
+}
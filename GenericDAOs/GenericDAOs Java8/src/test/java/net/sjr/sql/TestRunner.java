@@ -0,0 +1,325 @@
+package net.sjr.sql;
+
+import net.sjr.sql.exceptions.EntryNotFoundException;
+import net.sjr.sql.exceptions.UncheckedSQLException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests für die Java 8 Erweiterungen der GenericDAOs
+ */
+public class TestRunner {
+	private static final AtomicInteger DB_COUNTER = new AtomicInteger();
+	
+	private Connection con;
+	private JdbcDataSource ds;
+	
+	@BeforeMethod
+	public void connect() throws SQLException {
+		String url = "jdbc:h2:mem:java8-" + DB_COUNTER.incrementAndGet();
+		con = DriverManager.getConnection(url + ";INIT=RUNSCRIPT FROM 'classpath:ddl.sql'", "sa", "");
+		
+		ds = new JdbcDataSource();
+		ds.setURL(url);
+		ds.setUser("sa");
+		ds.setPassword("");
+	}
+	
+	@AfterMethod
+	public void disconnect() throws SQLException {
+		con.close();
+	}
+	
+	private static List<TestClass> insertRows(final TestDAO tdao, final int count) {
+		List<TestClass> result = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			result.add(new TestClass("row" + i, i));
+		}
+		tdao.insertAll(result);
+		return result;
+	}
+	
+	@Test
+	public void testAsyncFanOut() {
+		try (TestDAO tdao = new TestDAO(ds); AsyncDAO<TestClass, Integer> async = new AsyncDAO<>(tdao)) {
+			List<TestClass> rows = insertRows(tdao, 20);
+			List<CompletableFuture<TestClass>> futures = rows.stream().map(t -> async.loadFromID(t.getPrimary())).collect(Collectors.toList());
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+			
+			Assert.assertEquals(futures.stream().map(CompletableFuture::join).collect(Collectors.toList()), rows);
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+			Assert.assertTrue(tdao.connectionPool.getCreatedCount() <= AsyncDAOBase.getThreadCount(tdao));
+		}
+	}
+	
+	@Test
+	public void testAsyncThreadCount() {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			tdao.reconfigurePool(tdao.getPoolPolicy().withMaxTotal(4));
+			Assert.assertEquals(AsyncDAOBase.getThreadCount(tdao), 4);
+			
+			tdao.reconfigurePool(tdao.getPoolPolicy().withMaxTotal(3));
+			try (AsyncDAO<TestClass, Integer> async = new AsyncDAO<>(tdao)) {
+				Assert.assertEquals(((ThreadPoolExecutor) async.getExecutor()).getMaximumPoolSize(), 3);
+			}
+			
+			tdao.reconfigurePool(tdao.getPoolPolicy().withMaxTotal(-1).withMaxIdle(5));
+			Assert.assertEquals(AsyncDAOBase.getThreadCount(tdao), 5);
+			
+			tdao.reconfigurePool(tdao.getPoolPolicy().withMaxIdle(-1));
+			Assert.assertEquals(AsyncDAOBase.getThreadCount(tdao), Runtime.getRuntime().availableProcessors());
+		}
+	}
+	
+	@Test
+	public void testAsyncExceptionPropagation() {
+		try (TestDAO tdao = new TestDAO(ds); AsyncDAO<TestClass, Integer> async = new AsyncDAO<>(tdao)) {
+			CompletableFuture<List<TestClass>> future = async.supplyAsync(d -> d.loadAllFromWhere(null, "nichtDa = ?", new ParameterList(1), null, null));
+			try {
+				future.join();
+				Assert.fail("Es wurde keine Exception geworfen");
+			}
+			catch (CompletionException e) {
+				Assert.assertTrue(e.getCause() instanceof UncheckedSQLException, String.valueOf(e.getCause()));
+			}
+			Assert.assertTrue(future.isCompletedExceptionally());
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+	}
+	
+	@Test
+	public void testStream() {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			insertRows(tdao, 10);
+			List<Integer> expected = tdao.loadAll().stream().map(TestClass::getPrimary).collect(Collectors.toList());
+			
+			Assert.assertEquals(tdao.stream().map(TestClass::getPrimary).collect(Collectors.toList()), expected);
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+			
+			List<Integer> actual = tdao.streamFromWhere(null, "i >= ?", new ParameterList(5), "i DESC").map(TestClass::getI).collect(Collectors.toList());
+			Assert.assertEquals(actual, Arrays.asList(9, 8, 7, 6, 5));
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+	}
+	
+	@Test
+	public void testStreamClose() {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			insertRows(tdao, 10);
+			
+			try (Stream<TestClass> stream = tdao.stream()) {
+				Assert.assertEquals(stream.limit(2).count(), 2);
+				Assert.assertEquals(tdao.connectionPool.getNumActive(), 1);
+			}
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+			
+			try (Stream<TestClass> stream = tdao.streamFromWhere(null, "i >= ?", new ParameterList(0), "i")) {
+				Assert.assertEquals(stream.filter(t -> t.getI() == 3).findFirst().map(TestClass::getI).orElse(-1), Integer.valueOf(3));
+				Assert.assertEquals(tdao.connectionPool.getNumActive(), 1);
+			}
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+			
+			Stream<TestClass> stream = tdao.stream();
+			stream.close();
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+	}
+	
+	@Test
+	public void testStreamBypassesIdentityMap() {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			insertRows(tdao, 3);
+			try (IdentityMap ignored = IdentityMap.open()) {
+				TestClass loaded = tdao.loadFromID(1);
+				Assert.assertSame(tdao.loadFromID(1), loaded);
+				
+				TestClass streamed;
+				try (Stream<TestClass> stream = tdao.stream()) {
+					streamed = stream.filter(t -> t.getPrimary() == 1).findFirst().orElse(null);
+				}
+				Assert.assertEquals(streamed, loaded);
+				Assert.assertNotSame(streamed, loaded);
+			}
+		}
+	}
+	
+	@Test
+	public void testParallelStreamFromWhere() {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			insertRows(tdao, 50);
+			List<Integer> expected = tdao.loadAll().stream().map(TestClass::getPrimary).collect(Collectors.toList());
+			
+			List<Integer> actual;
+			try (Stream<TestClass> stream = tdao.parallelStreamFromWhere(4, null, null, null)) {
+				Assert.assertTrue(stream.isParallel());
+				actual = stream.map(TestClass::getPrimary).sorted().collect(Collectors.toList());
+			}
+			Assert.assertEquals(actual, expected);
+			
+			try (Stream<TestClass> stream = tdao.parallelStreamFromWhere(7, null, "i >= ?", new ParameterList(10))) {
+				actual = stream.map(TestClass::getPrimary).sorted().collect(Collectors.toList());
+			}
+			Assert.assertEquals(actual, expected.subList(11, expected.size()));
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+	}
+	
+	@Test
+	public void testScanParallel() {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try (TestDAO tdao = new TestDAO(ds)) {
+			insertRows(tdao, 50);
+			List<Integer> expected = tdao.loadAll().stream().map(TestClass::getPrimary).collect(Collectors.toList());
+			
+			Queue<Integer> seen = new ConcurrentLinkedQueue<>();
+			tdao.scanParallel(5, executor, null, null, null, t -> seen.add(t.getPrimary()));
+			Assert.assertEquals(seen.stream().sorted().collect(Collectors.toList()), expected);
+			
+			seen.clear();
+			tdao.scanParallel(5, executor, null, "i < ?", new ParameterList(-1), t -> seen.add(t.getPrimary()));
+			Assert.assertTrue(seen.isEmpty());
+			Assert.assertEquals(tdao.connectionPool.getNumActive(), 0);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderCoalescing() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 200, 128)) {
+			List<TestClass> rows = insertRows(tdao, 5);
+			List<CompletableFuture<TestClass>> futures = rows.stream().map(t -> loader.load(t.getPrimary())).collect(Collectors.toList());
+			for (int i = 0; i < rows.size(); i++) {
+				Assert.assertEquals(futures.get(i).get(5, TimeUnit.SECONDS), rows.get(i));
+			}
+			Assert.assertEquals(loader.getRequestCount(), 5);
+			Assert.assertEquals(loader.getBatchCount(), 1);
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderMaxBatchSize() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 3)) {
+			List<TestClass> rows = insertRows(tdao, 4);
+			List<CompletableFuture<TestClass>> futures = rows.stream().map(t -> loader.load(t.getPrimary())).collect(Collectors.toList());
+			for (int i = 0; i < 3; i++) {
+				Assert.assertEquals(futures.get(i).get(5, TimeUnit.SECONDS), rows.get(i));
+			}
+			Assert.assertEquals(loader.getBatchCount(), 1);
+			Assert.assertFalse(futures.get(3).isDone());
+			
+			loader.flush();
+			Assert.assertEquals(futures.get(3).get(5, TimeUnit.SECONDS), rows.get(3));
+			Assert.assertEquals(loader.getBatchCount(), 2);
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderSingleFlight() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 128)) {
+			CompletableFuture<TestClass> first = loader.load(1);
+			CompletableFuture<TestClass> second = loader.load(1);
+			Assert.assertSame(second, first);
+			
+			CompletableFuture<List<TestClass>> many = loader.loadMany(Arrays.asList(1, 1));
+			loader.flush();
+			Assert.assertEquals(many.get(5, TimeUnit.SECONDS), Arrays.asList(first.join(), first.join()));
+			Assert.assertEquals(loader.getRequestCount(), 4);
+			Assert.assertEquals(loader.getBatchCount(), 1);
+		}
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testBatchLoaderKeyTypes() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 128)) {
+			CompletableFuture<TestClass> first = loader.load(1);
+			CompletableFuture<TestClass> second = ((BatchLoader) loader).load(1L);
+			Assert.assertSame(second, first);
+			try {
+				((BatchLoader) loader).load(1.5);
+				Assert.fail("Ein Key mit Nachkommastellen wurde akzeptiert");
+			}
+			catch (IllegalArgumentException ignored) {
+			}
+			loader.flush();
+			Assert.assertEquals(first.get(5, TimeUnit.SECONDS), new TestClass("s", 1));
+			Assert.assertEquals(loader.getBatchCount(), 1);
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderQueryCount() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 600)) {
+			List<TestClass> rows = insertRows(tdao, 599);
+			List<CompletableFuture<TestClass>> futures = rows.stream().map(t -> loader.load(t.getPrimary())).collect(Collectors.toList());
+			loader.flush();
+			for (int i = 0; i < rows.size(); i++) {
+				Assert.assertEquals(futures.get(i).get(5, TimeUnit.SECONDS), rows.get(i));
+			}
+			Assert.assertEquals(loader.getBatchCount(), 2);
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderMissingKey() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds); BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 128)) {
+			CompletableFuture<TestClass> found = loader.load(1);
+			CompletableFuture<TestClass> missing = loader.load(999);
+			loader.flush();
+			
+			Assert.assertEquals(found.get(5, TimeUnit.SECONDS), new TestClass("s", 1));
+			try {
+				missing.get(5, TimeUnit.SECONDS);
+				Assert.fail("Es wurde keine Exception geworfen");
+			}
+			catch (ExecutionException e) {
+				Assert.assertTrue(e.getCause() instanceof EntryNotFoundException, String.valueOf(e.getCause()));
+			}
+			Assert.assertEquals(loader.getBatchCount(), 1);
+		}
+	}
+	
+	@Test
+	public void testBatchLoaderClose() throws Exception {
+		try (TestDAO tdao = new TestDAO(ds)) {
+			BatchLoader<TestClass, Integer> loader = new BatchLoader<>(tdao, 60_000, 128);
+			CompletableFuture<TestClass> pending = loader.load(1);
+			loader.close();
+			Assert.assertEquals(pending.get(5, TimeUnit.SECONDS), new TestClass("s", 1));
+			
+			CompletableFuture<TestClass> afterClose = loader.load(1);
+			Assert.assertTrue(afterClose.isCompletedExceptionally());
+			try {
+				afterClose.join();
+				Assert.fail("Es wurde keine Exception geworfen");
+			}
+			catch (CompletionException e) {
+				Assert.assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+			}
+		}
+	}
+}
@@ -0,0 +1,8 @@
+CREATE TABLE TEST
+(
+  TESTID INTEGER AUTO_INCREMENT PRIMARY KEY NOT NULL,
+  S      VARCHAR(255),
+  I      INTEGER
+);
+
+INSERT INTO TEST (S, I) VALUES ('s', 1);
@@ -13,6 +13,7 @@ import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -45,7 +46,7 @@ public class CustomDAOReaderPrimary<T extends DBObject<P>, P extends Number, R>
 	
 	protected volatile List<R> results;
 	
-	private final Object lock = new Object();
+	private final ReentrantLock lock = new ReentrantLock();
 	
 	/**
 	 * Erstellt einen neuen {@link CustomDAOReaderPrimary} an mit einer {@link PaginationDAO}
@@ -131,7 +132,8 @@ public class CustomDAOReaderPrimary<T extends DBObject<P>, P extends Number, R>
 	
 	@Override
 	public @Nullable R read() {
-		synchronized (lock) {
+		lock.lock();
+		try {
 			if (results == null || indexInList >= pageSize) {
 				log.debug("Lese Seite nach Primary {}", lastPrimary);
 				
@@ -156,6 +158,9 @@ public class CustomDAOReaderPrimary<T extends DBObject<P>, P extends Number, R>
 				return null;
 			}
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 	
 	@Override
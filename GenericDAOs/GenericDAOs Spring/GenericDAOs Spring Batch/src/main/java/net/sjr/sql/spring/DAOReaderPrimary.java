@@ -13,6 +13,7 @@ import org.springframework.batch.item.support.AbstractItemStreamItemReader;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Klasse, die eine {@link PaginationDAO} nutzt um Items für Spring Batch aus einer Datenbank zu lesen
@@ -36,7 +37,7 @@ public class DAOReaderPrimary<T extends DBObject<P>, P extends Number> extends A
 	
 	protected volatile List<T> results;
 	
-	private final Object lock = new Object();
+	private final ReentrantLock lock = new ReentrantLock();
 	
 	/**
 	 * Erstellt einen neuen {@link DAOReaderPrimary} an mit einer {@link PaginationDAO}
@@ -90,7 +91,8 @@ public class DAOReaderPrimary<T extends DBObject<P>, P extends Number> extends A
 	
 	@Override
 	public @Nullable T read() {
-		synchronized (lock) {
+		lock.lock();
+		try {
 			if (results == null || indexInList >= pageSize) {
 				log.debug("Lese Seite nach Primary {}", lastPrimary);
 				
@@ -108,6 +110,9 @@ public class DAOReaderPrimary<T extends DBObject<P>, P extends Number> extends A
 				return null;
 			}
 		}
+		finally {
+			lock.unlock();
+		}
 	}
 	
 	@Override
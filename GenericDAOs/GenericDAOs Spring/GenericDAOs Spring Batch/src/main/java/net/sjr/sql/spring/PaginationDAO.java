@@ -2,8 +2,10 @@ package net.sjr.sql.spring;
 
 import net.sjr.sql.DAO;
 import net.sjr.sql.DBObject;
+import net.sjr.sql.Keyset;
 import net.sjr.sql.Parameter;
 import net.sjr.sql.ParameterList;
+import net.sjr.sql.SQLLimit;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -16,7 +18,10 @@ import org.springframework.jdbc.datasource.DataSourceUtils;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Erweitert die {@link DAO}s um die Möglichkeit als Spring Batch Writer zu dienen und fügt die vom {@link DAOReaderLimit} benötigten Methoden hinzu
@@ -28,6 +33,8 @@ import java.util.List;
 public abstract class PaginationDAO<T extends DBObject<P>, P extends Number> extends DAO<T, P> implements ItemStreamWriter<T> {
 	private final Logger log = LoggerFactory.getLogger(getClass());
 	private int done = 0;
+	private volatile Keyset primaryKeyset;
+	private volatile PageCursor cursor;
 	
 	/**
 	 * Erstellt die {@link PaginationDAO} mit einer {@link DataSource}
@@ -67,7 +74,8 @@ public abstract class PaginationDAO<T extends DBObject<P>, P extends Number> ext
 	}
 	
 	/**
-	 * Lädt eine Seite aus der Datenbank mit erweiterten Bedingungen
+	 * Lädt eine Seite aus der Datenbank mit erweiterten Bedingungen. Die Seiten werden nach dem Primary Key sortiert und per Keyset Pagination geladen,
+	 * siehe {@link #loadPage(int, int, Keyset, Function, String, String, ParameterList)}
 	 *
 	 * @param pageNumber die Seitennummer
 	 * @param pageSize   die Größe einer Seite
@@ -78,7 +86,56 @@ public abstract class PaginationDAO<T extends DBObject<P>, P extends Number> ext
 	 * @return die Seite. Niemals {@code null}
 	 */
 	public @NotNull List<T> loadPage(final int pageNumber, final int pageSize, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params) {
-		return loadAllFromWhere(join, where, params, (pageNumber * pageSize) + ", " + ((pageNumber + 1) * pageSize), getPrimaryCol());
+		Keyset keyset = primaryKeyset;
+		if (keyset == null) {
+			keyset = Keyset.of(getPrimaryCol());
+			primaryKeyset = keyset;
+		}
+		return loadPage(pageNumber, pageSize, keyset, t -> new Object[] {t.getPrimary()}, join, where, params);
+	}
+	
+	/**
+	 * Lädt eine Seite aus der Datenbank mit erweiterten Bedingungen und beliebiger Sortierung. Folgt die Seite direkt auf die zuletzt geladene Seite mit derselben Form,
+	 * wird sie per Keyset Pagination ab dem Key der letzten Zeile gesucht. Nur die erste Seite nach einem Sprung, z.B. beim Neustart eines Jobs, wird per OFFSET geladen.
+	 * Enthält das {@link Keyset} den Primary Key nicht, wird er als letzte Sortierspalte angehängt, damit keine Zeilen mit gleichen Werten übersprungen werden
+	 *
+	 * @param pageNumber   die Seitennummer
+	 * @param pageSize     die Größe einer Seite
+	 * @param keyset       die Sortierung
+	 * @param keyExtractor liefert die Werte der Sortierspalten eines Objektes in der Reihenfolge des {@link Keyset}s, ohne den angehängten Primary Key
+	 * @param join         Die JOIN Klausel oder {@code null}
+	 * @param where        Die WHERE Klausel oder {@code null}
+	 * @param params       Die {@link Parameter} oder {@code null}
+	 * @return die Seite. Niemals {@code null}
+	 */
+	public @NotNull List<T> loadPage(final int pageNumber, final int pageSize, final @NotNull Keyset keyset, final @NotNull Function<T, Object[]> keyExtractor, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params) {
+		if (!keyset.contains(getPrimaryCol())) {
+			return loadPage(pageNumber, pageSize, keyset.withTieBreaker(getPrimaryCol()), t -> {
+				Object[] key = keyExtractor.apply(t);
+				Object[] result = Arrays.copyOf(key, key.length + 1);
+				result[key.length] = t.getPrimary();
+				return result;
+			}, join, where, params);
+		}
+		PageCursor last = cursor;
+		List<T> result;
+		if (pageNumber == 0) {
+			result = loadPageAfter(keyset, null, pageSize, join, where, params);
+		}
+		else if (last != null && last.isFollowedBy(pageNumber, pageSize, keyset, join, where, params)) {
+			result = loadPageAfter(keyset, last.lastKey, pageSize, join, where, params);
+		}
+		else {
+			log.debug("Lese Seite {} per OFFSET, da sie nicht auf die zuletzt geladene Seite folgt", pageNumber);
+			result = loadAllFromWhere(join, where, params, new SQLLimit((long) pageNumber * pageSize, pageSize).toString(), keyset.getOrderBy());
+		}
+		cursor = result.isEmpty() ? null : new PageCursor(pageNumber, pageSize, keyset, join, where, params, keyExtractor.apply(result.get(result.size() - 1)));
+		return result;
+	}
+	
+	@Override
+	public @NotNull List<T> loadPageAfter(final @NotNull Keyset keyset, final @Nullable Object[] lastKey, final int pageSize, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final DBObject... loadedObjects) {
+		return super.loadPageAfter(keyset, lastKey, pageSize, join, where, params, loadedObjects);
 	}
 	
 	/**
@@ -141,4 +198,32 @@ public abstract class PaginationDAO<T extends DBObject<P>, P extends Number> ext
 	public void update(final @NotNull ExecutionContext executionContext) {
 		executionContext.putInt("paginationdao.done", done);
 	}
+	
+	/**
+	 * Position der zuletzt geladenen Seite, ab der die nächste Seite per Keyset gesucht wird
+	 */
+	private static final class PageCursor {
+		private final int pageNumber;
+		private final int pageSize;
+		private final Keyset keyset;
+		private final String join;
+		private final String where;
+		private final ParameterList params;
+		private final Object[] lastKey;
+		
+		private PageCursor(final int pageNumber, final int pageSize, final @NotNull Keyset keyset, final @Nullable String join, final @Nullable String where, final @Nullable ParameterList params, final @NotNull Object[] lastKey) {
+			this.pageNumber = pageNumber;
+			this.pageSize = pageSize;
+			this.keyset = keyset;
+			this.join = join;
+			this.where = where;
+			this.params = params == null ? null : new ParameterList(params);
+			this.lastKey = lastKey;
+		}
+		
+		private boolean isFollowedBy(final int nextPage, final int nextPageSize, final @NotNull Keyset nextKeyset, final @Nullable String nextJoin, final @Nullable String nextWhere, final @Nullable ParameterList nextParams) {
+			return nextPage == pageNumber + 1 && nextPageSize == pageSize && keyset.equals(nextKeyset) &&
+					Objects.equals(join, nextJoin) && Objects.equals(where, nextWhere) && Objects.equals(params, nextParams);
+		}
+	}
 }
@@ -0,0 +1,81 @@
+package net.sjr.sql.spring;
+
+import net.sjr.sql.DBObject;
+import net.sjr.sql.Keyset;
+import net.sjr.sql.Parameter;
+import net.sjr.sql.ParameterList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * {@link PaginationDAO} für die Tabelle Test, welche zählt, wie die Seiten geladen werden
+ */
+public class PaginationTestDAO extends PaginationDAO<TestClass, Integer> {
+	private static final String FELDER = "s, i";
+	private static final String PRIMARY = "testID";
+	private static final String TABLE = "Test";
+	
+	int keysetPages = 0;
+	int offsetPages = 0;
+	
+	public PaginationTestDAO(Connection con) {
+		super(con);
+	}
+	
+	@Override
+	protected boolean shouldCloseAlways() {
+		return false;
+	}
+	
+	@Override
+	protected @NotNull String getFelder() {
+		return FELDER;
+	}
+	
+	@Override
+	protected @NotNull String getTable() {
+		return TABLE;
+	}
+	
+	@Override
+	protected @NotNull String getPrimaryCol() {
+		return PRIMARY;
+	}
+	
+	@Override
+	protected @NotNull ParameterList getPList(@NotNull TestClass v) {
+		return new ParameterList(new Parameter(v.getS(), Types.VARCHAR), v.getI());
+	}
+	
+	@Override
+	protected @NotNull TestClass getFromRS(ResultSet rs, DBObject... loadedObjects) throws SQLException {
+		TestClass result = new TestClass();
+		fillObject(rs, result, loadedObjects);
+		return result;
+	}
+	
+	@Override
+	protected void fillObject(@NotNull ResultSet rs, @NotNull TestClass result, DBObject... loadedObjects) throws SQLException {
+		result.setPrimary(rs.getInt(1));
+		result.setS(rs.getString(2));
+		result.setI(rs.getInt(3));
+	}
+	
+	@Override
+	public @NotNull List<TestClass> loadPageAfter(@NotNull Keyset keyset, @Nullable Object[] lastKey, int pageSize, @Nullable String join, @Nullable String where, @Nullable ParameterList params, DBObject... loadedObjects) {
+		if (lastKey != null) keysetPages++;
+		return super.loadPageAfter(keyset, lastKey, pageSize, join, where, params, loadedObjects);
+	}
+	
+	@Override
+	protected @NotNull List<TestClass> loadAllFromWhere(@Nullable String join, @Nullable String where, @Nullable ParameterList params, @Nullable String limit, @Nullable String order, DBObject... loadedObjects) {
+		offsetPages++;
+		return super.loadAllFromWhere(join, where, params, limit, order, loadedObjects);
+	}
+}
@@ -0,0 +1,90 @@
+package net.sjr.sql.spring;
+
+import net.sjr.sql.Keyset;
+import net.sjr.sql.ParameterList;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests für die Pagination der {@link PaginationDAO}
+ */
+public class TestRunner {
+	private Connection con;
+	
+	@BeforeMethod
+	public void connect() throws SQLException {
+		con = DriverManager.getConnection("jdbc:h2:mem:;INIT=RUNSCRIPT FROM 'classpath:ddl.sql'", "sa", "");
+		try (PaginationTestDAO tdao = new PaginationTestDAO(con)) {
+			List<TestClass> rows = new ArrayList<>();
+			for (int i = 0; i < 9; i++) {
+				rows.add(new TestClass("row" + i, i % 3));
+			}
+			tdao.insertAll(rows);
+		}
+	}
+	
+	@AfterMethod
+	public void disconnect() throws SQLException {
+		con.close();
+	}
+	
+	@Test
+	public void testPrimaryPages() {
+		try (PaginationTestDAO tdao = new PaginationTestDAO(con)) {
+			List<TestClass> expected = tdao.loadAll();
+			Assert.assertEquals(expected.size(), 10);
+			
+			Assert.assertEquals(tdao.loadPage(0, 4, null, null, null), expected.subList(0, 4));
+			Assert.assertEquals(tdao.loadPage(1, 4, null, null, null), expected.subList(4, 8));
+			Assert.assertEquals(tdao.loadPage(2, 4, null, null, null), expected.subList(8, 10));
+			Assert.assertEquals(tdao.keysetPages, 2);
+			Assert.assertEquals(tdao.offsetPages, 0);
+		}
+	}
+	
+	@Test
+	public void testOffsetFallback() {
+		try (PaginationTestDAO tdao = new PaginationTestDAO(con)) {
+			List<TestClass> expected = tdao.loadAll();
+			
+			Assert.assertEquals(tdao.loadPage(2, 3, null, null, null), expected.subList(6, 9));
+			Assert.assertEquals(tdao.offsetPages, 1);
+			Assert.assertEquals(tdao.keysetPages, 0);
+			
+			Assert.assertEquals(tdao.loadPage(3, 3, null, null, null), expected.subList(9, 10));
+			Assert.assertEquals(tdao.keysetPages, 1);
+			
+			Assert.assertEquals(tdao.loadPage(1, 3, null, "i >= ?", new ParameterList(0)), expected.subList(3, 6));
+			Assert.assertEquals(tdao.offsetPages, 2);
+			Assert.assertEquals(tdao.loadPage(2, 3, null, "i >= ?", new ParameterList(1)), tdao.loadAllFromWhere(null, "i >= ?", new ParameterList(1), "6, 3", "testID"));
+			Assert.assertEquals(tdao.keysetPages, 1);
+		}
+	}
+	
+	@Test
+	public void testKeysetTieBreaker() {
+		try (PaginationTestDAO tdao = new PaginationTestDAO(con)) {
+			Keyset keyset = Keyset.of("i DESC");
+			List<TestClass> expected = tdao.loadAllFromWhere(null, null, null, null, "i DESC, testID");
+			
+			List<TestClass> actual = new ArrayList<>();
+			List<TestClass> page;
+			int pageNumber = 0;
+			do {
+				page = tdao.loadPage(pageNumber++, 2, keyset, t -> new Object[] {t.getI()}, null, null, null);
+				actual.addAll(page);
+			}
+			while (page.size() == 2);
+			Assert.assertEquals(actual, expected);
+			Assert.assertEquals(tdao.keysetPages, pageNumber - 1);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package net.sjr.sql;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Erstellt {@link ExecutorService}s, die jeden Aufruf auf einem eigenen virtuellen Thread ausführen, z.B. für {@code new AsyncDAO<>(dao, VirtualThreadExecutors.forDAO(dao))}.
+ * Tausende gleichzeitige Abfragen kosten so nur wenig Speicher. Damit nicht für jede Abfrage eine eigene Datenbankverbindung geöffnet wird, ist die Anzahl gleichzeitig laufender
+ * Aufrufe über eine {@link Semaphore} begrenzt. Wartende virtuelle Threads werden dabei, genau wie beim Ausleihen aus dem {@link SharedConnectionPool}, geparkt und blockieren
+ * ihren Träger-Thread nicht.<br>
+ * Die {@link ExecutorService}s werden von {@link AsyncDAOBase#close()} nicht beendet und sollten mit try-with-resources oder {@link ExecutorService#close()} beendet werden
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class VirtualThreadExecutors {
+	private static final AtomicInteger EXECUTOR_COUNTER = new AtomicInteger();
+	
+	private VirtualThreadExecutors() {
+	}
+	
+	/**
+	 * Erstellt einen {@link ExecutorService} mit virtuellen Threads, der höchstens so viele Aufrufe gleichzeitig ausführt, wie {@link AsyncDAOBase#getThreadCount(DAOBase)} angibt
+	 *
+	 * @param dao die DAO
+	 * @return der {@link ExecutorService}
+	 */
+	public static @NotNull ExecutorService forDAO(final @NotNull DAOBase<?, ?> dao) {
+		return newExecutor("AsyncDAO-" + EXECUTOR_COUNTER.incrementAndGet() + '-' + dao.getClass().getSimpleName() + "-virtual-", AsyncDAOBase.getThreadCount(dao));
+	}
+	
+	/**
+	 * Erstellt einen {@link ExecutorService} mit virtuellen Threads
+	 *
+	 * @param namePrefix     der Präfix für die Namen der virtuellen Threads
+	 * @param maxConcurrency die maximale Anzahl gleichzeitig laufender Aufrufe
+	 * @return der {@link ExecutorService}
+	 */
+	public static @NotNull ExecutorService newExecutor(final @NotNull String namePrefix, final int maxConcurrency) {
+		if (maxConcurrency < 1) throw new IllegalArgumentException("Es muss mindestens ein Aufruf gleichzeitig möglich sein");
+		return new BoundedExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory()), maxConcurrency);
+	}
+	
+	/**
+	 * {@link ExecutorService}, der die Aufrufe an einen anderen weiterreicht und erst ausführt, wenn die {@link Semaphore} eine Genehmigung erteilt
+	 */
+	private static final class BoundedExecutor extends AbstractExecutorService {
+		private final ExecutorService delegate;
+		private final Semaphore permits;
+		
+		private BoundedExecutor(final @NotNull ExecutorService delegate, final int maxConcurrency) {
+			this.delegate = delegate;
+			this.permits = new Semaphore(maxConcurrency, true);
+		}
+		
+		@Override
+		public void execute(final @NotNull Runnable command) {
+			delegate.execute(() -> {
+				permits.acquireUninterruptibly();
+				try {
+					command.run();
+				}
+				finally {
+					permits.release();
+				}
+			});
+		}
+		
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+		
+		@Override
+		public @NotNull List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+		
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+		
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+		
+		@Override
+		public boolean awaitTermination(final long timeout, final @NotNull TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+}
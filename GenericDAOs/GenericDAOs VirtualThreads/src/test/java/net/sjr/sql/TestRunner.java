@@ -0,0 +1,83 @@
+package net.sjr.sql;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests für die {@link VirtualThreadExecutors}
+ */
+public class TestRunner {
+	
+	@Test
+	public void testMaxConcurrency() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		try (ExecutorService executor = VirtualThreadExecutors.newExecutor("test-", 3)) {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				futures.add(executor.submit(() -> {
+					int current = inFlight.incrementAndGet();
+					maxInFlight.accumulateAndGet(current, Math::max);
+					try {
+						Thread.sleep(5);
+					}
+					finally {
+						inFlight.decrementAndGet();
+					}
+					return Thread.currentThread().isVirtual();
+				}));
+			}
+			for (final Future<Boolean> future : futures) {
+				Assert.assertTrue(future.get());
+			}
+		}
+		Assert.assertTrue(maxInFlight.get() <= 3, "Gleichzeitig: " + maxInFlight.get());
+		Assert.assertTrue(maxInFlight.get() > 1, "Gleichzeitig: " + maxInFlight.get());
+		Assert.assertEquals(inFlight.get(), 0);
+	}
+	
+	@Test
+	public void testShutdownDelegated() throws Exception {
+		ExecutorService executor = VirtualThreadExecutors.newExecutor("test-", 1);
+		Future<?> running = executor.submit(() -> {
+			Thread.sleep(50);
+			return null;
+		});
+		executor.shutdown();
+		Assert.assertTrue(executor.isShutdown());
+		try {
+			executor.execute(() -> {
+			});
+			Assert.fail("Nach shutdown() wurde ein Aufruf angenommen");
+		}
+		catch (RejectedExecutionException ignored) {
+		}
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertTrue(executor.isTerminated());
+		Assert.assertTrue(running.isDone());
+		
+		ExecutorService now = VirtualThreadExecutors.newExecutor("test-", 1);
+		now.execute(() -> {
+			try {
+				Thread.sleep(5000);
+			}
+			catch (InterruptedException ignored) {
+			}
+		});
+		now.shutdownNow();
+		Assert.assertTrue(now.awaitTermination(5, TimeUnit.SECONDS));
+	}
+	
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidConcurrency() {
+		VirtualThreadExecutors.newExecutor("test-", 0);
+	}
+}
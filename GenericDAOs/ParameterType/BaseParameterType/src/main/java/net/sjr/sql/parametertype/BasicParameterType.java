@@ -5,69 +5,150 @@ import org.jetbrains.annotations.Nullable;
 
 import java.math.BigDecimal;
 import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Klasse mit den Standard Java Klassen als ParameterType
+ * Klasse mit den Standard Java Klassen als ParameterType. Für jede Klasse wird zusätzlich ein eigener {@link ParameterType} registriert,
+ * sodass die {@link ParameterTypeRegistry} direkt den passenden Setter aufrufen kann
  */
 @SuppressWarnings("unused")
 public final class BasicParameterType implements ParameterType {
+	private static final Map<Class<?>, ParameterType> BINDERS = new HashMap<>();
+	
 	static {
 		ParameterTypeRegistry.registerParameterType(new BasicParameterType());
+		register(String.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setString(pos, (String) value);
+				return pos + 1;
+			}
+		});
+		register(Character.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setString(pos, String.valueOf(value));
+				return pos + 1;
+			}
+		});
+		register(Integer.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setInt(pos, (Integer) value);
+				return pos + 1;
+			}
+		});
+		register(Long.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setLong(pos, (Long) value);
+				return pos + 1;
+			}
+		});
+		register(Byte.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setByte(pos, (Byte) value);
+				return pos + 1;
+			}
+		});
+		register(Short.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setShort(pos, (Short) value);
+				return pos + 1;
+			}
+		});
+		register(Double.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setDouble(pos, (Double) value);
+				return pos + 1;
+			}
+		});
+		register(Float.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setFloat(pos, (Float) value);
+				return pos + 1;
+			}
+		});
+		register(Boolean.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setBoolean(pos, (Boolean) value);
+				return pos + 1;
+			}
+		});
+		register(Date.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setDate(pos, (Date) value);
+				return pos + 1;
+			}
+		});
+		register(Time.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setTime(pos, (Time) value);
+				return pos + 1;
+			}
+		});
+		register(Timestamp.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setTimestamp(pos, (Timestamp) value);
+				return pos + 1;
+			}
+		});
+		register(java.util.Date.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setTimestamp(pos, new Timestamp(((java.util.Date) value).getTime()));
+				return pos + 1;
+			}
+		});
+		register(BigDecimal.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setBigDecimal(pos, (BigDecimal) value);
+				return pos + 1;
+			}
+		});
+		register(Enum.class, new ParameterType() {
+			@Override
+			public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
+				pst.setString(pos, ((Enum<?>) value).name());
+				return pos + 1;
+			}
+		});
 	}
 
 	private BasicParameterType() {
 	}
 
+	/**
+	 * Registriert den {@link ParameterType} einer Klasse bei der {@link ParameterTypeRegistry} und für {@link #set(PreparedStatement, int, Object)}
+	 *
+	 * @param valueClass die Klasse der Werte
+	 * @param type       der {@link ParameterType}, welcher Werte dieser Klasse direkt setzt
+	 */
+	private static void register(final @NotNull Class<?> valueClass, final @NotNull ParameterType type) {
+		BINDERS.put(valueClass, type);
+		ParameterTypeRegistry.registerParameterType(valueClass, type);
+	}
+	
+	/**
+	 * Setzt den Wert über den für seine Klasse oder die nächste Oberklasse registrierten {@link ParameterType}
+	 */
 	@Override
 	public int set(final @NotNull PreparedStatement pst, final int pos, final @Nullable Object value) throws SQLException {
-		if (value instanceof String) {
-			pst.setString(pos, (String) value);
-		}
-		else if (value instanceof Character) {
-			pst.setString(pos, String.valueOf(value));
-		}
-		else if (value instanceof Integer) {
-			pst.setInt(pos, (Integer) value);
-		}
-		else if (value instanceof Long) {
-			pst.setLong(pos, (Long) value);
-		}
-		else if (value instanceof Byte) {
-			pst.setByte(pos, (Byte) value);
-		}
-		else if (value instanceof Short) {
-			pst.setShort(pos, (Short) value);
-		}
-		else if (value instanceof Double) {
-			pst.setDouble(pos, (Double) value);
-		}
-		else if (value instanceof Float) {
-			pst.setFloat(pos, (Float) value);
-		}
-		else if (value instanceof Boolean) {
-			pst.setBoolean(pos, (Boolean) value);
-		}
-		else if (value instanceof Date) {
-			pst.setDate(pos, (Date) value);
-		}
-		else if (value instanceof Time) {
-			pst.setTime(pos, (Time) value);
-		}
-		else if (value instanceof Timestamp) {
-			pst.setTimestamp(pos, (Timestamp) value);
-		}
-		else if (value instanceof java.util.Date) {
-			pst.setTimestamp(pos, new Timestamp(((java.util.Date) value).getTime()));
-		}
-		else if (value instanceof BigDecimal) {
-			pst.setBigDecimal(pos, (BigDecimal) value);
-		}
-		else if (value instanceof Enum) {
-			pst.setString(pos, ((Enum<?>) value).name());
-		}
-		else {
-			return -1;
+		if (value == null) return -1;
+		for (Class<?> c = value.getClass(); c != null; c = c.getSuperclass()) {
+			ParameterType type = BINDERS.get(c);
+			if (type != null) return type.set(pst, pos, value);
 		}
-		return pos + 1;
+		return -1;
 	}
 }
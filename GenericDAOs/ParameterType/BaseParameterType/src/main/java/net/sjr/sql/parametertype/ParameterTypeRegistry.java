@@ -1,25 +1,94 @@
 package net.sjr.sql.parametertype;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedList;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Zentrale Registry, bei der sich alle Klassen, die als {@link ParameterType} agieren wollen, registrieren müssen
+ * Zentrale Registry, bei der sich alle Klassen, die als {@link ParameterType} agieren wollen, registrieren müssen.<br>
+ * Der passende {@link ParameterType} wird pro konkreter Klasse des Wertes nur einmal gesucht und danach aus einer Map geholt
  */
 public final class ParameterTypeRegistry {
-	public static final List<ParameterType> PARAMETER_TYPES = new LinkedList<>();
+	public static final List<ParameterType> PARAMETER_TYPES = new CopyOnWriteArrayList<>();
+	private static final Map<Class<?>, ParameterType> CLASS_TYPES = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, ParameterType> RESOLVED = new ConcurrentHashMap<>();
 	
 	/**
-	 * Registriert einen neuen {@link ParameterType}
+	 * Registriert einen neuen {@link ParameterType}, welcher alle Klassen selbst prüft
 	 *
 	 * @param type der {@link ParameterType}
 	 */
 	public static void registerParameterType(final @NotNull ParameterType type) {
 		PARAMETER_TYPES.add(type);
+		RESOLVED.clear();
 	}
-
+	
+	/**
+	 * Registriert einen neuen {@link ParameterType} für eine Klasse und deren Unterklassen
+	 *
+	 * @param valueClass die Klasse der Werte
+	 * @param type       der {@link ParameterType}, welcher Werte dieser Klasse direkt setzt
+	 */
+	public static void registerParameterType(final @NotNull Class<?> valueClass, final @NotNull ParameterType type) {
+		CLASS_TYPES.put(valueClass, type);
+		RESOLVED.clear();
+	}
+	
+	/**
+	 * Setzt einen Wert mit dem passenden {@link ParameterType} in das {@link PreparedStatement}
+	 *
+	 * @param pst   das {@link PreparedStatement} in das eingesetzt werden soll
+	 * @param pos   die Position an die gesetzt werden soll
+	 * @param value der Wert, der gesetzt werden soll
+	 *
+	 * @return die nächste Position oder -1, wenn die Klasse des Objektes nicht unterstützt wird
+	 *
+	 * @throws SQLException Wenn eine {@link SQLException} aufgetreten ist
+	 */
+	public static int set(final @NotNull PreparedStatement pst, final int pos, final @NotNull Object value) throws SQLException {
+		Class<?> valueClass = value.getClass();
+		ParameterType type = RESOLVED.get(valueClass);
+		if (type != null) {
+			int newPos = type.set(pst, pos, value);
+			if (newPos > 0) return newPos;
+		}
+		
+		type = findClassType(valueClass);
+		if (type != null) {
+			RESOLVED.put(valueClass, type);
+			return type.set(pst, pos, value);
+		}
+		for (final ParameterType t : PARAMETER_TYPES) {
+			int newPos = t.set(pst, pos, value);
+			if (newPos > 0) {
+				RESOLVED.put(valueClass, t);
+				return newPos;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Sucht den für die Klasse oder die nächste Oberklasse registrierten {@link ParameterType}
+	 *
+	 * @param valueClass die Klasse des Wertes
+	 *
+	 * @return der {@link ParameterType} oder {@code null}, wenn keiner für die Klasse registriert ist
+	 */
+	private static @Nullable ParameterType findClassType(final @NotNull Class<?> valueClass) {
+		for (Class<?> c = valueClass; c != null; c = c.getSuperclass()) {
+			ParameterType type = CLASS_TYPES.get(c);
+			if (type != null) return type;
+		}
+		return null;
+	}
+	
 	private ParameterTypeRegistry() {
 	}
 }
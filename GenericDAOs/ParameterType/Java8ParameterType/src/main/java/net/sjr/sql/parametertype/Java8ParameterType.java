@@ -16,7 +16,10 @@ import java.time.LocalTime;
 @SuppressWarnings("unused")
 public class Java8ParameterType implements ParameterType {
 	static {
-		ParameterTypeRegistry.registerParameterType(new Java8ParameterType());
+		Java8ParameterType type = new Java8ParameterType();
+		ParameterTypeRegistry.registerParameterType(LocalDate.class, type);
+		ParameterTypeRegistry.registerParameterType(LocalDateTime.class, type);
+		ParameterTypeRegistry.registerParameterType(LocalTime.class, type);
 	}
 
 	private Java8ParameterType() {
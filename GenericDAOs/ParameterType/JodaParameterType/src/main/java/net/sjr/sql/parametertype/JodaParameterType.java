@@ -16,7 +16,10 @@ import java.sql.SQLException;
 @SuppressWarnings("unused")
 public class JodaParameterType implements ParameterType {
 	static {
-		ParameterTypeRegistry.registerParameterType(new JodaParameterType());
+		JodaParameterType type = new JodaParameterType();
+		ParameterTypeRegistry.registerParameterType(LocalDate.class, type);
+		ParameterTypeRegistry.registerParameterType(LocalDateTime.class, type);
+		ParameterTypeRegistry.registerParameterType(LocalTime.class, type);
 	}
 
 	private JodaParameterType() {
@@ -0,0 +1,25 @@
+package net.sjr.sql.rsloader;
+
+import net.sjr.sql.DAOBaseInterface;
+import net.sjr.sql.DBObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Sammelt Fremdschlüssel, die nicht direkt über {@link DAOBaseInterface#loadFromID} geladen, sondern später gebündelt aufgelöst werden sollen
+ *
+ * @see RsUtils#setForeignKeyCollector(ForeignKeyCollector)
+ */
+public interface ForeignKeyCollector {
+	/**
+	 * Merkt sich den Fremdschlüssel und gibt einen Platzhalter zurück, der später gefüllt wird
+	 *
+	 * @param dao     die DAO des referenzierten Objektes
+	 * @param primary die Primary ID des referenzierten Objektes
+	 * @param <T>     der Typ der DAO
+	 * @param <P>     der Primary Typ des Types der DAO
+	 *
+	 * @return der Platzhalter oder {@code null}, wenn das Objekt direkt geladen werden muss
+	 */
+	@Nullable <T extends DBObject<P>, P extends Number> T defer(@NotNull DAOBaseInterface<T, P> dao, @NotNull P primary);
+}
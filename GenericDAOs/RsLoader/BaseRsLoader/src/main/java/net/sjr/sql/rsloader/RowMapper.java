@@ -0,0 +1,369 @@
+package net.sjr.sql.rsloader;
+
+import net.sjr.sql.DAOBaseInterface;
+import net.sjr.sql.DBObject;
+import net.sjr.sql.exceptions.UncheckedSQLException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Erstellt Objekte aus einem {@link ResultSet} an Hand einer einmal zusammengebauten Kette von {@link MethodHandle}s.<br>
+ * Im Gegensatz zum {@link RsLoader} wird pro Zeile weder Reflection genutzt noch ein Objekt pro Spalte erstellt; primitive Werte werden direkt
+ * aus dem {@link ResultSet} in die Setter gegeben. Die Spalten werden in der Reihenfolge der Aufrufe am {@link Builder} gelesen.
+ * <pre>
+ * RowMapper&lt;Foo&gt; mapper = RowMapper.builder(Foo.class).primary(fooDAO).column("setName").column("setAge").dbObject("setBar", barDAO).build();
+ * </pre>
+ *
+ * @param <T> der Typ der Objekte
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RowMapper<T> {
+	private static final MethodType FILLER_TYPE = MethodType.methodType(void.class, Object.class, ResultSet.class, DBObject[].class);
+	private static final Map<Class<?>, MethodHandle> READERS = new HashMap<>();
+	private static final MethodHandle NOOP;
+	private static final MethodHandle LOADED_OBJECTS_OR_NULL;
+	private static final MethodHandle GET_PRIMARY;
+	private static final MethodHandle SET_PRIMARY;
+	
+	static {
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		try {
+			putResultSetReader(lookup, String.class, "getString");
+			putResultSetReader(lookup, boolean.class, "getBoolean");
+			putResultSetReader(lookup, byte.class, "getByte");
+			putResultSetReader(lookup, short.class, "getShort");
+			putResultSetReader(lookup, int.class, "getInt");
+			putResultSetReader(lookup, long.class, "getLong");
+			putResultSetReader(lookup, float.class, "getFloat");
+			putResultSetReader(lookup, double.class, "getDouble");
+			putResultSetReader(lookup, BigDecimal.class, "getBigDecimal");
+			putResultSetReader(lookup, Date.class, "getDate");
+			putResultSetReader(lookup, Time.class, "getTime");
+			putResultSetReader(lookup, Timestamp.class, "getTimestamp");
+			putStaticReader(lookup, RsUtils.class, Boolean.class, "getNullableBoolean");
+			putStaticReader(lookup, RsUtils.class, Byte.class, "getNullableByte");
+			putStaticReader(lookup, RsUtils.class, Short.class, "getNullableShort");
+			putStaticReader(lookup, RsUtils.class, Integer.class, "getNullableInt");
+			putStaticReader(lookup, RsUtils.class, Long.class, "getNullableLong");
+			putStaticReader(lookup, RsUtils.class, Float.class, "getNullableFloat");
+			putStaticReader(lookup, RsUtils.class, Double.class, "getNullableDouble");
+			putStaticReader(lookup, RowMapper.class, java.util.Date.class, "getUtilDate");
+			putStaticReader(lookup, RowMapper.class, char.class, "getChar");
+			putStaticReader(lookup, RowMapper.class, Character.class, "getNullChar");
+			
+			NOOP = lookup.findStatic(RowMapper.class, "noop", FILLER_TYPE);
+			LOADED_OBJECTS_OR_NULL = lookup.findStatic(RsUtils.class, "loadedObjectsOrNull", MethodType.methodType(DBObject.class, int.class, ResultSet.class, DAOBaseInterface.class, DBObject[].class))
+					.asFixedArity();
+			GET_PRIMARY = lookup.findVirtual(DAOBaseInterface.class, "getPrimary", MethodType.methodType(Number.class, ResultSet.class, int.class));
+			SET_PRIMARY = lookup.findVirtual(DBObject.class, "setPrimary", MethodType.methodType(void.class, Number.class));
+		}
+		catch (final NoSuchMethodException | IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private final MethodHandle constructor;
+	private final MethodHandle filler;
+	
+	private RowMapper(final @Nullable MethodHandle constructor, final @NotNull MethodHandle filler) {
+		this.constructor = constructor;
+		this.filler = filler;
+	}
+	
+	/**
+	 * Erstellt einen neuen {@link Builder}
+	 *
+	 * @param type die Klasse der Objekte. Die Setter müssen public sein
+	 * @param <T>  der Typ der Objekte
+	 * @return der {@link Builder}
+	 */
+	public static @NotNull <T> Builder<T> builder(final @NotNull Class<T> type) {
+		return new Builder<>(type);
+	}
+	
+	/**
+	 * Erstellt ein neues Objekt und füllt es mit der aktuellen Zeile des {@link ResultSet}s
+	 *
+	 * @param rs            das {@link ResultSet}
+	 * @param loadedObjects bereits geladene Objekte, welche bei Fremdschlüsseln genutzt werden
+	 * @return das neue Objekt
+	 * @throws IllegalStateException wenn die Klasse keinen public parameterlosen Konstruktor hat
+	 */
+	@SuppressWarnings("unchecked")
+	public @NotNull T map(final @NotNull ResultSet rs, final DBObject... loadedObjects) {
+		if (constructor == null) throw new IllegalStateException("Die Klasse hat keinen public parameterlosen Konstruktor");
+		T result;
+		try {
+			result = (T) (Object) constructor.invokeExact();
+		}
+		catch (final RuntimeException | Error e) {
+			throw e;
+		}
+		catch (final Throwable e) {
+			throw new RuntimeException(e);
+		}
+		fill(rs, result, loadedObjects);
+		return result;
+	}
+	
+	/**
+	 * Füllt ein vorhandenes Objekt mit der aktuellen Zeile des {@link ResultSet}s
+	 *
+	 * @param rs            das {@link ResultSet}
+	 * @param target        das zu füllende Objekt
+	 * @param loadedObjects bereits geladene Objekte, welche bei Fremdschlüsseln genutzt werden
+	 */
+	public void fill(final @NotNull ResultSet rs, final @NotNull T target, final DBObject... loadedObjects) {
+		try {
+			filler.invokeExact((Object) target, rs, loadedObjects);
+		}
+		catch (final RuntimeException | Error e) {
+			throw e;
+		}
+		catch (final SQLException e) {
+			throw new UncheckedSQLException(e);
+		}
+		catch (final Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Baut einen {@link RowMapper} Spalte für Spalte zusammen. Die erste Spalte ist die Spalte 1 des {@link ResultSet}s
+	 *
+	 * @param <T> der Typ der Objekte
+	 */
+	public static final class Builder<T> {
+		private final Class<T> type;
+		private MethodHandle filler = NOOP;
+		private int pos = 1;
+		
+		private Builder(final @NotNull Class<T> type) {
+			this.type = type;
+		}
+		
+		/**
+		 * Überspringt die nächste Spalte
+		 *
+		 * @return sich selbst
+		 */
+		public @NotNull Builder<T> skip() {
+			return skip(1);
+		}
+		
+		/**
+		 * Überspringt die gegebene Anzahl an Spalten
+		 *
+		 * @param steps Anzahl an zu überspringenden Spalten
+		 * @return sich selbst
+		 */
+		public @NotNull Builder<T> skip(final int steps) {
+			pos += steps;
+			return this;
+		}
+		
+		/**
+		 * Liest die nächste Spalte mit der {@link DAOBaseInterface#getPrimary(ResultSet, int)} Methode der DAO und setzt sie via {@link DBObject#setPrimary}
+		 *
+		 * @param dao die DAO der Objekte
+		 * @return sich selbst
+		 * @throws IllegalArgumentException wenn T kein {@link DBObject} ist
+		 */
+		public @NotNull Builder<T> primary(final @NotNull DAOBaseInterface<?, ?> dao) {
+			if (!DBObject.class.isAssignableFrom(type)) throw new IllegalArgumentException(type.getName() + " ist kein DBObject");
+			return add(SET_PRIMARY, GET_PRIMARY.bindTo(dao), Number.class);
+		}
+		
+		/**
+		 * Liest die nächste Spalte passend zum Parametertyp des Setters und gibt sie in den Setter.
+		 * Unterstützt werden die primitiven Typen und ihre Wrapper, {@link String}, {@link BigDecimal}, {@link Date}, {@link Time}, {@link Timestamp} und {@link java.util.Date}
+		 *
+		 * @param setter der Name des public Setters mit genau einem Parameter
+		 * @return sich selbst
+		 * @throws IllegalArgumentException wenn es den Setter nicht gibt oder der Typ nicht unterstützt wird
+		 */
+		public @NotNull Builder<T> column(final @NotNull String setter) {
+			Method method = findSetter(setter);
+			Class<?> valueType = method.getParameterTypes()[0];
+			MethodHandle reader = READERS.get(valueType);
+			if (reader == null) throw new IllegalArgumentException("Der Typ " + valueType.getName() + " von " + setter + " wird nicht unterstützt");
+			return add(unreflect(method), reader, valueType);
+		}
+		
+		/**
+		 * Liest die nächste Spalte als Fremdschlüssel und gibt das Objekt aus den bereits geladenen Objekten, der {@link net.sjr.sql.IdentityMap} oder der DAO in den Setter
+		 *
+		 * @param setter der Name des public Setters mit genau einem Parameter
+		 * @param dao    die DAO des verbundenen Objektes
+		 * @return sich selbst
+		 * @throws IllegalArgumentException wenn es den Setter nicht gibt
+		 */
+		public @NotNull Builder<T> dbObject(final @NotNull String setter, final @NotNull DAOBaseInterface<?, ?> dao) {
+			Method method = findSetter(setter);
+			Class<?> valueType = method.getParameterTypes()[0];
+			MethodHandle reader = MethodHandles.insertArguments(MethodHandles.insertArguments(LOADED_OBJECTS_OR_NULL, 0, pos), 1, dao)
+											   .asType(MethodType.methodType(valueType, ResultSet.class, DBObject[].class));
+			MethodHandle setterHandle = unreflect(method).asType(MethodType.methodType(void.class, Object.class, valueType));
+			pos++;
+			return chain(setterHandle, MethodHandles.dropArguments(reader, 0, Object.class), valueType);
+		}
+		
+		/**
+		 * Erstellt den {@link RowMapper}
+		 *
+		 * @return der {@link RowMapper}
+		 */
+		public @NotNull RowMapper<T> build() {
+			MethodHandle constructor = null;
+			if (!Modifier.isAbstract(type.getModifiers())) {
+				try {
+					constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+				}
+				catch (final NoSuchMethodException | IllegalAccessException ignored) {
+				}
+			}
+			return new RowMapper<>(constructor, filler);
+		}
+		
+		/**
+		 * Fügt eine Spalte mit einem Reader der Form {@code (ResultSet, int)X} hinzu
+		 *
+		 * @param setter    der Setter der Form {@code (T, X)void}
+		 * @param reader    der Reader der Form {@code (ResultSet, int)X}
+		 * @param valueType X
+		 * @return sich selbst
+		 */
+		private @NotNull Builder<T> add(final @NotNull MethodHandle setter, final @NotNull MethodHandle reader, final @NotNull Class<?> valueType) {
+			MethodHandle boundReader = MethodHandles.insertArguments(reader, 1, pos).asType(MethodType.methodType(valueType, ResultSet.class));
+			MethodHandle setterHandle = setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+			pos++;
+			return chain(setterHandle, MethodHandles.dropArguments(boundReader, 0, Object.class), valueType);
+		}
+		
+		/**
+		 * Hängt Setter und Reader an die Kette an
+		 *
+		 * @param setter    der Setter der Form {@code (Object, X)void}
+		 * @param reader    der Reader der Form {@code (Object, ResultSet[, DBObject[]])X}
+		 * @param valueType X
+		 * @return sich selbst
+		 */
+		private @NotNull Builder<T> chain(final @NotNull MethodHandle setter, final @NotNull MethodHandle reader, final @NotNull Class<?> valueType) {
+			MethodHandle fullReader = reader.type().parameterCount() == 2 ? MethodHandles.dropArguments(reader, 2, DBObject[].class) : reader;
+			MethodHandle target = MethodHandles.permuteArguments(setter, MethodType.methodType(void.class, valueType, Object.class), 1, 0);
+			target = MethodHandles.dropArguments(target, 2, ResultSet.class, DBObject[].class);
+			MethodHandle step = MethodHandles.foldArguments(target, fullReader);
+			filler = MethodHandles.foldArguments(step, filler);
+			return this;
+		}
+		
+		/**
+		 * Sucht den public Setter mit genau einem Parameter
+		 *
+		 * @param name der Name des Setters
+		 * @return der Setter
+		 */
+		private @NotNull Method findSetter(final @NotNull String name) {
+			Method result = null;
+			for (final Method m : type.getMethods()) {
+				if (m.getName().equals(name) && m.getParameterTypes().length == 1 && !m.isBridge() && !Modifier.isStatic(m.getModifiers())) {
+					if (result != null && !result.getParameterTypes()[0].equals(m.getParameterTypes()[0])) {
+						throw new IllegalArgumentException("Der Setter " + name + " ist überladen");
+					}
+					result = m;
+				}
+			}
+			if (result == null) throw new IllegalArgumentException("Es gibt keinen public Setter " + name + " in " + type.getName());
+			return result;
+		}
+		
+		/**
+		 * Erstellt den {@link MethodHandle} zu einer {@link Method}
+		 *
+		 * @param method die {@link Method}
+		 * @return der {@link MethodHandle}
+		 */
+		private static @NotNull MethodHandle unreflect(final @NotNull Method method) {
+			try {
+				return MethodHandles.publicLookup().unreflect(method);
+			}
+			catch (final IllegalAccessException e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Registriert eine Getter Methode des {@link ResultSet}s als Reader
+	 *
+	 * @param lookup der {@link MethodHandles.Lookup}
+	 * @param type   der Rückgabetyp des Getters
+	 * @param getter der Name des Getters
+	 * @throws NoSuchMethodException  wenn es den Getter nicht gibt
+	 * @throws IllegalAccessException wenn auf den Getter nicht zugegriffen werden kann
+	 */
+	private static void putResultSetReader(final @NotNull MethodHandles.Lookup lookup, final @NotNull Class<?> type, final @NotNull String getter) throws NoSuchMethodException, IllegalAccessException {
+		READERS.put(type, lookup.findVirtual(ResultSet.class, getter, MethodType.methodType(type, int.class)));
+	}
+	
+	/**
+	 * Registriert eine statische Methode der Form {@code (ResultSet, int)X} als Reader
+	 *
+	 * @param lookup der {@link MethodHandles.Lookup}
+	 * @param owner  die Klasse der Methode
+	 * @param type   der Rückgabetyp der Methode
+	 * @param getter der Name der Methode
+	 * @throws NoSuchMethodException  wenn es die Methode nicht gibt
+	 * @throws IllegalAccessException wenn auf die Methode nicht zugegriffen werden kann
+	 */
+	private static void putStaticReader(final @NotNull MethodHandles.Lookup lookup, final @NotNull Class<?> owner, final @NotNull Class<?> type, final @NotNull String getter) throws NoSuchMethodException, IllegalAccessException {
+		READERS.put(type, lookup.findStatic(owner, getter, MethodType.methodType(type, ResultSet.class, int.class)));
+	}
+	
+	/**
+	 * Anfang der Kette, macht nichts
+	 */
+	private static void noop(final Object target, final ResultSet rs, final DBObject[] loadedObjects) {
+	}
+	
+	/**
+	 * @see RsLoader#nextUtilDate()
+	 */
+	private static @Nullable java.util.Date getUtilDate(final @NotNull ResultSet rs, final int pos) throws SQLException {
+		Timestamp value = rs.getTimestamp(pos);
+		if (value == null) return null;
+		return new java.util.Date(value.getTime());
+	}
+	
+	/**
+	 * @see RsLoader#nextChar()
+	 */
+	private static char getChar(final @NotNull ResultSet rs, final int pos) throws SQLException {
+		String value = rs.getString(pos);
+		if (value == null || value.isEmpty()) throw new IllegalArgumentException("Der String ist null oder leer!");
+		return value.charAt(0);
+	}
+	
+	/**
+	 * @see RsLoader#nextNullChar()
+	 */
+	private static @Nullable Character getNullChar(final @NotNull ResultSet rs, final int pos) throws SQLException {
+		String value = rs.getString(pos);
+		if (value == null || value.isEmpty()) return null;
+		return value.charAt(0);
+	}
+}
@@ -3,6 +3,7 @@ package net.sjr.sql.rsloader;
 import net.sjr.sql.DAOBaseInterface;
 import net.sjr.sql.DBEnum;
 import net.sjr.sql.DBObject;
+import net.sjr.sql.IdentityMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -10,15 +11,77 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Klasse mit diversen Methoden, die bei dem Arbeiten mit {@link ResultSet}s hilfreich sind
  */
 @SuppressWarnings("WeakerAccess")
 public class RsUtils {
+	private static final ThreadLocal<ForeignKeyCollector> FOREIGN_KEY_COLLECTOR = new ThreadLocal<>();
+	private static final ThreadLocal<Boolean> FOREIGN_KEY_LOAD = new ThreadLocal<>();
+	private static final Map<Class<?>, Class<?>> OBJECT_CLASSES = new ConcurrentHashMap<>();
 	
 	/**
-	 * lädt ein Objekt aus den bereits geladenen Objekten oder zur not aus der DAO
+	 * Gibt den {@link ForeignKeyCollector} des aktuellen Threads zurück
+	 *
+	 * @return der {@link ForeignKeyCollector} oder {@code null}, wenn Fremdschlüssel direkt geladen werden
+	 */
+	public static @Nullable ForeignKeyCollector getForeignKeyCollector() {
+		return FOREIGN_KEY_COLLECTOR.get();
+	}
+	
+	/**
+	 * Setzt den {@link ForeignKeyCollector} des aktuellen Threads. Solange er gesetzt ist, werden Fremdschlüssel in {@link #loadedObjectsOrNull} an ihn übergeben statt direkt geladen
+	 *
+	 * @param collector der {@link ForeignKeyCollector} oder {@code null} um ihn zu entfernen
+	 */
+	public static void setForeignKeyCollector(final @Nullable ForeignKeyCollector collector) {
+		if (collector == null) FOREIGN_KEY_COLLECTOR.remove();
+		else FOREIGN_KEY_COLLECTOR.set(collector);
+	}
+	
+	/**
+	 * Gibt zurück, ob der aktuelle Thread gerade über {@link #loadedObjectsOrNull} einen Fremdschlüssel lädt und setzt die Markierung zurück,
+	 * damit weitere Abfragen während des Ladens nicht mitgezählt werden. Wird von der DAO vor der Abfrage an die Datenbank aufgerufen
+	 *
+	 * @return {@code true}, wenn die folgende Abfrage einen Fremdschlüssel auflöst
+	 */
+	public static boolean consumeForeignKeyLoad() {
+		if (FOREIGN_KEY_LOAD.get() == null) return false;
+		FOREIGN_KEY_LOAD.remove();
+		return true;
+	}
+	
+	/**
+	 * Findet die Klasse der Objekte einer DAO an Hand der Generics heraus. Das Ergebnis wird pro DAO Klasse gecached
+	 *
+	 * @param dao die DAO
+	 * @param <T> der Typ der DAO
+	 * @param <P> der Primary Typ des Types der DAO
+	 *
+	 * @return die Klasse der Objekte
+	 */
+	@SuppressWarnings("unchecked")
+	public static @NotNull <T extends DBObject<P>, P extends Number> Class<T> getObjectClass(final @NotNull DAOBaseInterface<T, P> dao) {
+		Class<?> result = OBJECT_CLASSES.get(dao.getClass());
+		if (result == null) {
+			Type type = dao.getClass();
+			while (type instanceof Class) {
+				type = ((Class) type).getGenericSuperclass();
+			}
+			Type objectType = ((ParameterizedType) type).getActualTypeArguments()[0];
+			if (!(objectType instanceof Class)) throw new RuntimeException("Object class konnte nicht an Hand der Generics ermittelt werden");
+			result = (Class<?>) objectType;
+			OBJECT_CLASSES.put(dao.getClass(), result);
+		}
+		return (Class<T>) result;
+	}
+	
+	/**
+	 * lädt ein Objekt aus den bereits geladenen Objekten, der offenen {@link IdentityMap} oder zur not aus der DAO.
+	 * Ist ein {@link ForeignKeyCollector} gesetzt, wird statt dem Laden aus der DAO dessen Platzhalter zurück gegeben
 	 *
 	 * @param rsPos         Position der ID im ResultSet
 	 * @param rs            das ResultSet mit der ID
@@ -42,18 +105,31 @@ public class RsUtils {
 		if (loadedObjects != null) {
 			for (final DBObject o : loadedObjects) {
 				if (o != null && o.getPrimary() != null && o.getPrimary().equals(id)) {
-					Type type = dao.getClass();
-					while (type instanceof Class) {
-						type = ((Class) type).getGenericSuperclass();
-					}
-					Class<T> genericClass = (Class<T>) ((ParameterizedType) type).getActualTypeArguments()[0];
-					if (genericClass.isInstance(o)) {
+					if (getObjectClass(dao).isInstance(o)) {
 						return (T) o;
 					}
 				}
 			}
 		}
-		return dao.loadFromID(id);
+		IdentityMap identityMap = IdentityMap.current();
+		if (identityMap != null) {
+			T identity = identityMap.get(getObjectClass(dao), id);
+			if (identity != null) return identity;
+		}
+		ForeignKeyCollector collector = FOREIGN_KEY_COLLECTOR.get();
+		if (collector != null) {
+			T placeholder = collector.defer(dao, id);
+			if (placeholder != null) return placeholder;
+		}
+		Boolean previous = FOREIGN_KEY_LOAD.get();
+		FOREIGN_KEY_LOAD.set(Boolean.TRUE);
+		try {
+			return dao.loadFromID(id);
+		}
+		finally {
+			if (previous == null) FOREIGN_KEY_LOAD.remove();
+			else FOREIGN_KEY_LOAD.set(previous);
+		}
 	}
 	
 	/**